@@ -0,0 +1,96 @@
+package com.usermanagement.api.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a single {@link UserResponse} and of pages and exports of them,
+ * using the same object mapper defaults the application runs with.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserResponseSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    // Written to a discarding stream so the cost of the output buffer is not measured
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private ObjectWriter userWriter;
+    private ObjectWriter listWriter;
+    private UserResponse user;
+
+    @State(Scope.Benchmark)
+    public static class Users {
+
+        @Param({"20", "1000", "100000"})
+        public int size;
+
+        List<UserResponse> users;
+
+        @Setup
+        public void setUp() {
+            users = new ArrayList<>(size);
+            for (long id = 1; id <= size; id++) {
+                users.add(newUser(id));
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        userWriter = objectMapper.writerFor(UserResponse.class);
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, UserResponse.class))
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        user = newUser(1);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws IOException {
+        return userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public void serializeUserList(Users users) throws IOException {
+        listWriter.writeValue(sink, users.users);
+    }
+
+    private static UserResponse newUser(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return UserResponse.builder()
+                .id(id)
+                .firstName("First" + id)
+                .lastName("Last" + id)
+                .email("user" + id + "@example.com")
+                .username("user" + id)
+                .createdAt(now)
+                .updatedAt(now)
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.usermanagement.api.index;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead lookups of ten keys by a short prefix over a million emails, in the
+ * front-coded {@link PrefixIndex} the suggest index keeps and in a {@link TreeMap} of
+ * boxed values for comparison. The memory each takes is printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrefixIndexBenchmark {
+
+    private static final int KEYS = 1_000_000;
+    private static final int RESULTS = 10;
+    private static final String[] NAMES = {"anna", "ben", "carla", "david", "emma", "felix", "grace", "henry",
+            "isla", "jack", "kate", "liam", "mia", "noah", "olivia", "peter", "quinn", "ruby", "sam", "tom"};
+    private static final String[] DOMAINS = {"example.com", "mail.example.org", "corp.example.net"};
+
+    private PrefixIndex prefixIndex;
+    private TreeMap<String, Long> treeMap;
+    private String[] prefixes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        treeMap = new TreeMap<>();
+        while (treeMap.size() < KEYS) {
+            String key = NAMES[random.nextInt(NAMES.length)] + "." + NAMES[random.nextInt(NAMES.length)]
+                    + random.nextInt(100_000) + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+            treeMap.put(key, (long) treeMap.size());
+        }
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        treeMap.forEach(builder::add);
+        prefixIndex = builder.build();
+
+        long textBytes = treeMap.keySet().stream().mapToLong(String::length).sum();
+        System.out.printf("%n%d keys, %d KB of text, %d KB in the prefix index%n",
+                KEYS, textBytes / 1024, prefixIndex.memoryBytes() / 1024);
+
+        List<String> sample = new ArrayList<>();
+        for (String name : NAMES) {
+            sample.add(name.substring(0, 2));
+            sample.add(name + "." + NAMES[random.nextInt(NAMES.length)].charAt(0));
+        }
+        prefixes = sample.toArray(String[]::new);
+    }
+
+    @Benchmark
+    public List<String> prefixIndex() {
+        String prefix = randomPrefix();
+        List<String> keys = new ArrayList<>(RESULTS);
+        prefixIndex.forEachWithPrefix(prefix, (key, value) -> {
+            keys.add(key);
+            return keys.size() < RESULTS;
+        });
+        return keys;
+    }
+
+    @Benchmark
+    public List<String> treeMap() {
+        String prefix = randomPrefix();
+        List<String> keys = new ArrayList<>(RESULTS);
+        for (Map.Entry<String, Long> entry : treeMap.tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix) || keys.size() == RESULTS) {
+                break;
+            }
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    private String randomPrefix() {
+        return prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)];
+    }
+}
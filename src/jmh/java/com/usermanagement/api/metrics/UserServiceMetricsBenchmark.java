@@ -0,0 +1,73 @@
+package com.usermanagement.api.metrics;
+
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.service.UserService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@link UserServiceMetricsAspect} on a service call that does no work itself,
+ * compared with the same call through a proxy without the aspect. The registry publishes
+ * percentile histograms for the operation timers, as in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceMetricsBenchmark {
+
+    private UserService plain;
+    private UserService instrumented;
+
+    @Setup
+    public void setUp() {
+        UserResponse user = UserResponse.builder().id(1L).build();
+        UserService target = (UserService) Proxy.newProxyInstance(UserService.class.getClassLoader(),
+                new Class<?>[]{UserService.class}, (proxy, method, args) -> user);
+
+        plain = new AspectJProxyFactory(target).getProxy();
+
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().equals(UserServiceMetricsAspect.OPERATIONS)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new UserServiceMetricsAspect(registry, new StatementCounter()));
+        instrumented = proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public UserResponse withoutMetrics() {
+        return plain.getUserById(1L);
+    }
+
+    @Benchmark
+    public UserResponse withMetrics() {
+        return instrumented.getUserById(1L);
+    }
+}
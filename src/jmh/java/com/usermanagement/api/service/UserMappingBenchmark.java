@@ -0,0 +1,54 @@
+package com.usermanagement.api.service;
+
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a {@link User} entity into the {@link UserResponse} every endpoint returns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMappingBenchmark {
+
+    private UserServiceImpl userService;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        // Mapping touches none of the collaborators
+        userService = new UserServiceImpl(null, null, null, null, null, null, null);
+        user = User.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@example.com")
+                .username("johndoe")
+                .password("password123")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .active(true)
+                .build();
+    }
+
+    @Benchmark
+    public UserResponse mapToUserResponse() {
+        return userService.mapToUserResponse(user);
+    }
+}
@@ -0,0 +1,133 @@
+package com.usermanagement.api.service;
+
+import com.usermanagement.api.UserManagementApplication;
+import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.model.User;
+import com.usermanagement.api.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of single users and pages of 20 through managed entities, as every read used to
+ * be done, against the constructor-expression views used now. Both run in a read-only
+ * transaction on the H2 database of the test profile, with the cache out of the way;
+ * compare {@code gc.alloc.rate.norm} as well as the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserReadPathBenchmark {
+
+    private static final int SEEDED_USERS = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    private ConfigurableApplicationContext context;
+    private UserServiceImpl userService;
+    private UserRepository userRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private List<Long> userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                // Passed as arguments so that they override the test profile
+                .run("--user.cache.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN");
+        userService = context.getBean(UserServiceImpl.class);
+        userRepository = context.getBean(UserRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        userIds = new ArrayList<>(SEEDED_USERS);
+        List<UserCreateRequest> batch = new ArrayList<>();
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            batch.add(UserCreateRequest.builder()
+                    .firstName("Bench")
+                    .lastName("User")
+                    .email("seed" + i + "@example.com")
+                    .username("seed" + i)
+                    .password("password123")
+                    .build());
+            if (batch.size() == 1000) {
+                userService.createUsers(batch).getResults().forEach(result -> userIds.add(result.getUser().getId()));
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponse entityById() {
+        Long id = randomUserId();
+        return readOnly.execute(status -> userService.mapToUserResponse(userRepository.findById(id).orElseThrow()));
+    }
+
+    @Benchmark
+    public UserResponse viewById() {
+        Long id = randomUserId();
+        return readOnly.execute(status -> userService.mapToUserResponse(userRepository.findViewById(id).orElseThrow()));
+    }
+
+    @Benchmark
+    public List<UserResponse> entityPage() {
+        long afterId = randomUserId();
+        return readOnly.execute(status -> entityManager
+                .createQuery("select u from User u where u.id > :afterId order by u.id", User.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultStream()
+                .map(userService::mapToUserResponse)
+                .toList());
+    }
+
+    @Benchmark
+    public List<UserResponse> viewPage() {
+        long afterId = randomUserId();
+        return readOnly.execute(status -> userRepository.findPageOrderById(null, afterId, Limit.of(PAGE_SIZE))
+                .stream()
+                .map(userService::mapToUserResponse)
+                .toList());
+    }
+
+    private Long randomUserId() {
+        return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.usermanagement.api.service;
+
+import com.usermanagement.api.UserManagementApplication;
+import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSortField;
+import com.usermanagement.api.dto.UserUpdateRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end {@link UserService} calls through the Spring context, transactions and
+ * Hibernate, against the in-memory H2 database of the test profile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    private static final int SEEDED_USERS = 10_000;
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private List<Long> userIds;
+    private final AtomicLong created = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                // Passed as arguments so that they override the test profile
+                .run("--user.cache.enabled=" + cacheEnabled,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN");
+        userService = context.getBean(UserService.class);
+
+        userIds = new ArrayList<>(SEEDED_USERS);
+        List<UserCreateRequest> batch = new ArrayList<>();
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            batch.add(newUser("seed" + i));
+            if (batch.size() == 1000) {
+                userService.createUsers(batch).getResults().forEach(result -> userIds.add(result.getUser().getId()));
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponse getUserById() {
+        return userService.getUserById(randomUserId());
+    }
+
+    @Benchmark
+    public UserPageResponse getUsers() {
+        return userService.getUsers(null, 20, null, UserSortField.ID);
+    }
+
+    @Benchmark
+    public UserResponse createUser() {
+        return userService.createUser(newUser("bench" + created.incrementAndGet()));
+    }
+
+    @Benchmark
+    public UserResponse updateUser() {
+        UserUpdateRequest request = UserUpdateRequest.builder()
+                .firstName("Updated" + ThreadLocalRandom.current().nextInt(1000))
+                .build();
+        return userService.updateUser(randomUserId(), request, null);
+    }
+
+    private Long randomUserId() {
+        return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+    }
+
+    private static UserCreateRequest newUser(String username) {
+        return UserCreateRequest.builder()
+                .firstName("Bench")
+                .lastName("User")
+                .email(username + "@example.com")
+                .username(username)
+                .password("password123")
+                .build();
+    }
+}
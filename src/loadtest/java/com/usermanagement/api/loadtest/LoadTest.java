@@ -0,0 +1,201 @@
+package com.usermanagement.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.usermanagement.api.UserManagementApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load generator for the user API.
+ * <p>
+ * A fixed number of workers, each on its own virtual thread, issue requests back to back
+ * in the configured mix of operations. After a warm-up the latency of every request is
+ * recorded in an HdrHistogram per operation, and the run ends with a JSON report of
+ * throughput, latency percentiles and status counts. Unless {@code loadtest.target-url}
+ * is set, the application is started in-process on the H2 database of the test profile.
+ * <p>
+ * The process exits with status 1 when the run misses {@code loadtest.max-error-rate} or
+ * {@code loadtest.min-throughput}, so it can gate a build.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        ConfigurableApplicationContext context = null;
+        String targetUrl = config.getTargetUrl();
+        if (targetUrl.isEmpty()) {
+            context = startApplication(config.getServerArgs());
+            targetUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        LoadTestReport report;
+        try {
+            report = run(config, targetUrl);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToEnable(SerializationFeature.INDENT_OUTPUT)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        Files.createDirectories(config.getReport().toAbsolutePath().getParent());
+        objectMapper.writeValue(config.getReport().toFile(), report);
+        printSummary(report);
+        System.out.println("Report written to " + config.getReport().toAbsolutePath());
+
+        if (!report.getFailedThresholds().isEmpty()) {
+            report.getFailedThresholds().forEach(failure -> System.err.println("FAILED: " + failure));
+            System.exit(1);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(List<String> serverArgs) {
+        // Passed as arguments so that they override the test profile; the configured ones come last and win
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN"));
+        args.addAll(serverArgs);
+        return new SpringApplicationBuilder(UserManagementApplication.class)
+                .profiles("test")
+                .run(args.toArray(String[]::new));
+    }
+
+    private static LoadTestReport run(LoadTestConfig config, String targetUrl) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        UserPool pool = new UserPool();
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats(operation));
+        }
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .build()) {
+            UserApiClient client = new UserApiClient(httpClient, objectMapper, targetUrl, pool, config.getBatchSize());
+            System.out.printf("Seeding %d users at %s%n", config.getSeedUsers(), targetUrl);
+            client.seed(config.getSeedUsers());
+
+            long warmupEnd = System.nanoTime() + config.getWarmup().toNanos();
+            long end = warmupEnd + config.getDuration().toNanos();
+            System.out.printf("Running %d workers: %s warm-up, %s measured%n",
+                    config.getConcurrency(), config.getWarmup(), config.getDuration());
+            for (int i = 0; i < config.getConcurrency(); i++) {
+                workers.execute(() -> work(client, config.getMix(), stats, end));
+            }
+
+            TimeUnit.NANOSECONDS.sleep(Math.max(warmupEnd - System.nanoTime(), 0));
+            stats.values().forEach(OperationStats::reset);
+            Instant startedAt = Instant.now();
+            long measuredFrom = System.nanoTime();
+
+            workers.shutdown();
+            workers.awaitTermination(config.getDuration().toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+            double seconds = (System.nanoTime() - measuredFrom) / 1_000_000_000d;
+            return buildReport(config, targetUrl, startedAt, seconds, stats);
+        }
+    }
+
+    private static void work(UserApiClient client, WorkloadMix mix, Map<Operation, OperationStats> stats, long end) {
+        while (System.nanoTime() < end) {
+            Operation operation = mix.next();
+            long startedAt = System.nanoTime();
+            int status;
+            try {
+                status = client.execute(operation);
+            } catch (IOException ex) {
+                status = OperationStats.NO_RESPONSE;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            stats.get(operation).record(System.nanoTime() - startedAt, status);
+        }
+    }
+
+    private static LoadTestReport buildReport(LoadTestConfig config, String targetUrl, Instant startedAt,
+                                              double seconds, Map<Operation, OperationStats> stats) {
+        Histogram overall = new Histogram(3);
+        List<LoadTestReport.OperationReport> operations = new ArrayList<>();
+        long errors = 0;
+        for (OperationStats operationStats : stats.values()) {
+            Histogram histogram = operationStats.collect();
+            overall.add(histogram);
+            LoadTestReport.OperationReport operation = operationStats.report(histogram, seconds);
+            if (operation.getRequests() > 0) {
+                operations.add(operation);
+                errors += operation.getErrors();
+            }
+        }
+
+        long requests = overall.getTotalCount();
+        double errorRate = requests == 0 ? 0 : (double) errors / requests;
+        double throughput = requests / seconds;
+        List<String> failedThresholds = new ArrayList<>();
+        if (errorRate > config.getMaxErrorRate()) {
+            failedThresholds.add(String.format("error rate %.4f is above %.4f", errorRate, config.getMaxErrorRate()));
+        }
+        if (throughput < config.getMinThroughput()) {
+            failedThresholds.add(String.format("throughput %.1f req/s is below %.1f", throughput, config.getMinThroughput()));
+        }
+
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        config.getMix().getWeights().forEach((operation, weight) -> mix.put(operation.getKey(), weight));
+        return LoadTestReport.builder()
+                .startedAt(startedAt)
+                .target(targetUrl)
+                .concurrency(config.getConcurrency())
+                .durationSeconds(seconds)
+                .mix(mix)
+                .requests(requests)
+                .errors(errors)
+                .errorRate(errorRate)
+                .throughput(throughput)
+                .latencyMillis(LoadTestReport.Latency.from(overall))
+                .operations(operations)
+                .failedThresholds(failedThresholds)
+                .build();
+    }
+
+    private static void printSummary(LoadTestReport report) {
+        String format = "%-14s %10s %10s %10s %10s %10s %10s%n";
+        System.out.printf(format, "operation", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms");
+        for (LoadTestReport.OperationReport operation : report.getOperations()) {
+            System.out.printf(format, operation.getOperation(), operation.getRequests(),
+                    String.format("%.1f", operation.getThroughput()), operation.getErrors(),
+                    String.format("%.2f", operation.getLatencyMillis().getP50()),
+                    String.format("%.2f", operation.getLatencyMillis().getP99()),
+                    String.format("%.2f", operation.getLatencyMillis().getP999()));
+        }
+        System.out.printf(format, "total", report.getRequests(),
+                String.format("%.1f", report.getThroughput()), report.getErrors(),
+                String.format("%.2f", report.getLatencyMillis().getP50()),
+                String.format("%.2f", report.getLatencyMillis().getP99()),
+                String.format("%.2f", report.getLatencyMillis().getP999()));
+    }
+}
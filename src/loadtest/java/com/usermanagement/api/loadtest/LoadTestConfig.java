@@ -0,0 +1,55 @@
+package com.usermanagement.api.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties.
+ */
+@Value
+@Builder
+class LoadTestConfig {
+
+    static final String DEFAULT_MIX = "create=10,getById=30,getByUsername=15,getByEmail=15,list=15,update=10,delete=5";
+
+    /** Base URL of a running server; when empty the application is started on an embedded database. */
+    String targetUrl;
+    /** Extra arguments, such as {@code --spring.threads.virtual.enabled=false}, for the application started in-process. */
+    List<String> serverArgs;
+    int concurrency;
+    Duration warmup;
+    Duration duration;
+    int seedUsers;
+    /** Users per request of the {@code batchCreate} operation. */
+    int batchSize;
+    WorkloadMix mix;
+    Path report;
+    /** Fails the run when the overall error rate is higher. */
+    double maxErrorRate;
+    /** Fails the run when overall throughput, in requests per second, is lower; 0 disables the check. */
+    double minThroughput;
+
+    static LoadTestConfig fromSystemProperties() {
+        return LoadTestConfig.builder()
+                .targetUrl(System.getProperty("loadtest.target-url", ""))
+                .serverArgs(Arrays.stream(System.getProperty("loadtest.server-args", "").split("\\s+"))
+                        .filter(arg -> !arg.isEmpty())
+                        .toList())
+                .concurrency(Integer.parseInt(System.getProperty("loadtest.concurrency", "64")))
+                .warmup(DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s")))
+                .duration(DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "30s")))
+                .seedUsers(Integer.parseInt(System.getProperty("loadtest.seed-users", "1000")))
+                .batchSize(Integer.parseInt(System.getProperty("loadtest.batch-size", "100")))
+                .mix(WorkloadMix.parse(System.getProperty("loadtest.mix", DEFAULT_MIX)))
+                .report(Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json")))
+                .maxErrorRate(Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")))
+                .minThroughput(Double.parseDouble(System.getProperty("loadtest.min-throughput", "0")))
+                .build();
+    }
+}
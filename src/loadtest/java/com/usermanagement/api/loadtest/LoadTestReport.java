@@ -0,0 +1,78 @@
+package com.usermanagement.api.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.HdrHistogram.Histogram;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a load test run, written as JSON.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadTestReport {
+
+    private Instant startedAt;
+    private String target;
+    private int concurrency;
+    private double durationSeconds;
+    private Map<String, Integer> mix;
+    private long requests;
+    private long errors;
+    private double errorRate;
+    private double throughput;
+    private Latency latencyMillis;
+    private List<OperationReport> operations;
+    private List<String> failedThresholds;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OperationReport {
+
+        private String operation;
+        private long requests;
+        private long errors;
+        private double errorRate;
+        private double throughput;
+        private Latency latencyMillis;
+        private Map<String, Long> statusCounts;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Latency {
+
+        private double mean;
+        private double p50;
+        private double p90;
+        private double p99;
+        private double p999;
+        private double max;
+
+        static Latency from(Histogram nanos) {
+            return Latency.builder()
+                    .mean(toMillis(nanos.getMean()))
+                    .p50(toMillis(nanos.getValueAtPercentile(50)))
+                    .p90(toMillis(nanos.getValueAtPercentile(90)))
+                    .p99(toMillis(nanos.getValueAtPercentile(99)))
+                    .p999(toMillis(nanos.getValueAtPercentile(99.9)))
+                    .max(toMillis(nanos.getMaxValue()))
+                    .build();
+        }
+
+        private static double toMillis(double nanos) {
+            return nanos / 1_000_000d;
+        }
+    }
+}
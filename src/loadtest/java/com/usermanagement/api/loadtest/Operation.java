@@ -0,0 +1,43 @@
+package com.usermanagement.api.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * The API calls the load generator mixes, keyed by the names used in {@code loadtest.mix}.
+ */
+enum Operation {
+    CREATE("create", false),
+    BATCH_CREATE("batchCreate", false),
+    GET_BY_ID("getById", true),
+    GET_BY_USERNAME("getByUsername", true),
+    GET_BY_EMAIL("getByEmail", true),
+    AVAILABILITY("availability", true),
+    SEARCH("search", true),
+    LIST("list", false),
+    EXPORT("export", false),
+    UPDATE("update", true),
+    DELETE("delete", true);
+
+    private final String key;
+    private final boolean needsUser;
+
+    Operation(String key, boolean needsUser) {
+        this.key = key;
+        this.needsUser = needsUser;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    boolean needsUser() {
+        return needsUser;
+    }
+
+    static Operation fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation in mix: " + key));
+    }
+}
@@ -0,0 +1,74 @@
+package com.usermanagement.api.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and response counts for one operation, safe to record into from
+ * any number of workers.
+ */
+final class OperationStats {
+
+    /** Status recorded when a request failed without a response. */
+    static final int NO_RESPONSE = -1;
+
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private final Operation operation;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_LATENCY, 3);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+
+    OperationStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    void record(long latencyNanos, int status) {
+        recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_LATENCY));
+        statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (isError(status)) {
+            errors.increment();
+        }
+    }
+
+    /** Drops everything recorded so far, at the end of the warm-up. */
+    void reset() {
+        recorder.reset();
+        statusCounts.clear();
+        errors.reset();
+    }
+
+    /** Latencies recorded since the last reset, in nanoseconds. */
+    Histogram collect() {
+        return recorder.getIntervalHistogram();
+    }
+
+    LoadTestReport.OperationReport report(Histogram histogram, double seconds) {
+        long requests = histogram.getTotalCount();
+        long errorCount = errors.sum();
+        Map<String, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) ->
+                statuses.put(status == NO_RESPONSE ? "none" : String.valueOf(status), count.sum()));
+
+        return LoadTestReport.OperationReport.builder()
+                .operation(operation.getKey())
+                .requests(requests)
+                .errors(errorCount)
+                .errorRate(requests == 0 ? 0 : (double) errorCount / requests)
+                .throughput(requests / seconds)
+                .latencyMillis(LoadTestReport.Latency.from(histogram))
+                .statusCounts(statuses)
+                .build();
+    }
+
+    private static boolean isError(int status) {
+        // Conflicts and missing users are part of a mixed workload; only server and transport failures are errors
+        return status == NO_RESPONSE || status >= 500;
+    }
+}
@@ -0,0 +1,178 @@
+package com.usermanagement.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.api.dto.UserBatchCreateRequest;
+import com.usermanagement.api.dto.UserBatchCreateResponse;
+import com.usermanagement.api.dto.UserBatchItemResult;
+import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserUpdateRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues one {@link Operation} at a time against the user API and keeps the
+ * {@link UserPool} in step with what it created and deleted.
+ */
+final class UserApiClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final UserPool pool;
+    private final int batchSize;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    UserApiClient(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl, UserPool pool, int batchSize) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.pool = pool;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs the operation and returns the response status. Operations that need an
+     * existing user create one instead while the pool is empty.
+     */
+    int execute(Operation operation) throws IOException, InterruptedException {
+        UserResponse user = null;
+        if (operation.needsUser()) {
+            user = operation == Operation.DELETE ? pool.take() : pool.pick();
+            if (user == null) {
+                operation = Operation.CREATE;
+            }
+        }
+
+        return switch (operation) {
+            case CREATE -> create();
+            case BATCH_CREATE -> createBatch(batchSize).statusCode();
+            case GET_BY_ID -> send(get("/api/users/" + user.getId())).statusCode();
+            case GET_BY_USERNAME -> send(get("/api/users/username/" + encode(user.getUsername()))).statusCode();
+            case GET_BY_EMAIL -> send(get("/api/users/email/" + encode(user.getEmail()))).statusCode();
+            case AVAILABILITY -> checkAvailability(user);
+            case SEARCH -> search(user);
+            case LIST -> send(get("/api/users?limit=20")).statusCode();
+            case EXPORT -> export();
+            case UPDATE -> update(user);
+            case DELETE -> send(request("/api/users/" + user.getId()).DELETE().build()).statusCode();
+        };
+    }
+
+    /** Creates users through the batch endpoint so that lookups have something to find from the start. */
+    void seed(int count) throws IOException, InterruptedException {
+        for (int created = 0; created < count; created += UserBatchCreateRequest.MAX_BATCH_SIZE) {
+            HttpResponse<byte[]> response = createBatch(Math.min(count - created, UserBatchCreateRequest.MAX_BATCH_SIZE));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode());
+            }
+        }
+    }
+
+    private HttpResponse<byte[]> createBatch(int size) throws IOException, InterruptedException {
+        List<UserCreateRequest> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            batch.add(newUser());
+        }
+        HttpResponse<byte[]> response = send(json("/api/users/batch", "POST", new UserBatchCreateRequest(batch)));
+        if (response.statusCode() == 200) {
+            UserBatchCreateResponse result = objectMapper.readValue(response.body(), UserBatchCreateResponse.class);
+            result.getResults().stream()
+                    .filter(item -> item.getStatus() == UserBatchItemResult.Status.CREATED)
+                    .forEach(item -> pool.add(item.getUser()));
+        }
+        return response;
+    }
+
+    private int create() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(json("/api/users", "POST", newUser()));
+        if (response.statusCode() == 201) {
+            pool.add(objectMapper.readValue(response.body(), UserResponse.class));
+        }
+        return response.statusCode();
+    }
+
+    /** Asks for a taken username or a free one, half the time each, like a signup form would. */
+    private int checkAvailability(UserResponse user) throws IOException, InterruptedException {
+        String username = ThreadLocalRandom.current().nextBoolean()
+                ? user.getUsername()
+                : "free-" + runId + "-" + sequence.incrementAndGet();
+        return send(get("/api/users/availability?username=" + encode(username))).statusCode();
+    }
+
+    /**
+     * Searches for the last four characters of a known username, which few other users
+     * share, so every row has to be matched but the first page is small.
+     */
+    private int search(UserResponse user) throws IOException, InterruptedException {
+        String username = user.getUsername();
+        String query = username.substring(Math.max(0, username.length() - 4));
+        return send(get("/api/users/search?limit=20&q=" + encode(query))).statusCode();
+    }
+
+    /** Reads the whole export; the latency is that of the last line arriving. */
+    private int export() throws IOException, InterruptedException {
+        HttpRequest request = request("/api/users/export")
+                .setHeader("Accept", "application/x-ndjson")
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int update(UserResponse user) throws IOException, InterruptedException {
+        UserUpdateRequest request = UserUpdateRequest.builder()
+                .firstName("Updated" + ThreadLocalRandom.current().nextInt(1000))
+                .build();
+        return send(json("/api/users/" + user.getId(), "PUT", request)).statusCode();
+    }
+
+    private UserCreateRequest newUser() {
+        String username = "load-" + runId + "-" + sequence.incrementAndGet();
+        return UserCreateRequest.builder()
+                .firstName("Load")
+                .lastName("Test")
+                .email(username + "@example.com")
+                .username(username)
+                .password("password123")
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest json(String path, String method, Object body) throws IOException {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json");
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,38 @@
+package com.usermanagement.api.loadtest;
+
+import com.usermanagement.api.dto.UserResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Users known to exist on the server, for the operations that need one to work on.
+ * Deletes take their user out of the pool first, so lookups and updates rarely race them.
+ */
+final class UserPool {
+
+    private final List<UserResponse> users = new ArrayList<>();
+
+    synchronized void add(UserResponse user) {
+        users.add(user);
+    }
+
+    synchronized UserResponse pick() {
+        return users.isEmpty() ? null : users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    synchronized UserResponse take() {
+        if (users.isEmpty()) {
+            return null;
+        }
+        // Swap with the last element so removal does not shift the list
+        int index = ThreadLocalRandom.current().nextInt(users.size());
+        UserResponse last = users.remove(users.size() - 1);
+        return index == users.size() ? last : users.set(index, last);
+    }
+
+    synchronized int size() {
+        return users.size();
+    }
+}
@@ -0,0 +1,103 @@
+package com.usermanagement.api.cache;
+
+import com.usermanagement.api.exception.UserManagementException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one load per key at a time; callers asking for a key that is already
+ * being loaded wait for that load and share its result or exception.
+ * <p>
+ * Loads in flight are kept in a {@link ConcurrentHashMap}, so callers for different keys
+ * never contend, and each load is removed once done, however it ends. A load belongs to
+ * the generation it started in: callers from a later generation, that is after an
+ * invalidation, start a new load rather than share one that may return data from before
+ * it.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final LongAdder shared;
+
+    SingleFlight(Duration timeout, LongAdder shared) {
+        this.timeout = timeout;
+        this.shared = shared;
+    }
+
+    /**
+     * Returns the result of the load in flight for the key and generation, or runs the
+     * given one.
+     *
+     * @throws UserManagementException with status 503 when the load in flight takes longer
+     *                                 than the timeout
+     */
+    V load(K key, long generation, Supplier<V> loader) {
+        Flight<V> own = new Flight<>(generation);
+        while (true) {
+            Flight<V> existing = flights.putIfAbsent(key, own);
+            if (existing == null) {
+                break;
+            }
+            if (existing.generation >= generation) {
+                shared.increment();
+                return await(existing.result);
+            }
+            // Started before an invalidation; its callers keep it, later ones get this one
+            if (flights.replace(key, existing, own)) {
+                break;
+            }
+        }
+        try {
+            V value = loader.get();
+            own.result.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            own.result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            flights.remove(key, own);
+        }
+    }
+
+    int size() {
+        return flights.size();
+    }
+
+    private V await(CompletableFuture<V> result) {
+        try {
+            return result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            throw UserManagementException.serviceUnavailable("Timed out waiting for user lookup, retry later");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw UserManagementException.serviceUnavailable("Interrupted while waiting for user lookup");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new CompletionException(ex.getCause());
+        }
+    }
+
+    private static final class Flight<V> {
+
+        private final long generation;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        Flight(long generation) {
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.usermanagement.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.usermanagement.api.datasource.DataSourceRouting;
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.model.User;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-process near cache holding one {@link UserResponse} per user, reachable by id,
+ * username and email.
+ * <p>
+ * Entries are stored once, keyed by id; usernames and emails only map to ids and are
+ * checked against the cached user on every read, so an alias left behind by an email
+ * change can never serve another user's data. Writes through this node invalidate after
+ * commit, and a load that raced with an invalidation is not cached. Writes through other
+ * nodes are found by {@link UserCacheInvalidator}, which compares the versions of the
+ * users updated recently with the cached ones. Users deleted through other nodes leave no
+ * row to find, so they are served until their entry expires, which bounds how long the
+ * cache can be stale. Loads read from the primary, as a lagging replica could still
+ * return what a write just invalidated.
+ * <p>
+ * Concurrent misses for the same key share one load, so a popular user that has just
+ * been evicted is read once rather than once per caller. Callers that miss after an
+ * invalidation do not join a load that started before it.
+ */
+@Component
+public class UserCache {
+
+    private final boolean enabled;
+    private final Cache<Long, UserResponse> usersById;
+    private final Cache<String, Long> idsByUsername;
+    private final Cache<String, Long> idsByEmail;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final SingleFlight<Long, UserResponse> loadsById;
+    private final SingleFlight<String, UserResponse> loadsByUsername;
+    private final SingleFlight<String, UserResponse> loadsByEmail;
+
+    public UserCache(UserCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.idsByUsername = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .build();
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .build();
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .executor(Runnable::run)
+                .removalListener((Long id, UserResponse user, RemovalCause cause) -> {
+                    if (id != null && user != null) {
+                        idsByUsername.asMap().remove(User.normalize(user.getUsername()), id);
+                        idsByEmail.asMap().remove(User.normalize(user.getEmail()), id);
+                    }
+                })
+                .build();
+        this.loadsById = new SingleFlight<>(properties.getLoadTimeout(), coalesced);
+        this.loadsByUsername = new SingleFlight<>(properties.getLoadTimeout(), coalesced);
+        this.loadsByEmail = new SingleFlight<>(properties.getLoadTimeout(), coalesced);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public UserResponse getById(Long id, Function<Long, UserResponse> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        UserResponse cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        return load(loadsById, id, id, loader);
+    }
+
+    /**
+     * Returns the cached user with the given id, or {@code null} without loading it.
+     */
+    public UserResponse getIfPresent(Long id) {
+        return enabled ? usersById.getIfPresent(id) : null;
+    }
+
+    public UserResponse getByUsername(String username, Function<String, UserResponse> loader) {
+        return getByAlias(idsByUsername, loadsByUsername, username, UserResponse::getUsername, loader);
+    }
+
+    public UserResponse getByEmail(String email, Function<String, UserResponse> loader) {
+        return getByAlias(idsByEmail, loadsByEmail, email, UserResponse::getEmail, loader);
+    }
+
+    public void invalidate(Long id) {
+        // Bump the counter first so that a load already in flight will not re-cache old data
+        invalidations.incrementAndGet();
+        usersById.invalidate(id);
+    }
+
+    /** Invalidates the cached user with the given id if it is not at the given version. */
+    public void invalidateIfChanged(Long id, Long version) {
+        UserResponse cached = getIfPresent(id);
+        if (cached != null && !version.equals(cached.getVersion())) {
+            invalidate(id);
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        usersById.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (enabled) {
+            invalidate(event.getUserId());
+        }
+    }
+
+    public UserCacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return UserCacheStats.builder()
+                .enabled(enabled)
+                .size(usersById.estimatedSize())
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(requests == 0 ? 0 : (double) hitCount / requests)
+                .evictions(usersById.stats().evictionCount())
+                .coalesced(coalesced.sum())
+                .build();
+    }
+
+    private UserResponse getByAlias(Cache<String, Long> aliases, SingleFlight<String, UserResponse> loads, String key,
+                                    Function<UserResponse, String> keyOf, Function<String, UserResponse> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        // Aliases are normalized like the database lookups, so any casing finds the entry
+        String normalizedKey = User.normalize(key);
+        Long id = aliases.getIfPresent(normalizedKey);
+        if (id != null) {
+            UserResponse cached = usersById.getIfPresent(id);
+            if (cached != null && normalizedKey.equals(User.normalize(keyOf.apply(cached)))) {
+                hits.increment();
+                return cached;
+            }
+        }
+        return load(loads, normalizedKey, key, loader);
+    }
+
+    private <K> UserResponse load(SingleFlight<K, UserResponse> loads, K loadKey, K key, Function<K, UserResponse> loader) {
+        misses.increment();
+        long stamp = invalidations.get();
+        return loads.load(loadKey, stamp, () -> {
+            UserResponse user;
+            try (DataSourceRouting.Scope ignored = DataSourceRouting.primary()) {
+                user = loader.apply(key);
+            }
+            usersById.asMap().compute(user.getId(), (id, existing) -> invalidations.get() == stamp ? user : existing);
+            idsByUsername.put(User.normalize(user.getUsername()), user.getId());
+            idsByEmail.put(User.normalize(user.getEmail()), user.getId());
+            return user;
+        });
+    }
+}
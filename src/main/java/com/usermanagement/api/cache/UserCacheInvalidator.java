@@ -0,0 +1,78 @@
+package com.usermanagement.api.cache;
+
+import com.usermanagement.api.repository.IdAndVersion;
+import com.usermanagement.api.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Invalidates the cached users that were updated through other nodes, whose change events
+ * never reach this one. Every {@code sync-interval} it reads the versions of the users
+ * updated since shortly before the previous read and drops the cached entries at another
+ * version. A read that fails is retried from the same point, so no update is missed, only
+ * found late.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class UserCacheInvalidator implements SchedulingConfigurer {
+
+    /**
+     * How far before the previous read each read starts, so that it still sees rows
+     * stamped by a node whose clock is behind, or committed a while after being stamped.
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserCache userCache;
+    private final UserRepository userRepository;
+    private final UserCacheProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile LocalDateTime syncedFrom = LocalDateTime.now();
+
+    public UserCacheInvalidator(UserCache userCache,
+                                UserRepository userRepository,
+                                UserCacheProperties properties,
+                                PlatformTransactionManager transactionManager) {
+        this.userCache = userCache;
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (userCache.isEnabled()) {
+            registrar.addFixedDelayTask(this::syncScheduled, properties.getSyncInterval());
+        }
+    }
+
+    void syncScheduled() {
+        try {
+            sync();
+        } catch (RuntimeException ex) {
+            log.warn("Looking for users updated through other nodes failed, retrying in {}", properties.getSyncInterval(), ex);
+        }
+    }
+
+    /** Invalidates the cached users updated since shortly before the previous read. */
+    public void sync() {
+        LocalDateTime from = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<IdAndVersion> versions = userRepository.streamVersionsUpdatedSince(syncedFrom.minus(SYNC_OVERLAP))) {
+                versions.forEach(version -> userCache.invalidateIfChanged(version.getId(), version.getVersion()));
+            }
+        });
+        syncedFrom = from;
+    }
+}
@@ -0,0 +1,27 @@
+package com.usermanagement.api.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.cache")
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a user stays cached; also how long a user deleted through another node may
+     * still be served.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(1);
+
+    /** How often users updated through other nodes are looked for and invalidated. */
+    private Duration syncInterval = Duration.ofSeconds(2);
+
+    /** Longest a miss waits for the same load already in flight before giving up with 503. */
+    private Duration loadTimeout = Duration.ofSeconds(5);
+}
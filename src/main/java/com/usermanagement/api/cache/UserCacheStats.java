@@ -0,0 +1,23 @@
+package com.usermanagement.api.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCacheStats {
+
+    private boolean enabled;
+    private long size;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long evictions;
+
+    /** Misses served by a load another caller already had in flight. */
+    private long coalesced;
+}
@@ -1,65 +1,229 @@
 package com.usermanagement.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.usermanagement.api.dto.AvailabilityResponse;
+import com.usermanagement.api.dto.LoginRequest;
+import com.usermanagement.api.dto.UserBatchCreateRequest;
+import com.usermanagement.api.dto.UserBatchCreateResponse;
 import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserPatchRequest;
 import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSortField;
+import com.usermanagement.api.dto.UserStatusUpdateRequest;
+import com.usermanagement.api.dto.UserStatusUpdateResponse;
+import com.usermanagement.api.dto.UserSuggestion;
 import com.usermanagement.api.dto.UserUpdateRequest;
+import com.usermanagement.api.feed.UserChangeFeed;
+import com.usermanagement.api.limit.Prioritized;
+import com.usermanagement.api.limit.RequestPriority;
+import com.usermanagement.api.repository.UserVersion;
 import com.usermanagement.api.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
+@Profile("!reactive")
 public class UserController {
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final UserService userService;
+    private final UserChangeFeed changeFeed;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
+    @Prioritized(RequestPriority.WRITE)
     public ResponseEntity<UserResponse> createUser(@Valid @RequestBody UserCreateRequest request) {
         UserResponse createdUser = userService.createUser(request);
         return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
-        UserResponse user = userService.getUserById(id);
+    @PostMapping("/batch")
+    @Prioritized(RequestPriority.BULK)
+    public ResponseEntity<UserBatchCreateResponse> createUsers(@Valid @RequestBody UserBatchCreateRequest request) {
+        UserBatchCreateResponse response = userService.createUsers(request.getUsers());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/batch/status")
+    @Prioritized(RequestPriority.BULK)
+    public ResponseEntity<UserStatusUpdateResponse> updateStatus(@Valid @RequestBody UserStatusUpdateRequest request) {
+        return ResponseEntity.ok(userService.updateStatus(request));
+    }
+
+    @PostMapping("/login")
+    @Prioritized(RequestPriority.WRITE)
+    public ResponseEntity<UserResponse> login(@Valid @RequestBody LoginRequest request) {
+        UserResponse user = userService.login(request);
         return ResponseEntity.ok(user);
     }
 
+    @GetMapping("/{id}")
+    @Prioritized(RequestPriority.READ)
+    public ResponseEntity<UserResponse> getUserById(@PathVariable Long id, HttpServletRequest request) {
+        // A conditional request is checked against the version alone, and the user only
+        // loaded when it has changed. The check leaves the response alone, so that the
+        // validators sent with a body are those of the user actually returned
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            UserVersion version = userService.getUserVersion(id);
+            String eTag = UserETags.of(id, version.getVersion());
+            long lastModified = UserETags.lastModified(version.getUpdatedAt());
+            if (new ServletWebRequest(request).checkNotModified(eTag, lastModified)) {
+                return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), eTag, lastModified).build();
+            }
+        }
+        return conditionalOk(userService.getUserById(id));
+    }
+
     @GetMapping("/username/{username}")
+    @Prioritized(RequestPriority.READ)
     public ResponseEntity<UserResponse> getUserByUsername(@PathVariable String username) {
         UserResponse user = userService.getUserByUsername(username);
-        return ResponseEntity.ok(user);
+        return conditionalOk(user);
     }
 
     @GetMapping("/email/{email}")
+    @Prioritized(RequestPriority.READ)
     public ResponseEntity<UserResponse> getUserByEmail(@PathVariable String email) {
         UserResponse user = userService.getUserByEmail(email);
-        return ResponseEntity.ok(user);
+        return conditionalOk(user);
+    }
+
+    @GetMapping("/availability")
+    @Prioritized(RequestPriority.READ)
+    public ResponseEntity<AvailabilityResponse> checkAvailability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        AvailabilityResponse availability = userService.checkAvailability(username, email);
+        return ResponseEntity.ok(availability);
     }
 
     @GetMapping
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    @Prioritized(RequestPriority.BULK)
+    public ResponseEntity<UserPageResponse> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(defaultValue = "id") String sort,
+            WebRequest request) {
+        UserPageResponse page = userService.getUsers(cursor, limit, active, UserSortField.fromValue(sort));
+        // The page is still read, but an unchanged one is neither serialized nor sent
+        if (request.checkNotModified(UserETags.of(page))) {
+            return null;
+        }
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/search")
+    @Prioritized(RequestPriority.BULK)
+    public ResponseEntity<UserPageResponse> searchUsers(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(userService.searchUsers(q, cursor, limit));
+    }
+
+    @GetMapping("/suggest")
+    @Prioritized(RequestPriority.READ)
+    public ResponseEntity<List<UserSuggestion>> suggestUsers(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userService.suggestUsers(prefix, limit));
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // Served from the in-memory feed; subscribers never query the database
+        return changeFeed.subscribe(lastEventId);
+    }
+
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    @Prioritized(RequestPriority.BULK)
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        ObjectWriter writer = objectMapper.writerFor(UserResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            userService.exportUsers(user -> {
+                try {
+                    writer.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
     }
 
     @PutMapping("/{id}")
+    @Prioritized(RequestPriority.WRITE)
     public ResponseEntity<UserResponse> updateUser(
             @PathVariable Long id,
-            @Valid @RequestBody UserUpdateRequest request) {
-        UserResponse updatedUser = userService.updateUser(id, request);
-        return ResponseEntity.ok(updatedUser);
+            @Valid @RequestBody UserUpdateRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserResponse updatedUser = userService.updateUser(id, request, UserETags.expectedVersion(id, ifMatch));
+        return ResponseEntity.ok().eTag(UserETags.of(updatedUser)).body(updatedUser);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = APPLICATION_MERGE_PATCH_JSON_VALUE)
+    @Prioritized(RequestPriority.WRITE)
+    public ResponseEntity<UserResponse> patchUser(
+            @PathVariable Long id,
+            @Valid @RequestBody UserPatchRequest patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserResponse patchedUser = userService.patchUser(id, patch, UserETags.expectedVersion(id, ifMatch));
+        return ResponseEntity.ok().eTag(UserETags.of(patchedUser)).body(patchedUser);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        userService.deleteUser(id);
+    @Prioritized(RequestPriority.WRITE)
+    public ResponseEntity<Void> deleteUser(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean soft,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (soft) {
+            userService.softDeleteUser(id, UserETags.expectedVersion(id, ifMatch));
+        } else {
+            userService.deleteUser(id, UserETags.expectedVersion(id, ifMatch));
+        }
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<UserResponse> conditionalOk(UserResponse user) {
+        // Spring answers with 304 and no body when the request's preconditions match these validators
+        return withValidators(ResponseEntity.ok(), UserETags.of(user), UserETags.lastModified(user.getUpdatedAt())).body(user);
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, String eTag, long lastModified) {
+        response.eTag(eTag);
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        return response;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.usermanagement.api.controller;
+
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserResponse;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validators for conditional requests on users.
+ * <p>
+ * A user's entity tag is derived from its id and version, which every write increments,
+ * so it can be checked without rendering the user, and sent back in {@code If-Match} to
+ * make an update or delete conditional. A page's tag covers the id and version of every
+ * user on it and the cursor to the next page, so any change to the page, including a
+ * user dropping out of it, changes the tag. Pages carry no modification time: the latest
+ * change among the users on a page says nothing of users deleted from it or moved off
+ * it, so only the tag can tell that it is unchanged.
+ */
+final class UserETags {
+
+    /** Expected version for an {@code If-Match} that no version of the user can satisfy. */
+    static final long NO_VERSION = -1;
+
+    private UserETags() {
+    }
+
+    static String of(Long id, Long version) {
+        return "\"" + Long.toHexString(id) + "-" + Long.toHexString(version != null ? version : 0) + "\"";
+    }
+
+    static String of(UserResponse user) {
+        return of(user.getId(), user.getVersion());
+    }
+
+    static String of(UserPageResponse page) {
+        // 64-bit FNV-1a over the validators of the users on the page
+        long hash = 0xcbf29ce484222325L;
+        for (UserResponse user : page.getContent()) {
+            hash = mix(hash, user.getId());
+            hash = mix(hash, user.getVersion() != null ? user.getVersion() : 0);
+        }
+        hash = mix(hash, page.getNextCursor() != null ? page.getNextCursor().hashCode() : 0);
+        return "\"p" + page.getSize() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Returns the version an {@code If-Match} header requires of the given user:
+     * {@code null} when there is no header or it is {@code *}, and {@link #NO_VERSION}
+     * when none of its tags belongs to the user. Weak tags never match.
+     */
+    static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + Long.toHexString(id) + "-";
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                try {
+                    return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1), 16);
+                } catch (NumberFormatException ex) {
+                    // Not one of ours; try the next tag
+                }
+            }
+        }
+        return NO_VERSION;
+    }
+
+    static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,41 @@
+package com.usermanagement.api.datasource;
+
+/**
+ * Lets the current thread send its reads to the primary even inside read-only
+ * transactions, which otherwise go to a replica when replicas are configured. Without
+ * replicas it has no effect.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * Routes every connection taken until the returned scope is closed to the primary.
+     * Must be opened before the transaction's first statement, when the connection is taken.
+     */
+    public static Scope primary() {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,44 @@
+package com.usermanagement.api.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Replaces the auto-configured data source with one that routes read-only transactions
+ * to the read replicas, when {@code user.read-replicas.enabled} is set.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+@ConditionalOnProperty(name = "user.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReadReplicas readReplicas(HikariDataSource primaryDataSource, ReadReplicaProperties properties) {
+        return ReadReplicas.create(primaryDataSource, properties);
+    }
+
+    @Bean
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(HikariDataSource primaryDataSource, ReadReplicas readReplicas) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, readReplicas);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadReplicaProperties properties) {
+        return new ReadYourWritesFilter(properties.getReadYourWritesWindow());
+    }
+}
@@ -0,0 +1,44 @@
+package com.usermanagement.api.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "user.read-replicas")
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** How long after a write a client's reads keep going to the primary. */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /** Pause between checks that take ejected replicas back and eject unreachable ones. */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * Longest wait for a replica connection before the replica is ejected and the read
+     * goes elsewhere; kept short, as the primary can serve it.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        /** Defaults to the primary's. */
+        private String username;
+
+        /** Defaults to the primary's. */
+        private String password;
+
+        /** Defaults to the primary's. */
+        private Integer maximumPoolSize;
+    }
+}
@@ -0,0 +1,128 @@
+package com.usermanagement.api.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The replica pools, taken in turn. A replica that fails to give a connection is ejected
+ * at once and skipped until a health check can connect to it again.
+ */
+@Slf4j
+public class ReadReplicas implements SchedulingConfigurer, Closeable {
+
+    private final List<Replica> replicas;
+    private final Duration healthCheckInterval;
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReadReplicas(List<Replica> replicas, Duration healthCheckInterval) {
+        this.replicas = List.copyOf(replicas);
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    /**
+     * Pools for the configured replicas, set up like the primary's, so that connections
+     * behave the same, for instance with auto-commit disabled.
+     */
+    public static ReadReplicas create(HikariDataSource primary, ReadReplicaProperties properties) {
+        List<Replica> replicas = new ArrayList<>();
+        for (ReadReplicaProperties.Replica replica : properties.getReplicas()) {
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            String name = "replica-" + (replicas.size() + 1);
+            config.setPoolName(name);
+            config.setJdbcUrl(replica.getUrl());
+            if (replica.getUsername() != null) {
+                config.setUsername(replica.getUsername());
+            }
+            if (replica.getPassword() != null) {
+                config.setPassword(replica.getPassword());
+            }
+            if (replica.getMaximumPoolSize() != null) {
+                config.setMaximumPoolSize(replica.getMaximumPoolSize());
+            }
+            config.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            // Start even if a replica is down; it is ejected on first use
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new Replica(name, new HikariDataSource(config)));
+        }
+        return new ReadReplicas(replicas, properties.getHealthCheckInterval());
+    }
+
+    /** A connection from the next healthy replica, or {@code null} if none gave one. */
+    Connection getConnection() {
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException ex) {
+                if (replica.healthy) {
+                    replica.healthy = false;
+                    log.warn("Ejected read replica {}: {}", replica.name, ex.getMessage());
+                }
+            }
+        }
+        return null;
+    }
+
+    int healthyCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(1);
+            } catch (SQLException ex) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                replica.healthy = healthy;
+                log.info(healthy ? "Read replica {} is back in rotation" : "Ejected read replica {}", replica.name);
+            }
+        }
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::checkHealth, healthCheckInterval);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.usermanagement.api.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Gives read-only transactions a replica connection and everything else a primary one.
+ * <p>
+ * The choice is made when a connection is taken. Hibernate only takes one at the first
+ * statement (see the connection handling mode in application.properties), by when the
+ * transaction is known to be read-only. Reads fall back to the primary when no replica is
+ * healthy, or when the thread {@link DataSourceRouting#primary() requires the primary}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReadReplicas replicas;
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReadReplicas replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !DataSourceRouting.isPrimaryRequired()) {
+            Connection connection = replicas.getConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+}
@@ -0,0 +1,75 @@
+package com.usermanagement.api.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Sends a client's reads to the primary for a while after it writes, so that it sees its
+ * own changes however far the replicas lag. Writes set a cookie holding the time until
+ * which this applies, which keeps it working across nodes without shared state. The
+ * cookie is not signed, so a time further ahead than one window, which no write could
+ * have set, is ignored rather than pinning the client to the primary.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "read-primary-until";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = WRITE_METHODS.contains(request.getMethod());
+        if (write) {
+            // Set before the body is written, so whether the write succeeds is not known yet
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE_NAME, Long.toString(now + window.toMillis()))
+                    .path("/")
+                    .maxAge(window)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+        if (!write && primaryUntil(request, now) <= now) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (DataSourceRouting.Scope ignored = DataSourceRouting.primary()) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private long primaryUntil(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName())) {
+                    try {
+                        long until = Long.parseLong(cookie.getValue());
+                        return until <= now + window.toMillis() ? until : 0;
+                    } catch (NumberFormatException ex) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.usermanagement.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityResponse {
+
+    private String username;
+    private Boolean usernameAvailable;
+    private String email;
+    private Boolean emailAvailable;
+}
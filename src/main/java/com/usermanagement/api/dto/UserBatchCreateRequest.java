@@ -0,0 +1,29 @@
+package com.usermanagement.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchCreateRequest {
+
+    /**
+     * Every password is hashed before the batch is written, {@code threads} at a time, so
+     * a full batch spends about 1000 / threads x {@code target-latency} hashing. Batches
+     * run with {@code BULK} priority, which keeps them from starving reads and writes.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    @NotEmpty(message = "At least one user is required")
+    @Size(max = MAX_BATCH_SIZE, message = "A batch may contain at most " + MAX_BATCH_SIZE + " users")
+    private List<@Valid UserCreateRequest> users;
+}
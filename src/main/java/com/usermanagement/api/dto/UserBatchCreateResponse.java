@@ -0,0 +1,19 @@
+package com.usermanagement.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchCreateResponse {
+
+    private int created;
+    private int conflicts;
+    private List<UserBatchItemResult> results;
+}
@@ -0,0 +1,23 @@
+package com.usermanagement.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchItemResult {
+
+    public enum Status {
+        CREATED,
+        CONFLICT
+    }
+
+    private int index;
+    private Status status;
+    private UserResponse user;
+    private String message;
+}
@@ -0,0 +1,21 @@
+package com.usermanagement.api.dto;
+
+import com.usermanagement.api.event.UserChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One event of the change feed. The user is absent for deletes and bulk status changes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChange {
+
+    private UserChangedEvent.Type type;
+    private Long userId;
+    private UserResponse user;
+}
@@ -0,0 +1,20 @@
+package com.usermanagement.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageResponse {
+
+    private List<UserResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,49 @@
+package com.usermanagement.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of a JSON Merge Patch (RFC 7396) on a user. Absent properties are left as they
+ * are; an explicit {@code null} would remove the property, which none of them allow, so
+ * it is rejected while reading the body.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPatchRequest {
+
+    // Unlike @NotBlank, accepts a property that is absent from the patch
+    private static final String NOT_BLANK = "(?s).*\\S.*";
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = NOT_BLANK, message = "First name cannot be blank")
+    @Size(max = 50)
+    private String firstName;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = NOT_BLANK, message = "Last name cannot be blank")
+    @Size(max = 50)
+    private String lastName;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Email(message = "Email should be valid")
+    @Pattern(regexp = NOT_BLANK, message = "Email cannot be blank")
+    @Size(max = 100)
+    private String email;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Size(min = 8, message = "Password must be at least 8 characters long")
+    private String password;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    private Boolean active;
+}
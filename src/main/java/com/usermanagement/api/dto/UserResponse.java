@@ -21,4 +21,5 @@ public class UserResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private boolean active;
+    private Long version;
 }
\ No newline at end of file
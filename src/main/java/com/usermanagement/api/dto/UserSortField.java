@@ -0,0 +1,28 @@
+package com.usermanagement.api.dto;
+
+import com.usermanagement.api.exception.UserManagementException;
+
+public enum UserSortField {
+
+    ID("id"),
+    CREATED_AT("createdAt");
+
+    private final String value;
+
+    UserSortField(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static UserSortField fromValue(String value) {
+        for (UserSortField field : values()) {
+            if (field.value.equalsIgnoreCase(value)) {
+                return field;
+            }
+        }
+        throw UserManagementException.badRequest("Unsupported sort field: " + value);
+    }
+}
@@ -0,0 +1,39 @@
+package com.usermanagement.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Activates or deactivates every user matching all of the given criteria; at least one
+ * is required.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatusUpdateRequest {
+
+    public static final int MAX_IDS = 1000;
+
+    @NotNull(message = "Active is required")
+    private Boolean active;
+
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " ids may be given")
+    private List<Long> ids;
+
+    /** Only users created before this time. */
+    private LocalDateTime createdBefore;
+
+    /** Only users whose email is at this domain, such as {@code example.com}. */
+    @Pattern(regexp = "@?[^@\\s]+", message = "Email domain should be valid")
+    @Size(max = 100)
+    private String emailDomain;
+}
@@ -0,0 +1,16 @@
+package com.usermanagement.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatusUpdateResponse {
+
+    /** Users whose status changed; those already in the requested state are not counted. */
+    private long updated;
+}
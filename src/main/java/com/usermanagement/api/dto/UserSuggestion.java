@@ -0,0 +1,32 @@
+package com.usermanagement.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Comparator;
+
+/**
+ * One type-ahead match: the normalized username or email that starts with the typed
+ * prefix, and the user it belongs to.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSuggestion {
+
+    public static final String USERNAME = "username";
+    public static final String EMAIL = "email";
+
+    /** Alphabetical, with a username before an email of the same text. */
+    public static final Comparator<UserSuggestion> ORDER = Comparator
+            .comparing(UserSuggestion::getValue)
+            .thenComparing(suggestion -> EMAIL.equals(suggestion.getField()))
+            .thenComparing(UserSuggestion::getId);
+
+    private Long id;
+    private String field;
+    private String value;
+}
@@ -0,0 +1,39 @@
+package com.usermanagement.api.event;
+
+import com.usermanagement.api.dto.UserResponse;
+import lombok.Value;
+
+/**
+ * Published by the user service for every user it creates, updates or deletes.
+ * Listeners that keep derived state in sync should react after the transaction commits.
+ * The user is absent for deletes, and for bulk updates that do not read the users back.
+ */
+@Value
+public class UserChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    Type type;
+    Long userId;
+    UserResponse user;
+
+    public static UserChangedEvent created(UserResponse user) {
+        return new UserChangedEvent(Type.CREATED, user.getId(), user);
+    }
+
+    public static UserChangedEvent updated(UserResponse user) {
+        return new UserChangedEvent(Type.UPDATED, user.getId(), user);
+    }
+
+    public static UserChangedEvent updated(Long userId) {
+        return new UserChangedEvent(Type.UPDATED, userId, null);
+    }
+
+    public static UserChangedEvent deleted(Long userId) {
+        return new UserChangedEvent(Type.DELETED, userId, null);
+    }
+}
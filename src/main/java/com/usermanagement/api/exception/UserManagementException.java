@@ -3,14 +3,24 @@ package com.usermanagement.api.exception;
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
+
 @Getter
 public class UserManagementException extends RuntimeException {
 
     private final HttpStatus status;
 
+    /** When the client may try again, sent as {@code Retry-After}; {@code null} if not known. */
+    private final Duration retryAfter;
+
     public UserManagementException(String message, HttpStatus status) {
+        this(message, status, null);
+    }
+
+    public UserManagementException(String message, HttpStatus status, Duration retryAfter) {
         super(message);
         this.status = status;
+        this.retryAfter = retryAfter;
     }
 
     public static UserManagementException notFound(String message) {
@@ -24,4 +34,20 @@ public class UserManagementException extends RuntimeException {
     public static UserManagementException conflict(String message) {
         return new UserManagementException(message, HttpStatus.CONFLICT);
     }
+
+    public static UserManagementException preconditionFailed(String message) {
+        return new UserManagementException(message, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    public static UserManagementException unauthorized(String message) {
+        return new UserManagementException(message, HttpStatus.UNAUTHORIZED);
+    }
+
+    public static UserManagementException serviceUnavailable(String message) {
+        return new UserManagementException(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    public static UserManagementException serviceUnavailable(String message, Duration retryAfter) {
+        return new UserManagementException(message, HttpStatus.SERVICE_UNAVAILABLE, retryAfter);
+    }
 }
\ No newline at end of file
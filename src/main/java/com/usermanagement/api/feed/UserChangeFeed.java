@@ -0,0 +1,226 @@
+package com.usermanagement.api.feed;
+
+import com.usermanagement.api.dto.UserChange;
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.exception.UserManagementException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans committed user changes out to Server-Sent Events subscribers.
+ * <p>
+ * Changes are numbered in commit order and kept in one ring buffer shared by every
+ * subscriber, which only holds its position in it; a virtual thread per subscriber writes
+ * the changes past that position to its stream. A subscriber that falls a whole buffer
+ * behind has missed changes and is disconnected. Event ids carry the node's start time,
+ * so an id from before a restart or from another node is never taken for a position in
+ * this feed; a subscriber that cannot resume gets a {@code reset} event first, telling it
+ * to reload the users it holds. Only changes made through this node are seen.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class UserChangeFeed {
+
+    static final String RESET_EVENT = "reset";
+
+    // Changes copied out of the buffer per lock acquisition
+    private static final int MAX_BATCH = 256;
+
+    private final UserChangeFeedProperties properties;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Change[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    // Sequence number of the next change, guarded by the lock
+    private long nextSequence = 1;
+
+    public UserChangeFeed(UserChangeFeedProperties properties) {
+        this.properties = properties;
+        this.ring = new Change[properties.getCapacity()];
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        UserChange change = UserChange.builder()
+                .type(event.getType())
+                .userId(event.getUserId())
+                .user(event.getUser())
+                .build();
+        lock.lock();
+        try {
+            ring[index(nextSequence)] = new Change(nextSequence, change);
+            nextSequence++;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens a stream of the changes after the given event id, or of the changes from now
+     * on when there is none.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            throw UserManagementException.serviceUnavailable("Too many change feed subscribers, try again later");
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscription subscription = new Subscription(emitter, start(lastEventId));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(ex -> subscription.close());
+        Thread.ofVirtual().name("user-change-feed").start(subscription);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    /** Where a subscriber starts: right after the event it saw last, if that is still held. */
+    Start start(String lastEventId) {
+        lock.lock();
+        try {
+            if (lastEventId == null || lastEventId.isBlank()) {
+                return new Start(nextSequence, false);
+            }
+            long seen = parseSequence(lastEventId);
+            if (seen >= oldestSequence() - 1 && seen < nextSequence) {
+                return new Start(seen + 1, false);
+            }
+            return new Start(nextSequence, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The changes from the given sequence number on, waiting up to the given time if there
+     * are none yet; {@code null} once they have been overwritten.
+     */
+    List<Change> read(long from, long waitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            // Waits once: an empty result after a wake-up sends a heartbeat, or ends a closed subscription
+            if (from == nextSequence && waitNanos > 0) {
+                appended.awaitNanos(waitNanos);
+            }
+            if (from < oldestSequence()) {
+                return null;
+            }
+            int count = (int) Math.min(nextSequence - from, MAX_BATCH);
+            List<Change> changes = new ArrayList<>(count);
+            for (long sequence = from; sequence < from + count; sequence++) {
+                changes.add(ring[index(sequence)]);
+            }
+            return changes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private long parseSequence(String eventId) {
+        int separator = eventId.indexOf('-');
+        if (separator < 0 || !epoch.equals(eventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private long oldestSequence() {
+        return Math.max(1, nextSequence - ring.length);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+
+    private void wakeUp() {
+        lock.lock();
+        try {
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    record Change(long sequence, UserChange change) {
+    }
+
+    record Start(long sequence, boolean reset) {
+    }
+
+    private final class Subscription implements Runnable {
+
+        private final SseEmitter emitter;
+        private final Start start;
+        private volatile boolean closed;
+
+        private Subscription(SseEmitter emitter, Start start) {
+            this.emitter = emitter;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            long next = start.sequence();
+            try {
+                if (start.reset()) {
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).id(eventId(next - 1)).data(""));
+                }
+                while (!closed) {
+                    List<Change> changes = read(next, properties.getHeartbeatInterval().toNanos());
+                    if (changes == null) {
+                        log.info("Disconnecting change feed subscriber that fell more than {} changes behind", ring.length);
+                        break;
+                    }
+                    if (changes.isEmpty() && !closed) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    for (Change change : changes) {
+                        emitter.send(SseEmitter.event()
+                                .id(eventId(change.sequence()))
+                                .name(change.change().getType().name().toLowerCase(Locale.ROOT))
+                                .data(change.change(), MediaType.APPLICATION_JSON));
+                        next = change.sequence() + 1;
+                    }
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away, or the stream already completed or timed out
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                subscribers.decrementAndGet();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            wakeUp();
+        }
+    }
+}
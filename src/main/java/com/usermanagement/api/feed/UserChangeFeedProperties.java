@@ -0,0 +1,26 @@
+package com.usermanagement.api.feed;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.change-feed")
+public class UserChangeFeedProperties {
+
+    /**
+     * Changes kept for resuming subscribers; also how far a subscriber may fall behind
+     * before it is disconnected.
+     */
+    private int capacity = 4096;
+
+    /** Open streams per node; further subscribers get 503. */
+    private int maxSubscribers = 1000;
+
+    /** Idle time after which a comment is sent, so proxies keep the stream open and dead clients are noticed. */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /** Lifetime of a stream, after which the client reconnects with {@code Last-Event-ID}. */
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,246 @@
+package com.usermanagement.api.index;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Immutable sorted set of string keys, each with a {@code long} value, answering prefix
+ * queries in key order.
+ * <p>
+ * Keys are stored in UTF-8 and front coded in blocks: the first key of every block is
+ * stored in full and each following key only as the number of bytes it shares with its
+ * predecessor plus the remaining bytes. Sorted usernames and emails share long
+ * prefixes, so this takes a fraction of the memory of one {@link String} per key; the
+ * values sit in a single {@code long[]} in key order. A lookup binary searches the first
+ * keys of the blocks and then scans forward, comparing bytes, so only the matching keys
+ * are ever decoded.
+ */
+public final class PrefixIndex {
+
+    /**
+     * The order keys are kept in: by code point, which is the order of their UTF-8 bytes.
+     * It differs from {@link String#compareTo} only for characters outside the Basic
+     * Multilingual Plane.
+     */
+    public static final Comparator<String> KEY_ORDER = PrefixIndex::compareCodePoints;
+
+    /** Keys per block; a lookup scans at most this many keys before reaching the first match. */
+    static final int BLOCK_SIZE = 16;
+
+    private static final PrefixIndex EMPTY = new PrefixIndex(new byte[0], new int[0], new long[0]);
+
+    private final byte[] keys;
+    private final int[] blockOffsets;
+    private final long[] values;
+
+    private PrefixIndex(byte[] keys, int[] blockOffsets, long[] values) {
+        this.keys = keys;
+        this.blockOffsets = blockOffsets;
+        this.values = values;
+    }
+
+    public static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /** Bytes held by the encoded keys and values. */
+    public long memoryBytes() {
+        return keys.length + blockOffsets.length * 4L + values.length * 8L;
+    }
+
+    /**
+     * Visits the entries whose key starts with the prefix, in key order, until the
+     * visitor returns {@code false}.
+     */
+    public void forEachWithPrefix(String prefix, Visitor visitor) {
+        if (values.length == 0) {
+            return;
+        }
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        Cursor cursor = new Cursor(firstBlockFor(prefixBytes));
+        while (cursor.next()) {
+            if (cursor.startsWith(prefixBytes)) {
+                if (!visitor.visit(cursor.key(), values[cursor.index])) {
+                    return;
+                }
+            } else if (cursor.compareTo(prefixBytes) > 0) {
+                return;
+            }
+        }
+    }
+
+    /** Visits every entry in key order until the visitor returns {@code false}. */
+    public void forEach(Visitor visitor) {
+        forEachWithPrefix("", visitor);
+    }
+
+    /**
+     * The last block whose first key sorts before the prefix: any key starting with the
+     * prefix sorts at or after it, so the first match is in this block or a later one.
+     */
+    private int firstBlockFor(byte[] prefix) {
+        int[] position = new int[1];
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            position[0] = blockOffsets[mid];
+            readVarInt(position);  // shared length, always 0 for the first key of a block
+            int length = readVarInt(position);
+            if (Arrays.compareUnsigned(keys, position[0], position[0] + length, prefix, 0, prefix.length) < 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private int readVarInt(int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = keys[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y) {
+                // Surrogates (D800-DFFF) encode code points above FFFF, so move them past E000-FFFF
+                if (x >= Character.MIN_SURROGATE && y >= Character.MIN_SURROGATE) {
+                    x += x >= 0xE000 ? -0x800 : 0x2000;
+                    y += y >= 0xE000 ? -0x800 : 0x2000;
+                }
+                return x - y;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+
+        /** Returns whether to carry on with the next entry. */
+        boolean visit(String key, long value);
+    }
+
+    /** Walks the entries from the start of a block, rebuilding each key's bytes in one buffer. */
+    private final class Cursor {
+
+        private final int[] position;
+        private byte[] key = new byte[64];
+        private int keyLength;
+        private int index;
+
+        private Cursor(int block) {
+            this.position = new int[]{blockOffsets[block]};
+            this.index = block * BLOCK_SIZE - 1;
+        }
+
+        private boolean next() {
+            if (index + 1 >= values.length) {
+                return false;
+            }
+            index++;
+            int shared = readVarInt(position);
+            int length = readVarInt(position);
+            if (shared + length > key.length) {
+                key = Arrays.copyOf(key, Math.max(key.length * 2, shared + length));
+            }
+            System.arraycopy(keys, position[0], key, shared, length);
+            position[0] += length;
+            keyLength = shared + length;
+            return true;
+        }
+
+        private boolean startsWith(byte[] prefix) {
+            return keyLength >= prefix.length && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+        }
+
+        private int compareTo(byte[] prefix) {
+            return Arrays.compareUnsigned(key, 0, keyLength, prefix, 0, prefix.length);
+        }
+
+        private String key() {
+            return new String(key, 0, keyLength, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Collects entries, which must be added in strictly ascending {@link #KEY_ORDER}.
+     */
+    public static final class Builder {
+
+        private final ByteArrayOutputStream keys = new ByteArrayOutputStream();
+        private int[] blockOffsets = new int[16];
+        private long[] values = new long[BLOCK_SIZE * 16];
+        private int size;
+        private byte[] previous;
+
+        private Builder() {
+        }
+
+        public Builder add(String key, long value) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            if (previous != null && Arrays.compareUnsigned(previous, bytes) >= 0) {
+                throw new IllegalArgumentException("Keys must be added in ascending order: " + key + " after "
+                        + new String(previous, StandardCharsets.UTF_8));
+            }
+            int shared = 0;
+            if (size % BLOCK_SIZE == 0) {
+                if (size / BLOCK_SIZE == blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, blockOffsets.length * 2);
+                }
+                blockOffsets[size / BLOCK_SIZE] = keys.size();
+            } else {
+                int mismatch = Arrays.mismatch(previous, bytes);
+                shared = mismatch < 0 ? bytes.length : mismatch;
+            }
+            writeVarInt(shared);
+            writeVarInt(bytes.length - shared);
+            keys.write(bytes, shared, bytes.length - shared);
+
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+            previous = bytes;
+            return this;
+        }
+
+        public PrefixIndex build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new PrefixIndex(keys.toByteArray(),
+                    Arrays.copyOf(blockOffsets, (size + BLOCK_SIZE - 1) / BLOCK_SIZE),
+                    Arrays.copyOf(values, size));
+        }
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                keys.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            keys.write(value);
+        }
+    }
+}
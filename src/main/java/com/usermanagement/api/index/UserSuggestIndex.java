@@ -0,0 +1,417 @@
+package com.usermanagement.api.index;
+
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSuggestion;
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.model.User;
+import com.usermanagement.api.repository.UserRepository;
+import com.usermanagement.api.repository.UsernameAndEmail;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of normalized usernames and emails for type-ahead, answering prefix
+ * queries without a database round trip.
+ * <p>
+ * Each field is held as a front-coded {@link PrefixIndex}, built from the table at
+ * startup, plus a small overlay of the changes committed since: entries added or moved
+ * by creates and updates, and the ids whose entry in the compressed index is out of
+ * date. Changes made through this node are applied as they commit. Every
+ * {@code refresh-interval} a background task reads the users created or updated since
+ * the previous read, which brings in writes made through other nodes, and merges the
+ * overlay into a new compressed index once it has grown past the compaction threshold.
+ * Users deleted through other nodes leave only with the full rebuild, every
+ * {@code rebuild-interval}.
+ * <p>
+ * Readers never lock. Merges and rebuilds are built outside the write lock, with the
+ * writes committed meanwhile kept aside and laid over the result, so writers only wait
+ * for the swap.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class UserSuggestIndex implements SchedulingConfigurer {
+
+    /**
+     * How far before the previous read each refresh starts, so that it still sees rows
+     * stamped by a node whose clock is behind, or committed a while after being stamped.
+     */
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final UserSuggestIndexProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Object writeLock = new Object();
+    // Serializes refreshes, merges and rebuilds, which are long and must not block writes
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+    private volatile Keys usernames;
+    private volatile Keys emails;
+    private volatile Keys buildingUsernames;
+    private volatile Keys buildingEmails;
+    // When the last successful read of the table started, by the clock rows are stamped with
+    private volatile LocalDateTime syncedFrom;
+    private volatile Set<Long> changedDuringRefresh;
+
+    public UserSuggestIndex(UserRepository userRepository,
+                            UserSuggestIndexProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return properties.isEnabled() && usernames != null;
+    }
+
+    /**
+     * Usernames and emails starting with the prefix, which is compared ignoring case, in
+     * alphabetical order. Only to be called once the index {@link #isReady() is ready}.
+     */
+    public List<UserSuggestion> suggest(String prefix, int limit) {
+        String normalizedPrefix = User.normalize(prefix);
+        List<UserSuggestion> suggestions = new ArrayList<>();
+        usernames.collect(normalizedPrefix, limit, UserSuggestion.USERNAME, suggestions);
+        emails.collect(normalizedPrefix, limit, UserSuggestion.EMAIL, suggestions);
+        suggestions.sort(UserSuggestion.ORDER);
+        return suggestions.size() > limit ? List.copyOf(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (properties.isEnabled()) {
+            // Delayed by one interval, as the index is first built once the application is ready
+            registrar.addFixedDelayTask(new FixedDelayTask(() -> runScheduled("Refreshing", this::refresh),
+                    properties.getRefreshInterval(), properties.getRefreshInterval()));
+            registrar.addFixedDelayTask(new FixedDelayTask(() -> runScheduled("Rebuilding", this::rebuild),
+                    properties.getRebuildInterval(), properties.getRebuildInterval()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        boolean deleted = event.getType() == UserChangedEvent.Type.DELETED;
+        // Updates without the user, such as bulk status changes, leave usernames and emails as they were
+        if (!properties.isEnabled() || (!deleted && event.getUser() == null)) {
+            return;
+        }
+        synchronized (writeLock) {
+            UserResponse user = event.getUser();
+            if (deleted) {
+                forEachKeys(keys -> keys.remove(event.getUserId()));
+            } else {
+                usernameKeys(keys -> keys.put(user.getId(), User.normalize(user.getUsername())));
+                emailKeys(keys -> keys.put(user.getId(), User.normalize(user.getEmail())));
+            }
+            Set<Long> changed = changedDuringRefresh;
+            if (changed != null) {
+                changed.add(event.getUserId());
+            }
+        }
+    }
+
+    /** Reloads both fields from the table; changes committed while it runs are kept. */
+    public void rebuild() {
+        maintenanceLock.lock();
+        try {
+            long startedAt = System.nanoTime();
+            LocalDateTime from = LocalDateTime.now();
+            Bases bases = replaceBases(() -> {
+                List<Entry> usernameEntries = new ArrayList<>();
+                List<Entry> emailEntries = new ArrayList<>();
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<UsernameAndEmail> keys = userRepository.streamUsernamesAndEmails()) {
+                        keys.forEach(key -> {
+                            usernameEntries.add(new Entry(key.getUsername(), key.getId()));
+                            emailEntries.add(new Entry(key.getEmail(), key.getId()));
+                        });
+                    }
+                });
+                return new Bases(toIndex(usernameEntries), toIndex(emailEntries));
+            });
+            syncedFrom = from;
+            log.info("Built suggest index over {} users in {} ms ({} KB)", bases.usernames().size(),
+                    (System.nanoTime() - startedAt) / 1_000_000,
+                    (bases.usernames().memoryBytes() + bases.emails().memoryBytes()) / 1024);
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the users created or updated since shortly before the previous read,
+     * including those written through other nodes, then merges the overlay into the
+     * compressed index if it has grown past the compaction threshold.
+     */
+    public void refresh() {
+        maintenanceLock.lock();
+        try {
+            LocalDateTime since = syncedFrom;
+            if (since == null) {
+                return;
+            }
+            long startedAt = System.nanoTime();
+            LocalDateTime from = LocalDateTime.now();
+            Set<Long> changedLocally = ConcurrentHashMap.newKeySet();
+            changedDuringRefresh = changedLocally;
+            try {
+                List<UsernameAndEmail> rows = new ArrayList<>();
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<UsernameAndEmail> keys =
+                                 userRepository.streamUsernamesAndEmailsUpdatedSince(since.minus(REFRESH_OVERLAP))) {
+                        keys.forEach(rows::add);
+                    }
+                });
+                synchronized (writeLock) {
+                    for (UsernameAndEmail row : rows) {
+                        // Changes committed through this node during the read are newer than what it returned
+                        if (!changedLocally.contains(row.getId())) {
+                            usernames.put(row.getId(), row.getUsername());
+                            emails.put(row.getId(), row.getEmail());
+                        }
+                    }
+                }
+                syncedFrom = from;
+                log.debug("Refreshed suggest index with {} users in {} ms", rows.size(), (System.nanoTime() - startedAt) / 1_000_000);
+            } finally {
+                changedDuringRefresh = null;
+            }
+            compactIfNeeded();
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        Keys currentUsernames = usernames;
+        Keys currentEmails = emails;
+        int threshold = properties.getCompactionThreshold();
+        if (!currentUsernames.needsCompaction(threshold) && !currentEmails.needsCompaction(threshold)) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        replaceBases(() -> new Bases(currentUsernames.compact(), currentEmails.compact()));
+        log.debug("Compacted suggest index in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * Swaps in the compressed indexes made by the given step, which runs without the write
+     * lock, with the changes committed while it ran laid over them. Only to be called with
+     * the maintenance lock held.
+     */
+    private Bases replaceBases(Supplier<Bases> step) {
+        synchronized (writeLock) {
+            buildingUsernames = new Keys(PrefixIndex.empty());
+            buildingEmails = new Keys(PrefixIndex.empty());
+        }
+
+        try {
+            Bases bases = step.get();
+            synchronized (writeLock) {
+                // The overlays hold the writes committed during the step, which are newer than what it read
+                usernames = buildingUsernames.withBase(bases.usernames());
+                emails = buildingEmails.withBase(bases.emails());
+            }
+            return bases;
+        } finally {
+            buildingUsernames = null;
+            buildingEmails = null;
+        }
+    }
+
+    private void runScheduled(String action, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException ex) {
+            log.warn("{} suggest index failed; suggestions may miss recent writes through other nodes", action, ex);
+        }
+    }
+
+    private void forEachKeys(Consumer<Keys> change) {
+        usernameKeys(change);
+        emailKeys(change);
+    }
+
+    private void usernameKeys(Consumer<Keys> change) {
+        apply(usernames, buildingUsernames, change);
+    }
+
+    private void emailKeys(Consumer<Keys> change) {
+        apply(emails, buildingEmails, change);
+    }
+
+    private static void apply(Keys current, Keys building, Consumer<Keys> change) {
+        if (current != null) {
+            change.accept(current);
+        }
+        if (building != null) {
+            change.accept(building);
+        }
+    }
+
+    private static PrefixIndex toIndex(List<Entry> entries) {
+        entries.sort(Comparator.comparing(Entry::key, PrefixIndex.KEY_ORDER));
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        String previous = null;
+        for (Entry entry : entries) {
+            // Cannot happen with the unique constraints in place, but must not break the build
+            if (!entry.key().equals(previous)) {
+                builder.add(entry.key(), entry.id());
+                previous = entry.key();
+            }
+        }
+        return builder.build();
+    }
+
+    private record Entry(String key, long id) {
+    }
+
+    private record Bases(PrefixIndex usernames, PrefixIndex emails) {
+    }
+
+    /**
+     * The entries of one field: a compressed index and the changes made since it was
+     * built.
+     */
+    private static final class Keys {
+
+        private final PrefixIndex base;
+        // Ids whose entry in the base is out of date, because they were updated or deleted since
+        private final Set<Long> replaced = ConcurrentHashMap.newKeySet();
+        private final ConcurrentSkipListMap<String, Long> added = new ConcurrentSkipListMap<>(PrefixIndex.KEY_ORDER);
+        private final Map<Long, String> addedById = new ConcurrentHashMap<>();
+
+        private Keys(PrefixIndex base) {
+            this.base = base;
+        }
+
+        private void put(Long id, String key) {
+            replaced.add(id);
+            String previous = addedById.put(id, key);
+            if (previous != null && !previous.equals(key)) {
+                // Conditional, since another user may have taken the old key in the meantime
+                added.remove(previous, id);
+            }
+            added.put(key, id);
+        }
+
+        private void remove(Long id) {
+            replaced.add(id);
+            String previous = addedById.remove(id);
+            if (previous != null) {
+                added.remove(previous, id);
+            }
+        }
+
+        private void collect(String prefix, int limit, String field, List<UserSuggestion> into) {
+            int[] found = {0};
+            base.forEachWithPrefix(prefix, (key, id) -> {
+                if (!replaced.contains(id) && !added.containsKey(key)) {
+                    into.add(new UserSuggestion(id, field, key));
+                    found[0]++;
+                }
+                return found[0] < limit;
+            });
+            Iterator<Map.Entry<String, Long>> changes = added.tailMap(prefix).entrySet().iterator();
+            for (int count = 0; count < limit && changes.hasNext(); count++) {
+                Map.Entry<String, Long> change = changes.next();
+                if (!change.getKey().startsWith(prefix)) {
+                    break;
+                }
+                into.add(new UserSuggestion(change.getValue(), field, change.getKey()));
+            }
+        }
+
+        private boolean needsCompaction(int threshold) {
+            return replaced.size() + added.size() > Math.max(threshold, base.size() / 16);
+        }
+
+        /**
+         * A new compressed index with the changes merged in. Changes made while it runs may
+         * be missed, so they must be laid over it.
+         */
+        private PrefixIndex compact() {
+            Compaction compaction = new Compaction();
+            base.forEach(compaction);
+            return compaction.finish();
+        }
+
+        /** The same changes on top of another compressed index. */
+        private Keys withBase(PrefixIndex newBase) {
+            Keys keys = new Keys(newBase);
+            keys.replaced.addAll(replaced);
+            keys.added.putAll(added);
+            keys.addedById.putAll(addedById);
+            return keys;
+        }
+
+        /** Merges the base, in key order, with the changes. */
+        private final class Compaction implements PrefixIndex.Visitor {
+
+            private final PrefixIndex.Builder builder = PrefixIndex.builder();
+            private final Iterator<Map.Entry<String, Long>> changes = added.entrySet().iterator();
+            private Map.Entry<String, Long> change = nextChange();
+
+            @Override
+            public boolean visit(String key, long id) {
+                while (change != null && PrefixIndex.KEY_ORDER.compare(change.getKey(), key) < 0) {
+                    builder.add(change.getKey(), change.getValue());
+                    change = nextChange();
+                }
+                if (change != null && change.getKey().equals(key)) {
+                    // The change is newer than the entry it collides with
+                    builder.add(change.getKey(), change.getValue());
+                    change = nextChange();
+                } else if (!replaced.contains(id)) {
+                    builder.add(key, id);
+                }
+                return true;
+            }
+
+            private PrefixIndex finish() {
+                while (change != null) {
+                    builder.add(change.getKey(), change.getValue());
+                    change = nextChange();
+                }
+                return builder.build();
+            }
+
+            private Map.Entry<String, Long> nextChange() {
+                return changes.hasNext() ? changes.next() : null;
+            }
+        }
+    }
+}
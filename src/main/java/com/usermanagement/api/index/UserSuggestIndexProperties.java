@@ -0,0 +1,28 @@
+package com.usermanagement.api.index;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.suggest-index")
+public class UserSuggestIndexProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Number of changes held outside the compressed index before they are merged into it;
+     * grows to a sixteenth of the index size for large tables.
+     */
+    private int compactionThreshold = 4096;
+
+    /**
+     * How often users created or updated through any node are read from the table, and
+     * the overlay merged if it has grown past the threshold.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(5);
+
+    /** How often the index is rebuilt from the table, dropping users deleted through other nodes. */
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,221 @@
+package com.usermanagement.api.index;
+
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.model.User;
+import com.usermanagement.api.repository.UserRepository;
+import com.usermanagement.api.repository.UsernameAndEmail;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Probabilistic index of taken usernames and emails, used to answer "definitely
+ * free" without a database round trip. Values are held in their normalized form, so
+ * the answers ignore case like the unique constraints do.
+ * <p>
+ * The filters are built from the table at startup and every committed create or
+ * update made through this node adds to them. Writes made through other nodes are
+ * brought in every {@code refresh-interval} by reading the users updated since the
+ * previous read. Until a refresh has succeeded recently, the filters are not trusted
+ * and every value is reported as possibly taken, so a "free" answer is never older than
+ * twice the interval. Bloom filters cannot forget, so deleted or replaced values stay
+ * as false positives until the next rebuild, every {@code rebuild-interval}; a
+ * positive answer must always be confirmed against the database.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class UserUniquenessIndex implements SchedulingConfigurer {
+
+    /**
+     * How far before the previous read each refresh starts, so that it still sees rows
+     * stamped by a node whose clock is behind, or committed a while after being stamped.
+     */
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final UserUniquenessIndexProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile Filters current;
+    private volatile Filters building;
+
+    public UserUniquenessIndex(UserRepository userRepository,
+                               UserUniquenessIndexProperties properties,
+                               PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public boolean mightContainUsername(String username) {
+        Filters filters = current;
+        return !isTrusted(filters) || filters.usernames.mightContain(User.normalize(username));
+    }
+
+    public boolean mightContainEmail(String email) {
+        Filters filters = current;
+        return !isTrusted(filters) || filters.emails.mightContain(User.normalize(email));
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (properties.isEnabled()) {
+            // Delayed by one interval, as the filters are first built once the application is ready
+            registrar.addFixedDelayTask(new FixedDelayTask(() -> runScheduled("Refreshing", this::refresh),
+                    properties.getRefreshInterval(), properties.getRefreshInterval()));
+            registrar.addFixedDelayTask(new FixedDelayTask(() -> runScheduled("Rebuilding", this::rebuild),
+                    properties.getRebuildInterval(), properties.getRebuildInterval()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUser() != null) {
+            add(event.getUser().getUsername(), event.getUser().getEmail());
+        }
+    }
+
+    public void rebuild() {
+        syncLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the users created or updated since shortly before the previous build or
+     * refresh, including those written through other nodes.
+     */
+    public void refresh() {
+        syncLock.lock();
+        try {
+            Filters filters = current;
+            if (filters == null) {
+                return;
+            }
+            long startedAt = System.nanoTime();
+            LocalDateTime from = LocalDateTime.now();
+            long[] rows = new long[1];
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<UsernameAndEmail> keys =
+                             userRepository.streamUsernamesAndEmailsUpdatedSince(filters.syncedFrom.minus(REFRESH_OVERLAP))) {
+                    keys.forEach(key -> {
+                        filters.add(key.getUsername(), key.getEmail());
+                        rows[0]++;
+                    });
+                }
+            });
+            filters.synced(from, startedAt);
+            log.debug("Refreshed uniqueness index with {} users in {} ms", rows[0], (System.nanoTime() - startedAt) / 1_000_000);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private boolean isTrusted(Filters filters) {
+        return properties.isEnabled() && filters != null
+                && System.nanoTime() - filters.syncedAt <= 2 * properties.getRefreshInterval().toNanos();
+    }
+
+    private void runScheduled(String action, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException ex) {
+            log.warn("{} uniqueness index failed; availability is checked against the database until it succeeds", action, ex);
+        }
+    }
+
+    private void doRebuild() {
+        long startedAt = System.nanoTime();
+        LocalDateTime from = LocalDateTime.now();
+        long expectedInsertions = Math.max(properties.getExpectedInsertions(), userRepository.count() * 2);
+        Filters filters = new Filters(expectedInsertions, properties.getFalsePositiveProbability());
+
+        // Writes committed while the table is being scanned are added to the new filters as well
+        building = filters;
+        try {
+            long[] rows = new long[1];
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<UsernameAndEmail> keys = userRepository.streamUsernamesAndEmails()) {
+                    keys.forEach(key -> {
+                        filters.add(key.getUsername(), key.getEmail());
+                        rows[0]++;
+                    });
+                }
+            });
+            filters.synced(from, startedAt);
+            current = filters;
+            log.info("Built uniqueness index over {} users in {} ms", rows[0], (System.nanoTime() - startedAt) / 1_000_000);
+        } finally {
+            building = null;
+        }
+    }
+
+    private void add(String username, String email) {
+        // A rebuild sets building, swaps current and only then clears building, so reading
+        // them the other way round never misses both: finding no rebuild means either that
+        // its scan has yet to start, and will read this committed write, or that current is
+        // already the new filters.
+        Filters next = building;
+        Filters filters = current;
+        if (filters != null) {
+            filters.add(username, email);
+        }
+        if (next != null && next != filters) {
+            next.add(username, email);
+        }
+    }
+
+    private static final class Filters {
+
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+        // When the last successful read of the table started, by the clock rows are stamped with and by System.nanoTime
+        private volatile LocalDateTime syncedFrom;
+        private volatile long syncedAt;
+
+        private Filters(long expectedInsertions, double falsePositiveProbability) {
+            this.usernames = BloomFilter.create(expectedInsertions, falsePositiveProbability);
+            this.emails = BloomFilter.create(expectedInsertions, falsePositiveProbability);
+        }
+
+        private void add(String username, String email) {
+            usernames.put(User.normalize(username));
+            emails.put(User.normalize(email));
+        }
+
+        private void synced(LocalDateTime from, long at) {
+            syncedFrom = from;
+            syncedAt = at;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.usermanagement.api.index;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.uniqueness-index")
+public class UserUniquenessIndexProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Minimum number of entries each filter is sized for; it grows to twice the
+     * current row count on rebuild.
+     */
+    private long expectedInsertions = 1_000_000;
+
+    private double falsePositiveProbability = 0.01;
+
+    /**
+     * Pause between reads of the users created or updated since the previous one, which
+     * brings in usernames and emails taken through other nodes. A "free" answer is only
+     * given from the filters while the last read is less than twice this old.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(5);
+
+    /** Pause between rebuilds from the whole table, which drop deleted and replaced values. */
+    private Duration rebuildInterval = Duration.ofHours(1);
+}
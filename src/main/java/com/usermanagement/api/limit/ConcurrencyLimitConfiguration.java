@@ -0,0 +1,30 @@
+package com.usermanagement.api.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+/**
+ * Puts the user endpoints under the adaptive concurrency limit, unless
+ * {@code user.concurrency-limit.enabled} is turned off. The interceptor is registered as a
+ * mapped interceptor bean, which the handler mappings pick up on their own.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+@ConditionalOnProperty(name = "user.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfiguration {
+
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+        return new ConcurrencyLimiter(properties, registry);
+    }
+
+    @Bean
+    public MappedInterceptor concurrencyLimitInterceptor(ConcurrencyLimiter limiter, ConcurrencyLimitProperties properties) {
+        return new MappedInterceptor(new String[] {"/api/users/**"},
+                new ConcurrencyLimitInterceptor(limiter, properties.getRetryAfter()));
+    }
+}
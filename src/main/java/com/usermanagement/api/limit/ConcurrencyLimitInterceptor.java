@@ -0,0 +1,48 @@
+package com.usermanagement.api.limit;
+
+import com.usermanagement.api.exception.UserManagementException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Admits requests to {@link Prioritized} handlers through the {@link ConcurrencyLimiter},
+ * once the handler is known and before the body is read. Rejections are thrown, so that
+ * they get the usual error body, with {@code Retry-After} set.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private final ConcurrencyLimiter limiter;
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimiter limiter, Duration retryAfter) {
+        this.limiter = limiter;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method) || !method.hasMethodAnnotation(Prioritized.class)) {
+            return true;
+        }
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire(method.getMethodAnnotation(Prioritized.class).value());
+        if (permit == null) {
+            throw UserManagementException.serviceUnavailable("Too many requests in progress, retry later", retryAfter);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof ConcurrencyLimiter.Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.release();
+        }
+    }
+}
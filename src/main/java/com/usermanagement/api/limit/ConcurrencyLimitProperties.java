@@ -0,0 +1,48 @@
+package com.usermanagement.api.limit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    /** Whether requests beyond the limit are rejected. */
+    private boolean enabled = true;
+
+    /** Requests allowed in flight at startup, before any latency has been measured. */
+    private int initialLimit = 100;
+
+    /** Lowest the limit goes, however slow requests get. */
+    private int minLimit = 20;
+
+    /** Highest the limit goes, however fast requests are. */
+    private int maxLimit = 1000;
+
+    /** Factor the limit is multiplied by when latency rises, at most once per request duration. */
+    private double backoffRatio = 0.9;
+
+    /**
+     * How many times its usual latency a priority's recent latency may reach before the
+     * limit is lowered.
+     */
+    private double latencyTolerance = 2.0;
+
+    /**
+     * Period over which the lowest recent latency of a priority is taken as its usual
+     * latency. A lasting rise, such as from a growing table, is accepted as the new usual
+     * latency after one to two periods.
+     */
+    private Duration baselineWindow = Duration.ofSeconds(30);
+
+    /** Share of the limit that writes may use. */
+    private double writeShare = 0.8;
+
+    /** Share of the limit that lists, searches, exports and batch operations may use. */
+    private double bulkShare = 0.5;
+
+    /** Sent as {@code Retry-After} with rejections. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,158 @@
+package com.usermanagement.api.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the requests in flight with a limit that follows their latency, additive
+ * increase and multiplicative decrease as in TCP congestion control.
+ * <p>
+ * When the database slows down, requests that keep coming pile up in front of the
+ * connection pool until they all time out, and none does useful work. Here each priority
+ * keeps an average of its recent latencies, and takes the lowest it reached over the last
+ * one to two {@code baseline-window}s as its usual latency. While the recent latency stays
+ * within {@code latency-tolerance} times the usual one and at least half the limit is in
+ * use, the limit grows by about one per limit's worth of completions. Once latency rises
+ * beyond it, which is queueing, the limit is multiplied by {@code backoff-ratio}, at most
+ * once per request duration so that requests still queued from before do not count
+ * twice. Bulk calls hold a permit but leave the limit alone, since their duration follows
+ * the size of their result. Requests over the limit are turned away at once.
+ * <ul>
+ *     <li>{@code user.concurrency.limit} and {@code user.concurrency.inflight} - gauges</li>
+ *     <li>{@code user.concurrency.rejected} - requests turned away, tagged with {@code priority}</li>
+ * </ul>
+ */
+public class ConcurrencyLimiter {
+
+    /** Weight of a new sample in the recent latency. */
+    private static final double RECENT_WEIGHT = 0.2;
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<RequestPriority, Latency> latencies = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+    // Guards the latencies and the adjustments of the limit
+    private final Object sampleLock = new Object();
+    private volatile double limit;
+    private long lastDecreaseAt;
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), properties.getInitialLimit()));
+        this.lastDecreaseAt = System.nanoTime();
+        for (RequestPriority priority : RequestPriority.values()) {
+            latencies.put(priority, new Latency());
+            rejected.put(priority, Counter.builder("user.concurrency.rejected")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        Gauge.builder("user.concurrency.limit", this, ConcurrencyLimiter::getLimit).register(registry);
+        Gauge.builder("user.concurrency.inflight", this, ConcurrencyLimiter::getInFlight).register(registry);
+    }
+
+    /**
+     * Admits a request if fewer than its priority's share of the limit are in flight.
+     *
+     * @return the permit to release once the request completes, or {@code null} if rejected
+     */
+    public Permit tryAcquire(RequestPriority priority) {
+        int allowed = allowed(priority);
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= allowed) {
+                rejected.get(priority).increment();
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(priority, System.nanoTime());
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    int allowed(RequestPriority priority) {
+        double share = switch (priority) {
+            case READ -> 1.0;
+            case WRITE -> properties.getWriteShare();
+            case BULK -> properties.getBulkShare();
+        };
+        return Math.max(1, (int) (limit * share));
+    }
+
+    void onSample(RequestPriority priority, long latencyNanos, int inFlightBefore, long now) {
+        synchronized (sampleLock) {
+            Latency latency = latencies.get(priority);
+            latency.add(latencyNanos, now, properties.getBaselineWindow().toNanos());
+            if (latency.recent > latency.baseline() * properties.getLatencyTolerance()) {
+                if (now - lastDecreaseAt >= latency.recent) {
+                    limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                    lastDecreaseAt = now;
+                }
+            } else if (inFlightBefore * 2 >= limit) {
+                limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+            }
+        }
+    }
+
+    /** A request in flight, whose duration adjusts the limit once it completes. */
+    public final class Permit {
+
+        private final RequestPriority priority;
+        private final long startedAt;
+
+        private Permit(RequestPriority priority, long startedAt) {
+            this.priority = priority;
+            this.startedAt = startedAt;
+        }
+
+        public void release() {
+            int inFlightBefore = inFlight.getAndDecrement();
+            // Bulk calls last as long as their result is large, or as the client takes to
+            // read an export, which says nothing about queueing in front of the database
+            if (priority != RequestPriority.BULK) {
+                long now = System.nanoTime();
+                onSample(priority, now - startedAt, inFlightBefore, now);
+            }
+        }
+    }
+
+    private static final class Latency {
+
+        private double recent;
+        private double windowLow = Double.MAX_VALUE;
+        private double previousWindowLow = Double.MAX_VALUE;
+        private long windowStartedAt;
+
+        void add(long nanos, long now, long window) {
+            if (recent == 0) {
+                recent = nanos;
+                windowStartedAt = now;
+            } else {
+                recent += (nanos - recent) * RECENT_WEIGHT;
+            }
+            if (now - windowStartedAt >= window) {
+                previousWindowLow = windowLow;
+                windowLow = recent;
+                windowStartedAt = now;
+            } else {
+                windowLow = Math.min(windowLow, recent);
+            }
+        }
+
+        double baseline() {
+            return Math.min(windowLow, previousWindowLow);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.usermanagement.api.limit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a handler method under the concurrency limit with the given priority. Handlers
+ * without it, such as long-lived streams, are not limited.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Prioritized {
+
+    RequestPriority value();
+}
@@ -0,0 +1,18 @@
+package com.usermanagement.api.limit;
+
+/**
+ * How readily a request is admitted as the service nears its concurrency limit. Each
+ * priority may only start while fewer requests than its share of the limit are in
+ * flight, so cheap reads keep being served after writes and bulk calls are shed.
+ */
+public enum RequestPriority {
+
+    /** Lookups of a single user and other cheap reads; may use the whole limit. */
+    READ,
+
+    /** Creates, updates, deletes and logins. */
+    WRITE,
+
+    /** Lists, searches, exports and batch operations, whose cost grows with their size. */
+    BULK
+}
@@ -0,0 +1,35 @@
+package com.usermanagement.api.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Counts the JDBC statements Hibernate prepares on the current thread, so that
+ * {@link UserServiceMetricsAspect} can report how many each service call issued.
+ */
+@Component
+public class StatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    // A one-element array avoids boxing a Long on every statement
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get()[0]++;
+        return sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    /** Statements prepared on this thread so far; only differences between two reads are meaningful. */
+    public long current() {
+        return STATEMENTS.get()[0];
+    }
+}
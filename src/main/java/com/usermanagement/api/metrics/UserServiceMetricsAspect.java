@@ -0,0 +1,112 @@
+package com.usermanagement.api.metrics;
+
+import com.usermanagement.api.exception.UserManagementException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every {@link com.usermanagement.api.service.UserService} call and records how it
+ * ended and how many statements it issued.
+ * <ul>
+ *     <li>{@code user.service.operations} - timer tagged with {@code operation} and
+ *     {@code outcome} ({@code SUCCESS}, {@code CLIENT_ERROR} or {@code SERVER_ERROR})</li>
+ *     <li>{@code user.service.errors} - counter tagged with {@code operation} and the HTTP
+ *     {@code status} the failure is reported with</li>
+ *     <li>{@code user.service.statements} - JDBC statements prepared per call, by {@code operation}</li>
+ * </ul>
+ * Meters are looked up once per operation and kept, so a call costs two clock reads and
+ * a map lookup on top of the recording itself.
+ */
+@Aspect
+@Component
+// Outside the transaction advice, so that commit time is part of the measurement
+@Order(0)
+public class UserServiceMetricsAspect {
+
+    static final String OPERATIONS = "user.service.operations";
+    static final String ERRORS = "user.service.errors";
+    static final String STATEMENTS = "user.service.statements";
+
+    private final MeterRegistry registry;
+    private final StatementCounter statementCounter;
+    private final Map<String, OperationMeters> meters = new ConcurrentHashMap<>();
+
+    public UserServiceMetricsAspect(MeterRegistry registry, StatementCounter statementCounter) {
+        this.registry = registry;
+        this.statementCounter = statementCounter;
+    }
+
+    @Around("execution(* com.usermanagement.api.service.UserService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        OperationMeters operation = meters.computeIfAbsent(joinPoint.getSignature().getName(), OperationMeters::new);
+        long statementsBefore = statementCounter.current();
+        long startedAt = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            operation.success.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (UserManagementException ex) {
+            Timer timer = ex.getStatus().is5xxServerError() ? operation.serverError : operation.clientError;
+            timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            operation.errors(ex.getStatus()).increment();
+            throw ex;
+        } catch (Throwable ex) {
+            // Anything else is answered with a 500 by the exception handler
+            operation.serverError.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            operation.errors(HttpStatus.INTERNAL_SERVER_ERROR).increment();
+            throw ex;
+        } finally {
+            operation.statements.record(statementCounter.current() - statementsBefore);
+        }
+    }
+
+    private final class OperationMeters {
+
+        private final String name;
+        private final Timer success;
+        private final Timer clientError;
+        private final Timer serverError;
+        private final DistributionSummary statements;
+        private final Map<HttpStatus, Counter> errors = new ConcurrentHashMap<>();
+
+        private OperationMeters(String name) {
+            this.name = name;
+            this.success = timer("SUCCESS");
+            this.clientError = timer("CLIENT_ERROR");
+            this.serverError = timer("SERVER_ERROR");
+            this.statements = DistributionSummary.builder(STATEMENTS)
+                    .description("JDBC statements prepared per user service call")
+                    .baseUnit("statements")
+                    .tag("operation", name)
+                    .register(registry);
+        }
+
+        private Timer timer(String outcome) {
+            return Timer.builder(OPERATIONS)
+                    .description("Time taken by user service calls")
+                    .tag("operation", name)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+
+        private Counter errors(HttpStatus status) {
+            return errors.computeIfAbsent(status, key -> Counter.builder(ERRORS)
+                    .description("User service calls that failed, by the status they are reported with")
+                    .tag("operation", name)
+                    .tag("status", String.valueOf(key.value()))
+                    .register(registry));
+        }
+    }
+}
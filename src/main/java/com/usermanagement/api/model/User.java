@@ -5,27 +5,49 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "normalized_email"),
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "normalized_username")
+}, indexes = {
+        @Index(name = "idx_users_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_users_updated_at", columnList = "updated_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+// Updates of a managed user only write the columns that changed
+@DynamicUpdate
 public class User {
 
+    public static final String EMAIL_CONSTRAINT = "uk_users_normalized_email";
+    public static final String USERNAME_CONSTRAINT = "uk_users_normalized_username";
+
+    // A pooled sequence lets Hibernate assign ids without a round trip per row, which JDBC batching requires
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "First name is required")
@@ -41,14 +63,22 @@ public class User {
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
     @Size(max = 100)
-    @Column(unique = true)
     private String email;
 
     @NotBlank(message = "Username is required")
     @Size(min = 4, max = 50, message = "Username must be between 4 and 50 characters")
-    @Column(unique = true)
     private String username;
 
+    // Lower-cased copies of email and username, kept in step by their setters and on insert;
+    // lookups and the unique constraints use these, so neither is case-sensitive
+    @Setter(AccessLevel.NONE)
+    @Column(name = "normalized_email", length = 100)
+    private String normalizedEmail;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "normalized_username", length = 50)
+    private String normalizedUsername;
+
     @NotBlank(message = "Password is required")
     @Size(min = 8, message = "Password must be at least 8 characters long")
     private String password;
@@ -61,4 +91,33 @@ public class User {
 
     @Column(name = "active")
     private boolean active;
+
+    // Checked and incremented by every update, so concurrent writers cannot silently overwrite each other
+    @Version
+    private Long version;
+
+    /**
+     * The form in which emails and usernames are compared: lower case, independent of the
+     * default locale.
+     */
+    public static String normalize(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.normalizedEmail = normalize(email);
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+        this.normalizedUsername = normalize(username);
+    }
+
+    // Users created through the builder have not been through the setters
+    @PrePersist
+    void normalizeKeys() {
+        normalizedEmail = normalize(email);
+        normalizedUsername = normalize(username);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.usermanagement.api.model;
+
+import com.usermanagement.api.event.UserChangedEvent;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user change waiting to be published, written in the same transaction as the change
+ * itself and deleted once it has been handed to the sink.
+ */
+@Entity
+@Table(name = "user_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOutboxEntry {
+
+    // Pooled like the users' ids, so the entries of a batch create are inserted in JDBC batches too
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_outbox_seq")
+    @SequenceGenerator(name = "user_outbox_seq", sequenceName = "user_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private UserChangedEvent.Type type;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /** The user as JSON, or {@code null} when the change did not read it back. */
+    @Column(length = 2000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,58 @@
+package com.usermanagement.api.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends published changes to a file, one JSON object per line, so a local consumer can
+ * follow them with {@code tail -f}.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "user.outbox.sink", havingValue = "file")
+public class FileUserChangeSink implements UserChangeSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    // Keeps concurrent batches from interleaving in the file
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    public FileUserChangeSink(UserOutboxProperties properties, ObjectMapper objectMapper) {
+        this.file = properties.getFile();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void send(List<UserChangeMessage> messages) {
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (UserChangeMessage message : messages) {
+                lines.append(objectMapper.writeValueAsString(message)).append('\n');
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize user change", ex);
+        }
+        appendLock.lock();
+        try {
+            // One write per batch, so a failure never leaves half a batch behind a retried one
+            Files.writeString(file, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not append user changes to " + file, ex);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+}
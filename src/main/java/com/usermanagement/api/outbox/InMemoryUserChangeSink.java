@@ -0,0 +1,44 @@
+package com.usermanagement.api.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent published changes in memory, for local runs and tests.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "user.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryUserChangeSink implements UserChangeSink {
+
+    private final int capacity;
+    private final Deque<UserChangeMessage> messages = new ArrayDeque<>();
+
+    public InMemoryUserChangeSink(UserOutboxProperties properties) {
+        this.capacity = properties.getMemoryCapacity();
+    }
+
+    @Override
+    public synchronized void send(List<UserChangeMessage> batch) {
+        for (UserChangeMessage message : batch) {
+            if (messages.size() == capacity) {
+                messages.removeFirst();
+            }
+            messages.addLast(message);
+        }
+    }
+
+    /** The changes received, oldest first. */
+    public synchronized List<UserChangeMessage> getMessages() {
+        return List.copyOf(messages);
+    }
+
+    public synchronized void clear() {
+        messages.clear();
+    }
+}
@@ -0,0 +1,32 @@
+package com.usermanagement.api.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.model.UserOutboxEntry;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user change as handed to a {@link UserChangeSink}. The id is unique and lets consumers
+ * drop the duplicates that at-least-once delivery can produce. It does not follow commit
+ * order: ids are taken from a pooled sequence before the change commits, and nodes commit
+ * at their own pace. To order the changes of one user, compare the user's {@code version}.
+ */
+@Value
+public class UserChangeMessage {
+
+    long id;
+    UserChangedEvent.Type type;
+    Long userId;
+    LocalDateTime occurredAt;
+
+    /** The user as JSON, absent for deletes and bulk status changes. */
+    @JsonRawValue
+    String user;
+
+    static UserChangeMessage of(UserOutboxEntry entry) {
+        return new UserChangeMessage(entry.getId(), entry.getType(), entry.getUserId(), entry.getCreatedAt(),
+                entry.getPayload());
+    }
+}
@@ -0,0 +1,13 @@
+package com.usermanagement.api.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of published user changes. A sink that throws leaves the whole batch in the
+ * outbox to be sent again, so sinks must tolerate receiving a change more than once.
+ */
+public interface UserChangeSink {
+
+    /** Delivers the changes, which are in the order they were written. */
+    void send(List<UserChangeMessage> messages);
+}
@@ -0,0 +1,54 @@
+package com.usermanagement.api.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.model.UserOutboxEntry;
+import com.usermanagement.api.repository.UserOutboxRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records every user change in the outbox table as part of the transaction that makes it,
+ * so a change is published if and only if it commits.
+ */
+@Component
+@Profile("!reactive")
+public class UserOutbox {
+
+    private final UserOutboxRepository outboxRepository;
+    private final UserOutboxProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public UserOutbox(UserOutboxRepository outboxRepository, UserOutboxProperties properties, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    // Runs inside the transaction, and the entry is flushed with the change on commit
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        outboxRepository.save(UserOutboxEntry.builder()
+                .type(event.getType())
+                .userId(event.getUserId())
+                .payload(event.getUser() != null ? toJson(event) : null)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private String toJson(UserChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event.getUser());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize user " + event.getUserId(), ex);
+        }
+    }
+}
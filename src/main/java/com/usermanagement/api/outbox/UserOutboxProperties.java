@@ -0,0 +1,33 @@
+package com.usermanagement.api.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.outbox")
+public class UserOutboxProperties {
+
+    /** Whether user changes are written to the outbox at all. */
+    private boolean enabled = true;
+
+    /** Whether this node drains the outbox; any number of nodes may. */
+    private boolean publisherEnabled = true;
+
+    /** Pause between draining the outbox, once it has been emptied. */
+    private Duration publishInterval = Duration.ofSeconds(1);
+
+    /** Entries claimed, sent and deleted per transaction. */
+    private int batchSize = 500;
+
+    /** Where published changes go: {@code memory}, {@code file}, or any other value for a custom sink bean. */
+    private String sink = "memory";
+
+    /** File the {@code file} sink appends to, one JSON line per change. */
+    private Path file = Path.of("user-changes.ndjson");
+
+    /** Most recent changes kept by the {@code memory} sink. */
+    private int memoryCapacity = 10_000;
+}
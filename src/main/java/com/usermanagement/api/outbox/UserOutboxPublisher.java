@@ -0,0 +1,81 @@
+package com.usermanagement.api.outbox;
+
+import com.usermanagement.api.model.UserOutboxEntry;
+import com.usermanagement.api.repository.UserOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Drains the outbox into the {@link UserChangeSink}, a batch per transaction: the batch is
+ * claimed with {@code FOR UPDATE SKIP LOCKED}, sent, and deleted on commit. If the sink
+ * fails the transaction rolls back and the batch is sent again on the next run, so
+ * delivery is at least once. Publishers on other nodes skip the rows claimed here and take
+ * the next ones, so changes to one user may be delivered out of order across nodes; the
+ * user's {@code version} tells consumers which state is the latest.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class UserOutboxPublisher implements SchedulingConfigurer {
+
+    private final UserOutboxRepository outboxRepository;
+    private final UserChangeSink sink;
+    private final UserOutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserOutboxPublisher(UserOutboxRepository outboxRepository,
+                               UserChangeSink sink,
+                               UserOutboxProperties properties,
+                               PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (properties.isPublisherEnabled()) {
+            registrar.addFixedDelayTask(this::publishScheduled, properties.getPublishInterval());
+        }
+    }
+
+    void publishScheduled() {
+        try {
+            publishPending();
+        } catch (RuntimeException ex) {
+            log.warn("Publishing user changes failed, retrying in {}", properties.getPublishInterval(), ex);
+        }
+    }
+
+    /**
+     * Publishes batches until the outbox holds no unclaimed entries, and returns the
+     * number of changes sent.
+     */
+    public long publishPending() {
+        long published = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> publishBatch());
+            published += batch;
+        } while (batch == properties.getBatchSize());
+        return published;
+    }
+
+    private int publishBatch() {
+        List<UserOutboxEntry> entries = outboxRepository.claimOldest(properties.getBatchSize());
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        sink.send(entries.stream().map(UserChangeMessage::of).toList());
+        outboxRepository.deleteAllByIdInBatch(entries.stream().map(UserOutboxEntry::getId).toList());
+        return entries.size();
+    }
+}
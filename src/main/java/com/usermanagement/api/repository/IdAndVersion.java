@@ -0,0 +1,8 @@
+package com.usermanagement.api.repository;
+
+public interface IdAndVersion {
+
+    Long getId();
+
+    Long getVersion();
+}
@@ -0,0 +1,32 @@
+package com.usermanagement.api.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills in {@code normalized_email} and {@code normalized_username} for users stored
+ * before those columns were added. Schema updates add the columns empty, and a user
+ * without them cannot be looked up or log in, so this runs while the context starts,
+ * before the server accepts requests. Once every row is filled in it updates nothing.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class NormalizedKeysBackfill {
+
+    private final UserRepository userRepository;
+
+    public NormalizedKeysBackfill(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    void backfill() {
+        int filled = userRepository.fillMissingNormalizedKeys();
+        if (filled > 0) {
+            log.info("Filled in normalized emails and usernames of {} users", filled);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.usermanagement.api.repository;
+
+import com.usermanagement.api.model.UserOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserOutboxRepository extends JpaRepository<UserOutboxEntry, Long> {
+
+    /**
+     * Locks and returns the oldest entries not locked by another transaction, which skips
+     * them rather than waiting, so several publishers can drain the outbox side by side.
+     * Native, as Hibernate only renders {@code SKIP LOCKED} for some dialects; PostgreSQL
+     * and H2 both accept it.
+     */
+    @Query(value = "select * from user_outbox order by id limit :limit for update skip locked", nativeQuery = true)
+    List<UserOutboxEntry> claimOldest(@Param("limit") int limit);
+}
@@ -0,0 +1,38 @@
+package com.usermanagement.api.repository;
+
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository fragment for partial and bulk updates of users.
+ */
+public interface UserPatchRepository {
+
+    /**
+     * Sets the given attributes of one user with a single {@code UPDATE} of just those
+     * columns, without loading the user first. The version is incremented as well.
+     *
+     * @param expectedVersion version the user must still be at, or {@code null} for any
+     * @param attributes new values keyed by {@link com.usermanagement.api.model.User} attribute name
+     * @return the number of rows updated, 0 when the user does not exist or is at another version
+     */
+    int patchById(Long id, Long expectedVersion, Map<String, Object> attributes);
+
+    /**
+     * Ids of the users matching the filter that are not yet in the given state, in id
+     * order after {@code afterId}.
+     */
+    List<Long> findIdsForStatusUpdate(UserStatusFilter filter, boolean active, long afterId, Limit limit);
+
+    /**
+     * Sets the state of the listed users with a single {@code UPDATE}, skipping those no
+     * longer matching the filter or already in that state. Their versions are incremented.
+     *
+     * @return the number of rows updated
+     */
+    int updateStatus(Collection<Long> ids, UserStatusFilter filter, boolean active, LocalDateTime updatedAt);
+}
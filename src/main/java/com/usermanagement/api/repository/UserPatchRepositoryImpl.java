@@ -0,0 +1,85 @@
+package com.usermanagement.api.repository;
+
+import com.usermanagement.api.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+class UserPatchRepositoryImpl implements UserPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patchById(Long id, Long expectedVersion, Map<String, Object> attributes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = builder.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+        attributes.forEach(update::set);
+        // Bulk updates bypass the entity's version handling, so it is incremented here
+        update.set(user.<Long>get("version"), builder.sum(user.<Long>get("version"), 1L));
+        Predicate matches = builder.equal(user.get("id"), id);
+        if (expectedVersion != null) {
+            matches = builder.and(matches, builder.equal(user.get("version"), expectedVersion));
+        }
+        update.where(matches);
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public List<Long> findIdsForStatusUpdate(UserStatusFilter filter, boolean active, long afterId, Limit limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<User> user = query.from(User.class);
+        List<Predicate> matches = statusPredicates(builder, user, filter, active);
+        matches.add(builder.greaterThan(user.get("id"), afterId));
+        query.select(user.get("id"))
+                .where(matches.toArray(Predicate[]::new))
+                .orderBy(builder.asc(user.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    @Override
+    public int updateStatus(Collection<Long> ids, UserStatusFilter filter, boolean active, LocalDateTime updatedAt) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = builder.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+        update.set(user.<Boolean>get("active"), active);
+        update.set(user.<LocalDateTime>get("updatedAt"), updatedAt);
+        update.set(user.<Long>get("version"), builder.sum(user.<Long>get("version"), 1L));
+        // The filter is checked again, in case a user changed since its id was selected
+        List<Predicate> matches = statusPredicates(builder, user, filter, active);
+        matches.add(user.get("id").in(ids));
+        update.where(matches.toArray(Predicate[]::new));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private static List<Predicate> statusPredicates(CriteriaBuilder builder, Root<User> user,
+                                                    UserStatusFilter filter, boolean active) {
+        List<Predicate> matches = new ArrayList<>();
+        matches.add(builder.notEqual(user.get("active"), active));
+        if (filter.getIds() != null) {
+            matches.add(user.get("id").in(filter.getIds()));
+        }
+        if (filter.getCreatedBefore() != null) {
+            matches.add(builder.lessThan(user.get("createdAt"), filter.getCreatedBefore()));
+        }
+        if (filter.getEmailPattern() != null) {
+            matches.add(builder.like(user.get("normalizedEmail"), filter.getEmailPattern(), '!'));
+        }
+        return matches;
+    }
+}
@@ -1,19 +1,161 @@
 package com.usermanagement.api.repository;
 
+import com.usermanagement.api.dto.UserSuggestion;
 import com.usermanagement.api.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    
-    Optional<User> findByEmail(String email);
-    
-    Optional<User> findByUsername(String username);
-    
-    boolean existsByEmail(String email);
-    
-    boolean existsByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserPatchRepository {
+
+    // Emails and usernames are looked up and compared in their normalized form, see User.normalize
+    Optional<User> findByNormalizedEmail(String normalizedEmail);
+
+    Optional<User> findByNormalizedUsername(String normalizedUsername);
+
+    boolean existsByNormalizedEmail(String normalizedEmail);
+
+    boolean existsByNormalizedUsername(String normalizedUsername);
+
+    // Reads for the API select a UserView, which leaves out the password and is not managed
+
+    @Query(UserView.SELECT + "where u.id = :id")
+    Optional<UserView> findViewById(@Param("id") Long id);
+
+    @Query(UserView.SELECT + "where u.normalizedUsername = :normalizedUsername")
+    Optional<UserView> findViewByNormalizedUsername(@Param("normalizedUsername") String normalizedUsername);
+
+    @Query(UserView.SELECT + "where u.normalizedEmail = :normalizedEmail")
+    Optional<UserView> findViewByNormalizedEmail(@Param("normalizedEmail") String normalizedEmail);
+
+    /** The version and modification time of one user, for conditional requests. */
+    @Query("select new com.usermanagement.api.repository.UserVersion(u.version, u.updatedAt) from User u where u.id = :id")
+    Optional<UserVersion> findVersionById(@Param("id") Long id);
+
+    @Query(UserView.SELECT + "where (:active is null or u.active = :active) and u.id > :afterId order by u.id")
+    List<UserView> findPageOrderById(@Param("active") Boolean active, @Param("afterId") long afterId, Limit limit);
+
+    @Query(UserView.SELECT + "where (:active is null or u.active = :active) order by u.createdAt, u.id")
+    List<UserView> findFirstPageOrderByCreatedAt(@Param("active") Boolean active, Limit limit);
+
+    @Query(UserView.SELECT + "where (:active is null or u.active = :active) " +
+            "and (u.createdAt > :afterCreatedAt or (u.createdAt = :afterCreatedAt and u.id > :afterId)) " +
+            "order by u.createdAt, u.id")
+    List<UserView> findPageOrderByCreatedAt(@Param("active") Boolean active,
+                                            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                            @Param("afterId") long afterId,
+                                            Limit limit);
+
+    /**
+     * Finds users whose username, email, first or last name contains the terms, ignoring
+     * case. Results are ordered by {@link UserSearchHit#getRank() rank} and then id, and
+     * start after the given position.
+     *
+     * @param exact the normalized query, see {@link UserSearchTerms}
+     * @param prefix the query as a LIKE pattern for values starting with it
+     * @param contains the query as a LIKE pattern for values containing it
+     * @param afterRank rank of the last hit already returned, or -1 for the first page
+     * @param afterId id of the last hit already returned, or 0 for the first page
+     */
+    @Query("select new com.usermanagement.api.repository.UserSearchHit(" + UserSearchHit.RANK + ", " +
+            "u.id, u.firstName, u.lastName, u.email, u.username, u.createdAt, u.updatedAt, u.active, u.version) " +
+            "from User u " +
+            "where (u.normalizedUsername like :contains escape '!' or u.normalizedEmail like :contains escape '!' " +
+            "or lower(u.firstName) like :contains escape '!' or lower(u.lastName) like :contains escape '!') " +
+            "and (" + UserSearchHit.RANK + " > :afterRank " +
+            "or (" + UserSearchHit.RANK + " = :afterRank and u.id > :afterId)) " +
+            "order by " + UserSearchHit.RANK + ", u.id")
+    List<UserSearchHit> search(@Param("exact") String exact,
+                               @Param("prefix") String prefix,
+                               @Param("contains") String contains,
+                               @Param("afterRank") int afterRank,
+                               @Param("afterId") long afterId,
+                               Limit limit);
+
+    /** Normalized usernames matching a LIKE pattern escaped by {@code '!'}, in order. */
+    @Query("select new com.usermanagement.api.dto.UserSuggestion(u.id, '" + UserSuggestion.USERNAME + "', " +
+            "u.normalizedUsername) from User u " +
+            "where u.normalizedUsername like :prefix escape '!' order by u.normalizedUsername")
+    List<UserSuggestion> findUsernameSuggestions(@Param("prefix") String prefix, Limit limit);
+
+    /** Normalized emails matching a LIKE pattern escaped by {@code '!'}, in order. */
+    @Query("select new com.usermanagement.api.dto.UserSuggestion(u.id, '" + UserSuggestion.EMAIL + "', " +
+            "u.normalizedEmail) from User u " +
+            "where u.normalizedEmail like :prefix escape '!' order by u.normalizedEmail")
+    List<UserSuggestion> findEmailSuggestions(@Param("prefix") String prefix, Limit limit);
+
+    /** All users in id order, fetched from the database in chunks; must be closed. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(UserView.SELECT + "order by u.id")
+    Stream<UserView> streamAllOrderById();
+
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from User u where u.id = :id and u.version = :version")
+    int deleteUserByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    /**
+     * Replaces a password only if it has not changed since it was read, so that an upgrade
+     * on login cannot overwrite a password set in the meantime. Moves the version on like
+     * any other write, so that ETags and cached copies of the user are not left stale.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newPassword, u.version = u.version + 1, u.updatedAt = :updatedAt "
+            + "where u.id = :id and u.password = :currentPassword")
+    int replacePassword(@Param("id") Long id,
+                        @Param("currentPassword") String currentPassword,
+                        @Param("newPassword") String newPassword,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Fills in the normalized email and username of rows written before those columns
+     * existed, which lookups and login would otherwise not find.
+     *
+     * @return the number of rows filled in
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.normalizedEmail = lower(u.email), u.normalizedUsername = lower(u.username) "
+            + "where u.normalizedEmail is null or u.normalizedUsername is null")
+    int fillMissingNormalizedKeys();
+
+    @Query("select u.normalizedEmail from User u where u.normalizedEmail in :normalizedEmails")
+    Set<String> findExistingEmails(@Param("normalizedEmails") Collection<String> normalizedEmails);
+
+    @Query("select u.normalizedUsername from User u where u.normalizedUsername in :normalizedUsernames")
+    Set<String> findExistingUsernames(@Param("normalizedUsernames") Collection<String> normalizedUsernames);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.id as id, u.normalizedUsername as username, u.normalizedEmail as email from User u")
+    Stream<UsernameAndEmail> streamUsernamesAndEmails();
+
+    /** The versions of users created or updated at or after the given time, by this node or any other. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.id as id, u.version as version from User u where u.updatedAt >= :since")
+    Stream<IdAndVersion> streamVersionsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /** The keys of users created or updated at or after the given time, by this node or any other. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.id as id, u.normalizedUsername as username, u.normalizedEmail as email from User u " +
+            "where u.updatedAt >= :since")
+    Stream<UsernameAndEmail> streamUsernamesAndEmailsUpdatedSince(@Param("since") LocalDateTime since);
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.usermanagement.api.repository;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user matched by a search, with the rank of the match: 0 for an exact username or
+ * email, 1 for a prefix of any searched column and 2 for a match anywhere else.
+ */
+@Value
+public class UserSearchHit {
+
+    public static final int EXACT = 0;
+    public static final int PREFIX = 1;
+    public static final int SUBSTRING = 2;
+
+    // Each searched column is matched on its own, so that on PostgreSQL every condition can
+    // use the trigram index of its column (created by the migration in the README); '!' escapes LIKE wildcards
+    static final String RANK = "case " +
+            "when u.normalizedUsername = :exact or u.normalizedEmail = :exact then " + EXACT + " " +
+            "when u.normalizedUsername like :prefix escape '!' or u.normalizedEmail like :prefix escape '!' " +
+            "or lower(u.firstName) like :prefix escape '!' or lower(u.lastName) like :prefix escape '!' " +
+            "then " + PREFIX + " " +
+            "else " + SUBSTRING + " end";
+
+    int rank;
+    UserView user;
+
+    // Called by the search query's constructor expression
+    public UserSearchHit(Integer rank, Long id, String firstName, String lastName, String email, String username,
+                         LocalDateTime createdAt, LocalDateTime updatedAt, boolean active, Long version) {
+        this.rank = rank;
+        this.user = new UserView(id, firstName, lastName, email, username, createdAt, updatedAt, active, version);
+    }
+}
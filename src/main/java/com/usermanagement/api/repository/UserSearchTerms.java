@@ -0,0 +1,23 @@
+package com.usermanagement.api.repository;
+
+import com.usermanagement.api.model.User;
+import lombok.Value;
+
+/**
+ * The parameters a search query is bound as: the normalized query for exact matches, and
+ * LIKE patterns for prefix and substring matches with the wildcards in the query escaped
+ * by {@code '!'}.
+ */
+@Value
+public class UserSearchTerms {
+
+    String exact;
+    String prefix;
+    String contains;
+
+    public static UserSearchTerms of(String query) {
+        String exact = User.normalize(query);
+        String literal = exact.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return new UserSearchTerms(exact, literal + "%", "%" + literal + "%");
+    }
+}
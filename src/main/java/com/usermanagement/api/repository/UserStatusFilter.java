@@ -0,0 +1,34 @@
+package com.usermanagement.api.repository;
+
+import com.usermanagement.api.model.User;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The users a bulk status update applies to: those matching every criterion that is not
+ * {@code null}.
+ */
+@Value
+public class UserStatusFilter {
+
+    List<Long> ids;
+    LocalDateTime createdBefore;
+    String emailDomain;
+
+    public static UserStatusFilter of(List<Long> ids, LocalDateTime createdBefore, String emailDomain) {
+        String domain = emailDomain != null ? User.normalize(emailDomain.strip().replaceFirst("^@", "")) : null;
+        return new UserStatusFilter(ids != null && !ids.isEmpty() ? List.copyOf(ids) : null, createdBefore, domain);
+    }
+
+    public boolean isEmpty() {
+        return ids == null && createdBefore == null && emailDomain == null;
+    }
+
+    /** LIKE pattern matching emails at the domain, with wildcards escaped by {@code '!'}. */
+    public String getEmailPattern() {
+        return emailDomain == null ? null
+                : "%@" + emailDomain.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,15 @@
+package com.usermanagement.api.repository;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * The parts of a user that conditional requests are checked against.
+ */
+@Value
+public class UserVersion {
+
+    Long version;
+    LocalDateTime updatedAt;
+}
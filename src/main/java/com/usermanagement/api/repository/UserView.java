@@ -0,0 +1,31 @@
+package com.usermanagement.api.repository;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a user that are returned by the API, read without the password and
+ * without a managed entity.
+ * <p>
+ * Built by a JPQL constructor expression, so Hibernate neither keeps a snapshot of it for
+ * dirty checking nor adds it to the persistence context.
+ */
+@Value
+public class UserView {
+
+    // The constructor arguments follow the field order
+    static final String SELECT = "select new com.usermanagement.api.repository.UserView(" +
+            "u.id, u.firstName, u.lastName, u.email, u.username, u.createdAt, u.updatedAt, u.active, u.version) " +
+            "from User u ";
+
+    Long id;
+    String firstName;
+    String lastName;
+    String email;
+    String username;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+    boolean active;
+    Long version;
+}
@@ -0,0 +1,10 @@
+package com.usermanagement.api.repository;
+
+public interface UsernameAndEmail {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+}
@@ -0,0 +1,233 @@
+package com.usermanagement.api.security;
+
+import com.usermanagement.api.exception.UserManagementException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hashes and verifies passwords with BCrypt on a dedicated, bounded pool of platform
+ * threads.
+ * <p>
+ * BCrypt is slow on purpose, so running it on request threads would let a burst of
+ * signups or logins take every core away from the read endpoints. Here at most
+ * {@code threads} hashes run at once and at most {@code queue-capacity} wait; anything
+ * beyond that is turned away with a 503 straight away instead of queueing without bound.
+ * <p>
+ * Unless {@code work-factor} is configured, the cost is calibrated at startup to the
+ * highest one that stays within {@code target-latency} on this machine. Hashes made
+ * with a lower cost, and passwords still stored in plain text from before hashing was
+ * introduced, are reported by {@link #needsRehash(String)} so they can be upgraded on
+ * the next successful login.
+ * <ul>
+ *     <li>{@code user.password.hashing} - timer of the hashing itself, tagged with
+ *     {@code operation} ({@code hash} or {@code verify})</li>
+ *     <li>{@code user.password.hashing.wait} - time spent queued for a thread</li>
+ *     <li>{@code user.password.hashing.rejected} - requests turned away while saturated</li>
+ *     <li>{@code user.password.hashing.queue}, {@code user.password.hashing.active} and
+ *     {@code user.password.hashing.work.factor} - gauges</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    private static final String BCRYPT_PREFIX = "$2";
+
+    private final ThreadPoolExecutor executor;
+    private final BCryptPasswordEncoder encoder;
+    private final int workFactor;
+    private final String dummyHash;
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordHashingProperties properties, MeterRegistry registry) {
+        this.workFactor = properties.getWorkFactor() != null ? properties.getWorkFactor() : calibrate(properties);
+        this.encoder = new BCryptPasswordEncoder(workFactor);
+        // Verified against when the user does not exist, so that a miss takes as long as a wrong password
+        this.dummyHash = encoder.encode("not-a-real-password");
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("user.password.hashing").tag("operation", "hash").register(registry);
+        this.verifyTimer = Timer.builder("user.password.hashing").tag("operation", "verify").register(registry);
+        this.waitTimer = Timer.builder("user.password.hashing.wait").register(registry);
+        this.rejected = Counter.builder("user.password.hashing.rejected").register(registry);
+        Gauge.builder("user.password.hashing.queue", executor, pool -> pool.getQueue().size()).register(registry);
+        Gauge.builder("user.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+        Gauge.builder("user.password.hashing.work.factor", () -> workFactor).register(registry);
+
+        log.info("Hashing passwords with BCrypt cost {} on {} threads (queue capacity {})",
+                workFactor, properties.getThreads(), properties.getQueueCapacity());
+    }
+
+    public int getWorkFactor() {
+        return workFactor;
+    }
+
+    /** Number of hashes that can run at the same time. */
+    public int getConcurrency() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * Hashes a password, waiting for a free hashing thread.
+     *
+     * @throws UserManagementException with status 503 when the hashing pool is saturated
+     */
+    public String hash(String rawPassword) {
+        return await(hashAsync(rawPassword));
+    }
+
+    /**
+     * Hashes a batch of passwords. Only as many are submitted at a time as there are
+     * threads, so one large batch cannot fill the queue and lock out other callers.
+     * <p>
+     * The batch therefore takes about {@code size / threads} times the cost of one hash,
+     * which with a calibrated cost is close to {@code target-latency}. Callers bound the
+     * size accordingly, see {@link com.usermanagement.api.dto.UserBatchCreateRequest#MAX_BATCH_SIZE}.
+     */
+    public List<String> hashAll(List<String> rawPasswords) {
+        int window = getConcurrency();
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        for (int from = 0; from < rawPasswords.size(); from += window) {
+            List<CompletableFuture<String>> pending = rawPasswords
+                    .subList(from, Math.min(from + window, rawPasswords.size()))
+                    .stream()
+                    .map(this::hashAsync)
+                    .toList();
+            pending.forEach(hash -> hashes.add(await(hash)));
+        }
+        return hashes;
+    }
+
+    public boolean matches(String rawPassword, String storedPassword) {
+        return await(matchesAsync(rawPassword, storedPassword));
+    }
+
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submit(hashTimer, () -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks a password against its stored form. Every check costs one hash at the current
+     * cost: a {@code null} stored password is checked against a dummy hash and never
+     * matches, which keeps the response time of unknown usernames the same as that of
+     * wrong passwords.
+     */
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String storedPassword) {
+        if (storedPassword == null) {
+            return submit(verifyTimer, () -> {
+                encoder.matches(rawPassword, dummyHash);
+                return false;
+            });
+        }
+        if (!isHashed(storedPassword)) {
+            // Stored before passwords were hashed. The dummy hash makes the check as slow as
+            // for any other account, so timing does not reveal which ones are still in plain text
+            return submit(verifyTimer, () -> {
+                encoder.matches(rawPassword, dummyHash);
+                return MessageDigest.isEqual(
+                        rawPassword.getBytes(StandardCharsets.UTF_8), storedPassword.getBytes(StandardCharsets.UTF_8));
+            });
+        }
+        return submit(verifyTimer, () -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    /**
+     * Whether a stored password should be replaced by a fresh hash: it is plain text, or
+     * was hashed with a lower cost than the current one.
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isHashed(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static boolean isHashed(String storedPassword) {
+        return storedPassword.startsWith(BCRYPT_PREFIX);
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(task);
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    UserManagementException.serviceUnavailable("Too many password operations in progress, retry later"));
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw UserManagementException.serviceUnavailable("Interrupted while waiting for password hashing");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(ex.getCause());
+        }
+    }
+
+    /**
+     * Picks the highest cost whose hash time stays within the target latency. Each step up
+     * doubles the work, so one measurement at the minimum cost is enough to extrapolate.
+     */
+    private static int calibrate(PasswordHashingProperties properties) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(properties.getMinWorkFactor());
+        probe.encode("calibration");  // warm up
+        long startedAt = System.nanoTime();
+        probe.encode("calibration");
+        long nanos = Math.max(System.nanoTime() - startedAt, 1);
+
+        long target = properties.getTargetLatency().toNanos();
+        int cost = properties.getMinWorkFactor();
+        while (cost < properties.getMaxWorkFactor() && nanos * 2 <= target) {
+            nanos *= 2;
+            cost++;
+        }
+        log.info("Calibrated BCrypt cost {} for a target of {} ms ({} ms expected per hash)",
+                cost, properties.getTargetLatency().toMillis(), TimeUnit.NANOSECONDS.toMillis(nanos));
+        return cost;
+    }
+}
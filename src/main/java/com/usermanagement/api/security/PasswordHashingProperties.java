@@ -0,0 +1,32 @@
+package com.usermanagement.api.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.password-hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * BCrypt cost (log2 of the number of rounds). When unset it is calibrated at startup
+     * against {@link #targetLatency}.
+     */
+    private Integer workFactor;
+
+    private Duration targetLatency = Duration.ofMillis(250);
+
+    private int minWorkFactor = 10;
+
+    private int maxWorkFactor = 16;
+
+    /**
+     * Threads hashing in parallel. Defaults to half the cores, so a burst of logins or
+     * signups leaves CPU for everything else.
+     */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /** Hashes allowed to wait for a thread before new ones are rejected with a 503. */
+    private int queueCapacity = 100;
+}
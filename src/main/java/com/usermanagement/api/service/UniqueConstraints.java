@@ -0,0 +1,41 @@
+package com.usermanagement.api.service;
+
+import com.usermanagement.api.exception.UserManagementException;
+import com.usermanagement.api.model.User;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Maps violations of the unique constraints on {@code users} to the conflict responses
+ * the API returns, so that writes can rely on the database instead of checking first.
+ */
+final class UniqueConstraints {
+
+    private UniqueConstraints() {
+    }
+
+    static UserManagementException toConflict(DataIntegrityViolationException ex, String email, String username) {
+        String violated = violatedConstraint(ex);
+        if (violated.contains(User.EMAIL_CONSTRAINT)) {
+            return UserManagementException.conflict("Email already in use" + (email != null ? ": " + email : ""));
+        }
+        if (violated.contains(User.USERNAME_CONSTRAINT)) {
+            return UserManagementException.conflict("Username already in use" + (username != null ? ": " + username : ""));
+        }
+        throw ex;
+    }
+
+    private static String violatedConstraint(DataIntegrityViolationException ex) {
+        // Not every dialect extracts the constraint name, so the driver's message is checked as well
+        StringBuilder candidates = new StringBuilder();
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                candidates.append(violation.getConstraintName()).append(' ');
+            }
+        }
+        candidates.append(ex.getMostSpecificCause().getMessage());
+        return candidates.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,68 @@
+package com.usermanagement.api.service;
+
+import com.usermanagement.api.dto.UserSortField;
+import com.usermanagement.api.exception.UserManagementException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for paging through users. The encoded form carries the
+ * sort field together with the last seen key so that a cursor cannot be replayed
+ * against a different ordering.
+ */
+final class UserCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final UserSortField sortField;
+    private final Long id;
+    private final LocalDateTime createdAt;
+
+    private UserCursor(UserSortField sortField, Long id, LocalDateTime createdAt) {
+        this.sortField = sortField;
+        this.id = id;
+        this.createdAt = createdAt;
+    }
+
+    static UserCursor of(UserSortField sortField, Long id, LocalDateTime createdAt) {
+        return new UserCursor(sortField, id, createdAt);
+    }
+
+    Long getId() {
+        return id;
+    }
+
+    LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    String encode() {
+        String raw = sortField == UserSortField.CREATED_AT
+                ? sortField.getValue() + SEPARATOR + createdAt + SEPARATOR + id
+                : sortField.getValue() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UserCursor decode(String cursor, UserSortField expectedSortField) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            UserSortField sortField = UserSortField.fromValue(parts[0]);
+            if (sortField != expectedSortField) {
+                throw UserManagementException.badRequest("Cursor does not match sort field: " + expectedSortField.getValue());
+            }
+            if (sortField == UserSortField.CREATED_AT && parts.length == 3) {
+                return new UserCursor(sortField, Long.parseLong(parts[2]), LocalDateTime.parse(parts[1]));
+            }
+            if (sortField == UserSortField.ID && parts.length == 2) {
+                return new UserCursor(sortField, Long.parseLong(parts[1]), null);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            // fall through to the generic error below
+        }
+        throw UserManagementException.badRequest("Invalid cursor: " + cursor);
+    }
+}
@@ -0,0 +1,63 @@
+package com.usermanagement.api.service;
+
+import com.usermanagement.api.exception.UserManagementException;
+import com.usermanagement.api.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for paging through search results, which are ordered by rank
+ * and id. The encoded form carries a hash of the query so that a cursor cannot be
+ * replayed against different search terms.
+ */
+final class UserSearchCursor {
+
+    private static final String PREFIX = "search";
+    private static final String SEPARATOR = "|";
+
+    private final int rank;
+    private final long id;
+
+    private UserSearchCursor(int rank, long id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    static UserSearchCursor of(int rank, long id) {
+        return new UserSearchCursor(rank, id);
+    }
+
+    int getRank() {
+        return rank;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    String encode(String query) {
+        String raw = PREFIX + SEPARATOR + queryHash(query) + SEPARATOR + rank + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UserSearchCursor decode(String cursor, String expectedQuery) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length == 4 && PREFIX.equals(parts[0])) {
+                if (!parts[1].equals(queryHash(expectedQuery))) {
+                    throw UserManagementException.badRequest("Cursor does not match search query: " + expectedQuery);
+                }
+                return new UserSearchCursor(Integer.parseInt(parts[2]), Long.parseLong(parts[3]));
+            }
+        } catch (IllegalArgumentException ex) {
+            // fall through to the generic error below
+        }
+        throw UserManagementException.badRequest("Invalid cursor: " + cursor);
+    }
+
+    private static String queryHash(String query) {
+        return Integer.toHexString(User.normalize(query).hashCode());
+    }
+}
@@ -1,24 +1,78 @@
 package com.usermanagement.api.service;
 
+import com.usermanagement.api.dto.AvailabilityResponse;
+import com.usermanagement.api.dto.LoginRequest;
+import com.usermanagement.api.dto.UserBatchCreateResponse;
 import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserPatchRequest;
 import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSortField;
+import com.usermanagement.api.dto.UserStatusUpdateRequest;
+import com.usermanagement.api.dto.UserStatusUpdateResponse;
+import com.usermanagement.api.dto.UserSuggestion;
 import com.usermanagement.api.dto.UserUpdateRequest;
+import com.usermanagement.api.repository.UserVersion;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+/**
+ * Operations on users. Methods taking an {@code expectedVersion} fail with 412 when the
+ * user is no longer at that version; pass {@code null} to skip the check.
+ */
 public interface UserService {
 
     UserResponse createUser(UserCreateRequest request);
     
+    UserBatchCreateResponse createUsers(List<UserCreateRequest> requests);
+    
     UserResponse getUserById(Long id);
     
+    /**
+     * Returns the version and modification time of a user, for answering conditional
+     * requests without loading the whole user.
+     */
+    UserVersion getUserVersion(Long id);
+    
     UserResponse getUserByUsername(String username);
     
     UserResponse getUserByEmail(String email);
     
-    List<UserResponse> getAllUsers();
+    AvailabilityResponse checkAvailability(String username, String email);
+    
+    UserPageResponse getUsers(String cursor, int limit, Boolean active, UserSortField sortField);
+    
+    /**
+     * Searches usernames, emails, first and last names for the query, ignoring case. Exact
+     * usernames and emails come first, then prefix matches, then matches anywhere, each in
+     * id order.
+     */
+    UserPageResponse searchUsers(String query, String cursor, int limit);
+    
+    /**
+     * Type-ahead over usernames and emails: those starting with the prefix, ignoring
+     * case, in alphabetical order.
+     */
+    List<UserSuggestion> suggestUsers(String prefix, int limit);
+    
+    long exportUsers(Consumer<UserResponse> consumer);
+    
+    UserResponse updateUser(Long id, UserUpdateRequest request, Long expectedVersion);
+    
+    UserResponse patchUser(Long id, UserPatchRequest patch, Long expectedVersion);
+    
+    UserResponse login(LoginRequest request);
+    
+    /**
+     * Activates or deactivates every user matching the request, in chunks that each commit
+     * on their own, so locks are only held for one chunk at a time. A failure part way
+     * leaves the earlier chunks applied; repeating the request finishes the rest.
+     */
+    UserStatusUpdateResponse updateStatus(UserStatusUpdateRequest request);
     
-    UserResponse updateUser(Long id, UserUpdateRequest request);
+    void deleteUser(Long id, Long expectedVersion);
     
-    void deleteUser(Long id);
+    /** Deactivates a user instead of removing it, keeping its username and email taken. */
+    void softDeleteUser(Long id, Long expectedVersion);
 }
\ No newline at end of file
@@ -1,100 +1,368 @@
 package com.usermanagement.api.service;
 
+import com.usermanagement.api.cache.UserCache;
+import com.usermanagement.api.datasource.DataSourceRouting;
+import com.usermanagement.api.dto.AvailabilityResponse;
+import com.usermanagement.api.dto.LoginRequest;
+import com.usermanagement.api.dto.UserBatchCreateResponse;
+import com.usermanagement.api.dto.UserBatchItemResult;
 import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserPatchRequest;
 import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSortField;
+import com.usermanagement.api.dto.UserStatusUpdateRequest;
+import com.usermanagement.api.dto.UserStatusUpdateResponse;
+import com.usermanagement.api.dto.UserSuggestion;
 import com.usermanagement.api.dto.UserUpdateRequest;
+import com.usermanagement.api.event.UserChangedEvent;
 import com.usermanagement.api.exception.UserManagementException;
+import com.usermanagement.api.index.UserSuggestIndex;
+import com.usermanagement.api.index.UserUniquenessIndex;
 import com.usermanagement.api.model.User;
 import com.usermanagement.api.repository.UserRepository;
+import com.usermanagement.api.repository.UserSearchHit;
+import com.usermanagement.api.repository.UserSearchTerms;
+import com.usermanagement.api.repository.UserStatusFilter;
+import com.usermanagement.api.repository.UserVersion;
+import com.usermanagement.api.repository.UserView;
+import com.usermanagement.api.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
+@Profile("!reactive")
 public class UserServiceImpl implements UserService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    // Shorter queries match too much of the table, and have no trigrams to look up
+    static final int MIN_SEARCH_LENGTH = 3;
+    static final int MAX_SUGGESTIONS = 50;
+    // Rows locked by one statement of a bulk status update
+    static final int STATUS_CHUNK_SIZE = 500;
+
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final UserUniquenessIndex uniquenessIndex;
+    private final UserSuggestIndex suggestIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional
     public UserResponse createUser(UserCreateRequest request) {
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw UserManagementException.conflict("Email already in use: " + request.getEmail());
-        }
+        // Hashed before the first statement, so no connection is held while it runs
+        String passwordHash = passwordHasher.hash(request.getPassword());
 
-        // Check if username already exists
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw UserManagementException.conflict("Username already in use: " + request.getUsername());
-        }
-
-        // Create new user
+        // Create new user; duplicate emails and usernames are rejected by the unique constraints
         User user = User.builder()
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .email(request.getEmail())
                 .username(request.getUsername())
-                .password(request.getPassword()) // In a real application, password should be encrypted
+                .password(passwordHash)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .active(true)
                 .build();
 
-        User savedUser = userRepository.save(user);
-        return mapToUserResponse(savedUser);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw UniqueConstraints.toConflict(ex, request.getEmail(), request.getUsername());
+        }
+        UserResponse response = mapToUserResponse(savedUser);
+        eventPublisher.publishEvent(UserChangedEvent.created(response));
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public UserBatchCreateResponse createUsers(List<UserCreateRequest> requests) {
+        // Hashed before the first statement, so no connection is held while they run;
+        // a request rejected as a conflict below costs one wasted hash
+        List<String> passwordHashes = passwordHasher.hashAll(
+                requests.stream().map(UserCreateRequest::getPassword).toList());
+
+        // Check uniqueness for the whole batch with one query per column, ignoring case
+        Set<String> takenEmails = new HashSet<>(userRepository.findExistingEmails(
+                requests.stream().map(request -> User.normalize(request.getEmail())).collect(Collectors.toSet())));
+        Set<String> takenUsernames = new HashSet<>(userRepository.findExistingUsernames(
+                requests.stream().map(request -> User.normalize(request.getUsername())).collect(Collectors.toSet())));
+
+        List<UserBatchItemResult> results = new ArrayList<>(requests.size());
+        List<User> usersToSave = new ArrayList<>(requests.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int index = 0; index < requests.size(); index++) {
+            UserCreateRequest request = requests.get(index);
+            UserBatchItemResult.UserBatchItemResultBuilder result = UserBatchItemResult.builder().index(index);
+
+            // Adding to the taken sets also catches duplicates within the batch itself
+            if (!takenEmails.add(User.normalize(request.getEmail()))) {
+                results.add(result.status(UserBatchItemResult.Status.CONFLICT)
+                        .message("Email already in use: " + request.getEmail())
+                        .build());
+                continue;
+            }
+            if (!takenUsernames.add(User.normalize(request.getUsername()))) {
+                takenEmails.remove(User.normalize(request.getEmail()));
+                results.add(result.status(UserBatchItemResult.Status.CONFLICT)
+                        .message("Username already in use: " + request.getUsername())
+                        .build());
+                continue;
+            }
+
+            usersToSave.add(User.builder()
+                    .firstName(request.getFirstName())
+                    .lastName(request.getLastName())
+                    .email(request.getEmail())
+                    .username(request.getUsername())
+                    .password(passwordHashes.get(index))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .active(true)
+                    .build());
+            results.add(result.status(UserBatchItemResult.Status.CREATED).build());
+        }
+
+        // Ids come from the pooled sequence, so the inserts go out as JDBC batches on flush
+        List<User> savedUsers;
+        try {
+            savedUsers = userRepository.saveAllAndFlush(usersToSave);
+        } catch (DataIntegrityViolationException ex) {
+            // Another request took one of the values after the batch was checked
+            throw UniqueConstraints.toConflict(ex, null, null);
+        }
+        int saved = 0;
+        for (UserBatchItemResult result : results) {
+            if (result.getStatus() == UserBatchItemResult.Status.CREATED) {
+                result.setUser(mapToUserResponse(savedUsers.get(saved++)));
+                eventPublisher.publishEvent(UserChangedEvent.created(result.getUser()));
+            }
+        }
+
+        return UserBatchCreateResponse.builder()
+                .created(savedUsers.size())
+                .conflicts(results.size() - savedUsers.size())
+                .results(results)
+                .build();
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserResponse getUserById(Long id) {
-        User user = userRepository.findById(id)
+        return userCache.getById(id, this::loadUserById);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserVersion getUserVersion(Long id) {
+        // Read from the table rather than the cache, so that a 304 never confirms a copy
+        // changed or deleted through another node; only the two columns are read
+        return userRepository.findVersionById(id)
                 .orElseThrow(() -> UserManagementException.notFound("User not found with id: " + id));
-        return mapToUserResponse(user);
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserResponse getUserByUsername(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> UserManagementException.notFound("User not found with username: " + username));
-        return mapToUserResponse(user);
+        return userCache.getByUsername(username, this::loadUserByUsername);
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserResponse getUserByEmail(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> UserManagementException.notFound("User not found with email: " + email));
-        return mapToUserResponse(user);
+        return userCache.getByEmail(email, this::loadUserByEmail);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        if (username == null && email == null) {
+            throw UserManagementException.badRequest("A username or an email is required");
+        }
+
+        AvailabilityResponse.AvailabilityResponseBuilder response = AvailabilityResponse.builder();
+        if (username != null) {
+            response.username(username)
+                    .usernameAvailable(!uniquenessIndex.mightContainUsername(username)
+                            || !userRepository.existsByNormalizedUsername(User.normalize(username)));
+        }
+        if (email != null) {
+            response.email(email)
+                    .emailAvailable(!uniquenessIndex.mightContainEmail(email)
+                            || !userRepository.existsByNormalizedEmail(User.normalize(email)));
+        }
+        return response.build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserPageResponse getUsers(String cursor, int limit, Boolean active, UserSortField sortField) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw UserManagementException.badRequest("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // Fetch one extra row to find out whether another page follows
+        Limit fetchLimit = Limit.of(limit + 1);
+        UserCursor after = cursor != null ? UserCursor.decode(cursor, sortField) : null;
+        List<UserView> users;
+        if (sortField == UserSortField.CREATED_AT) {
+            users = after == null
+                    ? userRepository.findFirstPageOrderByCreatedAt(active, fetchLimit)
+                    : userRepository.findPageOrderByCreatedAt(active, after.getCreatedAt(), after.getId(), fetchLimit);
+        } else {
+            users = userRepository.findPageOrderById(active, after == null ? 0L : after.getId(), fetchLimit);
+        }
+
+        boolean hasNext = users.size() > limit;
+        List<UserResponse> content = users.stream()
+                .limit(limit)
                 .map(this::mapToUserResponse)
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasNext) {
+            UserResponse last = content.get(content.size() - 1);
+            nextCursor = UserCursor.of(sortField, last.getId(), last.getCreatedAt()).encode();
+        }
+
+        return UserPageResponse.builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserPageResponse searchUsers(String query, String cursor, int limit) {
+        String terms = validateSearch(query, limit);
+        UserSearchCursor after = cursor != null ? UserSearchCursor.decode(cursor, terms) : null;
+        // Fetch one extra row to find out whether another page follows
+        UserSearchTerms bound = UserSearchTerms.of(terms);
+        List<UserSearchHit> hits = userRepository.search(bound.getExact(), bound.getPrefix(), bound.getContains(),
+                after == null ? -1 : after.getRank(), after == null ? 0L : after.getId(), Limit.of(limit + 1));
+
+        boolean hasNext = hits.size() > limit;
+        List<UserResponse> content = hits.stream()
+                .limit(limit)
+                .map(hit -> mapToUserResponse(hit.getUser()))
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasNext) {
+            UserSearchHit last = hits.get(limit - 1);
+            nextCursor = UserSearchCursor.of(last.getRank(), last.getUser().getId()).encode(terms);
+        }
+
+        return UserPageResponse.builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Checks the parameters of a search and returns its trimmed terms.
+     */
+    static String validateSearch(String query, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw UserManagementException.badRequest("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String terms = query != null ? query.strip() : "";
+        if (terms.length() < MIN_SEARCH_LENGTH) {
+            throw UserManagementException.badRequest("Search query must have at least " + MIN_SEARCH_LENGTH + " characters");
+        }
+        return terms;
+    }
+
+    @Override
+    public List<UserSuggestion> suggestUsers(String prefix, int limit) {
+        String terms = validateSuggest(prefix, limit);
+        if (suggestIndex.isReady()) {
+            return suggestIndex.suggest(terms, limit);
+        }
+        // Still loading at startup, or disabled
+        String pattern = UserSearchTerms.of(terms).getPrefix();
+        List<UserSuggestion> suggestions = new ArrayList<>(userRepository.findUsernameSuggestions(pattern, Limit.of(limit)));
+        suggestions.addAll(userRepository.findEmailSuggestions(pattern, Limit.of(limit)));
+        suggestions.sort(UserSuggestion.ORDER);
+        return suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions;
+    }
+
+    /**
+     * Checks the parameters of a type-ahead request and returns its trimmed prefix.
+     */
+    static String validateSuggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw UserManagementException.badRequest("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        String terms = prefix != null ? prefix.strip() : "";
+        if (terms.isEmpty()) {
+            throw UserManagementException.badRequest("A prefix is required");
+        }
+        return terms;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(Consumer<UserResponse> consumer) {
+        long startedAt = System.nanoTime();
+        long rows = 0;
+        // Views are not managed, so the persistence context does not grow with the table
+        try (Stream<UserView> users = userRepository.streamAllOrderById()) {
+            for (UserView user : (Iterable<UserView>) users::iterator) {
+                consumer.accept(mapToUserResponse(user));
+                rows++;
+            }
+        }
+
+        double seconds = Math.max(System.nanoTime() - startedAt, 1) / 1_000_000_000d;
+        log.info("Exported {} users in {} ms ({} rows/s)", rows, Math.round(seconds * 1000), Math.round(rows / seconds));
+        return rows;
     }
 
     @Override
     @Transactional
-    public UserResponse updateUser(Long id, UserUpdateRequest request) {
+    public UserResponse updateUser(Long id, UserUpdateRequest request, Long expectedVersion) {
+        // Hashed before the first statement, so no connection is held while it runs
+        String passwordHash = request.getPassword() != null ? passwordHasher.hash(request.getPassword()) : null;
+
         User user = userRepository.findById(id)
                 .orElseThrow(() -> UserManagementException.notFound("User not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw versionMismatch(id, expectedVersion);
+        }
 
-        // Update email if provided and not already in use by another user
-        if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
-            userRepository.findByEmail(request.getEmail())
-                    .ifPresent(existingUser -> {
-                        if (!existingUser.getId().equals(id)) {
-                            throw UserManagementException.conflict("Email already in use: " + request.getEmail());
-                        }
-                    });
+        // Update email if provided; the unique constraint rejects one already in use by another user
+        if (request.getEmail() != null) {
             user.setEmail(request.getEmail());
         }
 
@@ -107,8 +375,8 @@ public class UserServiceImpl implements UserService {
             user.setLastName(request.getLastName());
         }
 
-        if (request.getPassword() != null) {
-            user.setPassword(request.getPassword()); // In a real application, password should be encrypted
+        if (passwordHash != null) {
+            user.setPassword(passwordHash);
         }
 
         if (request.getActive() != null) {
@@ -116,20 +384,202 @@ public class UserServiceImpl implements UserService {
         }
 
         user.setUpdatedAt(LocalDateTime.now());
-        User updatedUser = userRepository.save(user);
-        return mapToUserResponse(updatedUser);
+
+        // The entity is managed, so flushing writes the changes without another select;
+        // the UPDATE only matches the version read above, so a concurrent write is detected
+        try {
+            userRepository.flush();
+        } catch (DataIntegrityViolationException ex) {
+            throw UniqueConstraints.toConflict(ex, request.getEmail(), null);
+        } catch (OptimisticLockingFailureException ex) {
+            throw expectedVersion != null
+                    ? versionMismatch(id, expectedVersion)
+                    : UserManagementException.conflict("User with id " + id + " was modified concurrently, retry the update");
+        }
+        UserResponse response = mapToUserResponse(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(response));
+        return response;
     }
 
     @Override
     @Transactional
-    public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw UserManagementException.notFound("User not found with id: " + id);
+    public UserResponse patchUser(Long id, UserPatchRequest patch, Long expectedVersion) {
+        // Hashed before the first statement, so no connection is held while it runs
+        String passwordHash = patch.getPassword() != null ? passwordHasher.hash(patch.getPassword()) : null;
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        putIfPresent(attributes, "firstName", patch.getFirstName());
+        putIfPresent(attributes, "lastName", patch.getLastName());
+        putIfPresent(attributes, "email", patch.getEmail());
+        putIfPresent(attributes, "normalizedEmail", User.normalize(patch.getEmail()));
+        putIfPresent(attributes, "password", passwordHash);
+        putIfPresent(attributes, "active", patch.getActive());
+        attributes.put("updatedAt", LocalDateTime.now());
+
+        // Only the patched columns are written, and the row is not read until it has been;
+        // a taken email is rejected by the unique constraint
+        int updated;
+        try {
+            updated = userRepository.patchById(id, expectedVersion, attributes);
+        } catch (DataIntegrityViolationException ex) {
+            throw UniqueConstraints.toConflict(ex, patch.getEmail(), null);
+        }
+        if (updated == 0) {
+            throw notFoundOrVersionMismatch(id, expectedVersion);
         }
-        userRepository.deleteById(id);
+
+        UserResponse response = loadUserById(id);
+        eventPublisher.publishEvent(UserChangedEvent.updated(response));
+        return response;
+    }
+
+    @Override
+    public UserResponse login(LoginRequest request) {
+        // Not transactional, so no connection is held while the password is verified. Read
+        // from the primary, since a lagging replica may still hold a password or status that
+        // has since been changed
+        Optional<User> user;
+        try (DataSourceRouting.Scope ignored = DataSourceRouting.primary()) {
+            user = userRepository.findByNormalizedUsername(User.normalize(request.getUsername()));
+        }
+        String storedPassword = user.map(User::getPassword).orElse(null);
+        if (!passwordHasher.matches(request.getPassword(), storedPassword) || !user.get().isActive()) {
+            throw UserManagementException.unauthorized("Invalid username or password");
+        }
+
+        // Upgrade plain-text passwords and hashes made with a lower work factor
+        if (passwordHasher.needsRehash(storedPassword)) {
+            Long id = user.get().getId();
+            String newPassword = passwordHasher.hash(request.getPassword());
+            // The upgrade moves the version on, so the row is returned as it now is
+            UserResponse upgraded = transactionTemplate.execute(status -> {
+                if (userRepository.replacePassword(id, storedPassword, newPassword, LocalDateTime.now()) == 0) {
+                    return null;
+                }
+                UserResponse response = loadUserById(id);
+                eventPublisher.publishEvent(UserChangedEvent.updated(response));
+                return response;
+            });
+            if (upgraded != null) {
+                return upgraded;
+            }
+        }
+        return mapToUserResponse(user.get());
+    }
+
+    @Override
+    @Transactional
+    public void deleteUser(Long id, Long expectedVersion) {
+        int deleted = expectedVersion == null
+                ? userRepository.deleteUserById(id)
+                : userRepository.deleteUserByIdAndVersion(id, expectedVersion);
+        if (deleted == 0) {
+            throw notFoundOrVersionMismatch(id, expectedVersion);
+        }
+        eventPublisher.publishEvent(UserChangedEvent.deleted(id));
+    }
+
+    @Override
+    @Transactional
+    public void softDeleteUser(Long id, Long expectedVersion) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("active", false);
+        attributes.put("updatedAt", LocalDateTime.now());
+        if (userRepository.patchById(id, expectedVersion, attributes) == 0) {
+            throw notFoundOrVersionMismatch(id, expectedVersion);
+        }
+        eventPublisher.publishEvent(UserChangedEvent.updated(id));
+    }
+
+    @Override
+    public UserStatusUpdateResponse updateStatus(UserStatusUpdateRequest request) {
+        UserStatusFilter filter = validateStatusUpdate(request);
+        boolean active = request.getActive();
+        long[] updated = new long[1];
+        long afterId = 0;
+        List<Long> chunk;
+        do {
+            // Each chunk is its own transaction, and its events are handled once it commits
+            long from = afterId;
+            chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = userRepository.findIdsForStatusUpdate(filter, active, from, Limit.of(STATUS_CHUNK_SIZE));
+                if (!ids.isEmpty()) {
+                    updated[0] += userRepository.updateStatus(ids, filter, active, LocalDateTime.now());
+                    ids.forEach(id -> eventPublisher.publishEvent(UserChangedEvent.updated(id)));
+                }
+                return ids;
+            });
+            afterId = chunk.isEmpty() ? afterId : chunk.get(chunk.size() - 1);
+        } while (chunk.size() == STATUS_CHUNK_SIZE);
+
+        log.info("Set active={} on {} users", active, updated[0]);
+        return UserStatusUpdateResponse.builder()
+                .updated(updated[0])
+                .build();
+    }
+
+    /**
+     * Checks that a bulk status update names at least one criterion, and returns them.
+     */
+    static UserStatusFilter validateStatusUpdate(UserStatusUpdateRequest request) {
+        UserStatusFilter filter = UserStatusFilter.of(request.getIds(), request.getCreatedBefore(), request.getEmailDomain());
+        if (filter.isEmpty()) {
+            throw UserManagementException.badRequest("At least one of ids, createdBefore or emailDomain is required");
+        }
+        return filter;
+    }
+
+    private UserManagementException notFoundOrVersionMismatch(Long id, Long expectedVersion) {
+        // Only looked into once a conditional write has matched no row
+        if (expectedVersion != null && userRepository.existsById(id)) {
+            return versionMismatch(id, expectedVersion);
+        }
+        return UserManagementException.notFound("User not found with id: " + id);
+    }
+
+    private static UserManagementException versionMismatch(Long id, Long expectedVersion) {
+        return UserManagementException.preconditionFailed("User with id " + id + " has changed since version " + expectedVersion);
+    }
+
+    private static void putIfPresent(Map<String, Object> attributes, String attribute, Object value) {
+        if (value != null) {
+            attributes.put(attribute, value);
+        }
+    }
+
+    private UserResponse loadUserById(Long id) {
+        UserView user = userRepository.findViewById(id)
+                .orElseThrow(() -> UserManagementException.notFound("User not found with id: " + id));
+        return mapToUserResponse(user);
+    }
+
+    private UserResponse loadUserByUsername(String username) {
+        UserView user = userRepository.findViewByNormalizedUsername(User.normalize(username))
+                .orElseThrow(() -> UserManagementException.notFound("User not found with username: " + username));
+        return mapToUserResponse(user);
+    }
+
+    private UserResponse loadUserByEmail(String email) {
+        UserView user = userRepository.findViewByNormalizedEmail(User.normalize(email))
+                .orElseThrow(() -> UserManagementException.notFound("User not found with email: " + email));
+        return mapToUserResponse(user);
+    }
+
+    UserResponse mapToUserResponse(User user) {
+        return UserResponse.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .username(user.getUsername())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .active(user.isActive())
+                .version(user.getVersion())
+                .build();
     }
 
-    private UserResponse mapToUserResponse(User user) {
+    UserResponse mapToUserResponse(UserView user) {
         return UserResponse.builder()
                 .id(user.getId())
                 .firstName(user.getFirstName())
@@ -139,6 +589,7 @@ public class UserServiceImpl implements UserService {
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt())
                 .active(user.isActive())
+                .version(user.getVersion())
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.usermanagement.api.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the API scenarios against the WebFlux and R2DBC stack, backed by an in-memory H2
+ * database.
+ */
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.sql.init.schema-locations=classpath:users-schema.sql"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles({"test", "reactive"})
+public class ReactiveUserIntegrationTest extends AbstractUserApiIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("delete from users").then().block();
+        databaseClient.sql("delete from user_outbox").then().block();
+    }
+
+    @Override
+    protected ApiResponse exchange(HttpMethod method, String uri, HttpHeaders headers, String body) {
+        WebTestClient.RequestBodySpec request = webTestClient.method(method)
+                .uri(uri)
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        WebTestClient.ResponseSpec response = body != null ? request.bodyValue(body).exchange() : request.exchange();
+        EntityExchangeResult<byte[]> result = response.expectBody().returnResult();
+        byte[] content = result.getResponseBody();
+        return new ApiResponse(result.getStatus().value(), result.getResponseHeaders(),
+                content != null ? new String(content, StandardCharsets.UTF_8) : "");
+    }
+
+    @Override
+    protected List<Map<String, Object>> queryForList(String sql) {
+        return databaseClient.sql(sql).fetch().all().collectList().block();
+    }
+}
@@ -0,0 +1,165 @@
+package com.usermanagement.api.controller;
+
+import com.usermanagement.api.dto.AvailabilityResponse;
+import com.usermanagement.api.dto.LoginRequest;
+import com.usermanagement.api.dto.UserBatchCreateRequest;
+import com.usermanagement.api.dto.UserBatchCreateResponse;
+import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserPatchRequest;
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSortField;
+import com.usermanagement.api.dto.UserStatusUpdateRequest;
+import com.usermanagement.api.dto.UserStatusUpdateResponse;
+import com.usermanagement.api.dto.UserSuggestion;
+import com.usermanagement.api.dto.UserUpdateRequest;
+import com.usermanagement.api.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * WebFlux equivalent of {@link UserController}, serving the same API from the
+ * {@code reactive} profile.
+ */
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+@Profile("reactive")
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @PostMapping
+    public Mono<ResponseEntity<UserResponse>> createUser(@Valid @RequestBody UserCreateRequest request) {
+        return userService.createUser(request)
+                .map(createdUser -> new ResponseEntity<>(createdUser, HttpStatus.CREATED));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<UserBatchCreateResponse>> createUsers(@Valid @RequestBody UserBatchCreateRequest request) {
+        return userService.createUsers(request.getUsers())
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/batch/status")
+    public Mono<ResponseEntity<UserStatusUpdateResponse>> updateStatus(@Valid @RequestBody UserStatusUpdateRequest request) {
+        return userService.updateStatus(request)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<UserResponse>> login(@Valid @RequestBody LoginRequest request) {
+        return userService.login(request)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<UserResponse>> getUserById(@PathVariable Long id, ServerWebExchange exchange) {
+        return userService.getUserById(id)
+                .map(user -> conditionalOk(user, exchange));
+    }
+
+    @GetMapping("/username/{username}")
+    public Mono<ResponseEntity<UserResponse>> getUserByUsername(@PathVariable String username, ServerWebExchange exchange) {
+        return userService.getUserByUsername(username)
+                .map(user -> conditionalOk(user, exchange));
+    }
+
+    @GetMapping("/email/{email}")
+    public Mono<ResponseEntity<UserResponse>> getUserByEmail(@PathVariable String email, ServerWebExchange exchange) {
+        return userService.getUserByEmail(email)
+                .map(user -> conditionalOk(user, exchange));
+    }
+
+    @GetMapping("/availability")
+    public Mono<ResponseEntity<AvailabilityResponse>> checkAvailability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        return userService.checkAvailability(username, email)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<UserPageResponse>> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(defaultValue = "id") String sort,
+            ServerWebExchange exchange) {
+        return Mono.fromSupplier(() -> UserSortField.fromValue(sort))
+                .flatMap(sortField -> userService.getUsers(cursor, limit, active, sortField))
+                .map(page -> exchange.checkNotModified(UserETags.of(page))
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).<UserPageResponse>build()
+                        : ResponseEntity.ok(page));
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<UserPageResponse>> searchUsers(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return userService.searchUsers(q, cursor, limit)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/suggest")
+    public Mono<ResponseEntity<List<UserSuggestion>>> suggestUsers(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return userService.suggestUsers(prefix, limit)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/export", produces = UserController.APPLICATION_NDJSON_VALUE)
+    public Flux<UserResponse> exportUsers() {
+        // Written one line per user, and only as fast as the client reads them
+        return userService.exportUsers();
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<UserResponse>> updateUser(
+            @PathVariable Long id,
+            @Valid @RequestBody UserUpdateRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.updateUser(id, request, UserETags.expectedVersion(id, ifMatch))
+                .map(user -> ResponseEntity.ok().eTag(UserETags.of(user)).body(user));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = UserController.APPLICATION_MERGE_PATCH_JSON_VALUE)
+    public Mono<ResponseEntity<UserResponse>> patchUser(
+            @PathVariable Long id,
+            @Valid @RequestBody UserPatchRequest patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.patchUser(id, patch, UserETags.expectedVersion(id, ifMatch))
+                .map(user -> ResponseEntity.ok().eTag(UserETags.of(user)).body(user));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUser(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean soft,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = UserETags.expectedVersion(id, ifMatch);
+        return (soft ? userService.softDeleteUser(id, expectedVersion) : userService.deleteUser(id, expectedVersion))
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    private static ResponseEntity<UserResponse> conditionalOk(UserResponse user, ServerWebExchange exchange) {
+        // Sets the ETag and Last-Modified headers, and answers 304 when they match
+        if (exchange.checkNotModified(UserETags.of(user), Instant.ofEpochMilli(UserETags.lastModified(user.getUpdatedAt())))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(user);
+    }
+}
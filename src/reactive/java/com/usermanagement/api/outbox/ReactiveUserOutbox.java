@@ -0,0 +1,80 @@
+package com.usermanagement.api.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.api.event.UserChangedEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Records the user changes made through the reactive stack in the outbox table, as
+ * {@link UserOutbox} does for the JPA stack. Callers run it inside the R2DBC transaction
+ * that makes the change, so a change is recorded if and only if it commits.
+ * <p>
+ * The reactive profile runs no {@link UserOutboxPublisher}: the entries are drained by
+ * the nodes running the servlet stack against the same database. A deployment made only
+ * of reactive nodes should turn {@code user.outbox.enabled} off, or the table grows
+ * without bound.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveUserOutbox {
+
+    // Each call reserves a block of the pooled sequence, so ids never collide with JPA writers
+    private static final String INSERT_ENTRY =
+            "insert into user_outbox (id, type, user_id, payload, created_at) " +
+            "values (nextval('user_outbox_seq'), :type, :userId, :payload, :createdAt)";
+
+    private static final String INSERT_UPDATED_ENTRIES =
+            "insert into user_outbox (id, type, user_id, payload, created_at) " +
+            "select nextval('user_outbox_seq'), :type, id, null, :createdAt from users where id in (:userIds)";
+
+    private final DatabaseClient databaseClient;
+    private final UserOutboxProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveUserOutbox(DatabaseClient databaseClient, UserOutboxProperties properties, ObjectMapper objectMapper) {
+        this.databaseClient = databaseClient;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    public Mono<Void> record(UserChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            String payload = event.getUser() != null ? toJson(event) : null;
+            DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_ENTRY)
+                    .bind("type", event.getType().name())
+                    .bind("userId", event.getUserId())
+                    .bind("createdAt", LocalDateTime.now());
+            return (payload != null ? insert.bind("payload", payload) : insert.bindNull("payload", String.class)).then();
+        });
+    }
+
+    /** Records an update without the user, such as a bulk status change, of each user with one statement. */
+    public Mono<Void> recordUpdated(List<Long> userIds) {
+        if (!properties.isEnabled() || userIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(INSERT_UPDATED_ENTRIES)
+                .bind("type", UserChangedEvent.Type.UPDATED.name())
+                .bind("createdAt", LocalDateTime.now())
+                .bind("userIds", userIds)
+                .then();
+    }
+
+    private String toJson(UserChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event.getUser());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize user " + event.getUserId(), ex);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.usermanagement.api.service;
+
+import com.usermanagement.api.dto.AvailabilityResponse;
+import com.usermanagement.api.dto.LoginRequest;
+import com.usermanagement.api.dto.UserBatchCreateResponse;
+import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserPatchRequest;
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSortField;
+import com.usermanagement.api.dto.UserStatusUpdateRequest;
+import com.usermanagement.api.dto.UserStatusUpdateResponse;
+import com.usermanagement.api.dto.UserSuggestion;
+import com.usermanagement.api.dto.UserUpdateRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link UserService}, served by the {@code reactive} profile.
+ */
+public interface ReactiveUserService {
+
+    Mono<UserResponse> createUser(UserCreateRequest request);
+    
+    Mono<UserBatchCreateResponse> createUsers(List<UserCreateRequest> requests);
+    
+    Mono<UserResponse> getUserById(Long id);
+    
+    Mono<UserResponse> getUserByUsername(String username);
+    
+    Mono<UserResponse> getUserByEmail(String email);
+    
+    Mono<AvailabilityResponse> checkAvailability(String username, String email);
+    
+    Mono<UserPageResponse> getUsers(String cursor, int limit, Boolean active, UserSortField sortField);
+    
+    Mono<UserPageResponse> searchUsers(String query, String cursor, int limit);
+    
+    Mono<List<UserSuggestion>> suggestUsers(String prefix, int limit);
+    
+    Flux<UserResponse> exportUsers();
+    
+    Mono<UserResponse> updateUser(Long id, UserUpdateRequest request, Long expectedVersion);
+    
+    Mono<UserResponse> patchUser(Long id, UserPatchRequest patch, Long expectedVersion);
+    
+    Mono<UserResponse> login(LoginRequest request);
+    
+    Mono<UserStatusUpdateResponse> updateStatus(UserStatusUpdateRequest request);
+    
+    Mono<Void> deleteUser(Long id, Long expectedVersion);
+    
+    Mono<Void> softDeleteUser(Long id, Long expectedVersion);
+}
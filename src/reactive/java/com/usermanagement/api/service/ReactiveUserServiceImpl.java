@@ -0,0 +1,701 @@
+package com.usermanagement.api.service;
+
+import com.usermanagement.api.dto.AvailabilityResponse;
+import com.usermanagement.api.dto.LoginRequest;
+import com.usermanagement.api.dto.UserBatchCreateResponse;
+import com.usermanagement.api.dto.UserBatchItemResult;
+import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserPatchRequest;
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSortField;
+import com.usermanagement.api.dto.UserStatusUpdateRequest;
+import com.usermanagement.api.dto.UserStatusUpdateResponse;
+import com.usermanagement.api.dto.UserSuggestion;
+import com.usermanagement.api.dto.UserUpdateRequest;
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.exception.UserManagementException;
+import com.usermanagement.api.model.User;
+import com.usermanagement.api.outbox.ReactiveUserOutbox;
+import com.usermanagement.api.repository.UserSearchHit;
+import com.usermanagement.api.repository.UserSearchTerms;
+import com.usermanagement.api.repository.UserStatusFilter;
+import com.usermanagement.api.security.PasswordHasher;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * R2DBC implementation of {@link ReactiveUserService}, written against the schema the JPA
+ * mapping of {@link com.usermanagement.api.model.User} creates.
+ * <p>
+ * Transactions are applied with a {@link TransactionalOperator} rather than
+ * {@code @Transactional}, so that change events are published once the transaction has
+ * committed, as the blocking service does. Every write also records its change in the
+ * outbox within the same transaction, see {@link ReactiveUserOutbox}. Passwords are hashed on the
+ * {@link PasswordHasher} pool before a transaction is started, never on an event loop.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String SELECT_USERS =
+            "select id, first_name, last_name, email, username, created_at, updated_at, active, version from users";
+
+    private static final String SELECT_USERS_WITH_PASSWORD =
+            "select id, first_name, last_name, email, username, created_at, updated_at, active, version, password from users";
+
+    // Same matching and ranking as the JPA search, see UserRepository#search; the rank is
+    // computed once in the inner query so the keyset condition can refer to it
+    private static final String SEARCH_USERS =
+            "select * from (" +
+            "select id, first_name, last_name, email, username, created_at, updated_at, active, version, " +
+            "case when normalized_username = :query or normalized_email = :query then " + UserSearchHit.EXACT + " " +
+            "when normalized_username like :prefix escape '!' or normalized_email like :prefix escape '!' " +
+            "or lower(first_name) like :prefix escape '!' or lower(last_name) like :prefix escape '!' " +
+            "then " + UserSearchHit.PREFIX + " " +
+            "else " + UserSearchHit.SUBSTRING + " end as search_rank " +
+            "from users " +
+            "where normalized_username like :contains escape '!' or normalized_email like :contains escape '!' " +
+            "or lower(first_name) like :contains escape '!' or lower(last_name) like :contains escape '!'" +
+            ") hits " +
+            "where search_rank > :afterRank or (search_rank = :afterRank and id > :afterId) " +
+            "order by search_rank, id limit :limit";
+
+    // Same matching as the JPA fallback of the suggest index, see UserRepository#findUsernameSuggestions
+    private static final String SUGGEST_USERNAMES =
+            "select id, normalized_username as suggestion from users where normalized_username like :prefix escape '!' " +
+            "order by normalized_username limit :limit";
+
+    private static final String SUGGEST_EMAILS =
+            "select id, normalized_email as suggestion from users where normalized_email like :prefix escape '!' " +
+            "order by normalized_email limit :limit";
+
+    // Each call reserves a block of the pooled sequence, so ids never collide with JPA writers
+    private static final String INSERT_USER =
+            "insert into users (id, first_name, last_name, email, username, normalized_email, normalized_username, " +
+            "password, created_at, updated_at, active, version) " +
+            "values (nextval('users_seq'), :firstName, :lastName, :email, :username, :normalizedEmail, :normalizedUsername, " +
+            ":password, :createdAt, :updatedAt, true, 0)";
+
+    private final DatabaseClient databaseClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionalOperator transaction;
+    private final TransactionalOperator readOnlyTransaction;
+    private final PasswordHasher passwordHasher;
+    private final ReactiveUserOutbox outbox;
+
+    public ReactiveUserServiceImpl(DatabaseClient databaseClient,
+                                   ReactiveTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PasswordHasher passwordHasher,
+                                   ReactiveUserOutbox outbox) {
+        this.databaseClient = databaseClient;
+        this.eventPublisher = eventPublisher;
+        this.passwordHasher = passwordHasher;
+        this.outbox = outbox;
+        this.transaction = TransactionalOperator.create(transactionManager);
+        DefaultTransactionDefinition readOnly = new DefaultTransactionDefinition();
+        readOnly.setReadOnly(true);
+        this.readOnlyTransaction = TransactionalOperator.create(transactionManager, readOnly);
+    }
+
+    @Override
+    public Mono<UserResponse> createUser(UserCreateRequest request) {
+        // Duplicate emails and usernames are rejected by the unique constraints
+        return hash(request.getPassword())
+                .flatMap(passwordHash -> insertUser(request, passwordHash, LocalDateTime.now())
+                        .as(transaction::transactional))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        ex -> UniqueConstraints.toConflict(ex, request.getEmail(), request.getUsername()))
+                .doOnNext(user -> eventPublisher.publishEvent(UserChangedEvent.created(user)));
+    }
+
+    @Override
+    public Mono<UserBatchCreateResponse> createUsers(List<UserCreateRequest> requests) {
+        Set<String> emails = requests.stream().map(request -> User.normalize(request.getEmail())).collect(Collectors.toSet());
+        Set<String> usernames = requests.stream().map(request -> User.normalize(request.getUsername())).collect(Collectors.toSet());
+
+        // Hash first, as many at a time as the hashing pool runs; a conflicting request costs a wasted hash
+        return Flux.fromIterable(requests)
+                .flatMapSequential(request -> hash(request.getPassword()), passwordHasher.getConcurrency())
+                .collectList()
+                // Check uniqueness for the whole batch with one query per column, ignoring case
+                .flatMap(passwordHashes -> findExisting("normalized_email", emails)
+                        .zipWith(findExisting("normalized_username", usernames))
+                        .flatMap(taken -> insertBatch(requests, passwordHashes, taken.getT1(), taken.getT2()))
+                        .as(transaction::transactional))
+                // Another request took one of the values after the batch was checked
+                .onErrorMap(DataIntegrityViolationException.class, ex -> UniqueConstraints.toConflict(ex, null, null))
+                .doOnNext(response -> response.getResults().stream()
+                        .filter(result -> result.getStatus() == UserBatchItemResult.Status.CREATED)
+                        .forEach(result -> eventPublisher.publishEvent(UserChangedEvent.created(result.getUser()))));
+    }
+
+    @Override
+    public Mono<UserResponse> getUserById(Long id) {
+        return databaseClient.sql(SELECT_USERS + " where id = :id")
+                .bind("id", id)
+                .map(this::mapToUserResponse)
+                .one()
+                .switchIfEmpty(Mono.error(() -> UserManagementException.notFound("User not found with id: " + id)));
+    }
+
+    @Override
+    public Mono<UserResponse> getUserByUsername(String username) {
+        return databaseClient.sql(SELECT_USERS + " where normalized_username = :username")
+                .bind("username", User.normalize(username))
+                .map(this::mapToUserResponse)
+                .one()
+                .switchIfEmpty(Mono.error(() -> UserManagementException.notFound("User not found with username: " + username)));
+    }
+
+    @Override
+    public Mono<UserResponse> getUserByEmail(String email) {
+        return databaseClient.sql(SELECT_USERS + " where normalized_email = :email")
+                .bind("email", User.normalize(email))
+                .map(this::mapToUserResponse)
+                .one()
+                .switchIfEmpty(Mono.error(() -> UserManagementException.notFound("User not found with email: " + email)));
+    }
+
+    @Override
+    public Mono<AvailabilityResponse> checkAvailability(String username, String email) {
+        if (username == null && email == null) {
+            return Mono.error(UserManagementException.badRequest("A username or an email is required"));
+        }
+
+        Mono<Boolean> usernameTaken = username != null ? exists("normalized_username", User.normalize(username)) : Mono.just(false);
+        Mono<Boolean> emailTaken = email != null ? exists("normalized_email", User.normalize(email)) : Mono.just(false);
+        return usernameTaken.zipWith(emailTaken, (usernameInUse, emailInUse) -> {
+            AvailabilityResponse.AvailabilityResponseBuilder response = AvailabilityResponse.builder();
+            if (username != null) {
+                response.username(username).usernameAvailable(!usernameInUse);
+            }
+            if (email != null) {
+                response.email(email).emailAvailable(!emailInUse);
+            }
+            return response.build();
+        });
+    }
+
+    @Override
+    public Mono<UserPageResponse> getUsers(String cursor, int limit, Boolean active, UserSortField sortField) {
+        if (limit < 1 || limit > UserServiceImpl.MAX_PAGE_SIZE) {
+            return Mono.error(UserManagementException.badRequest("Limit must be between 1 and " + UserServiceImpl.MAX_PAGE_SIZE));
+        }
+
+        return Mono.defer(() -> {
+            UserCursor after = cursor != null ? UserCursor.decode(cursor, sortField) : null;
+            StringBuilder sql = new StringBuilder(SELECT_USERS).append(" where true");
+            Map<String, Object> parameters = new HashMap<>();
+            if (active != null) {
+                sql.append(" and active = :active");
+                parameters.put("active", active);
+            }
+            if (sortField == UserSortField.CREATED_AT) {
+                if (after != null) {
+                    sql.append(" and (created_at > :afterCreatedAt or (created_at = :afterCreatedAt and id > :afterId))");
+                    parameters.put("afterCreatedAt", after.getCreatedAt());
+                    parameters.put("afterId", after.getId());
+                }
+                sql.append(" order by created_at, id");
+            } else {
+                if (after != null) {
+                    sql.append(" and id > :afterId");
+                    parameters.put("afterId", after.getId());
+                }
+                sql.append(" order by id");
+            }
+            // Fetch one extra row to find out whether another page follows
+            sql.append(" limit :limit");
+            parameters.put("limit", limit + 1);
+
+            return databaseClient.sql(sql.toString())
+                    .bindValues(parameters)
+                    .map(this::mapToUserResponse)
+                    .all()
+                    .collectList()
+                    .map(users -> toPage(users, limit, sortField));
+        });
+    }
+
+    @Override
+    public Mono<UserPageResponse> searchUsers(String query, String cursor, int limit) {
+        return Mono.defer(() -> {
+            String terms = UserServiceImpl.validateSearch(query, limit);
+            UserSearchCursor after = cursor != null ? UserSearchCursor.decode(cursor, terms) : null;
+            UserSearchTerms patterns = UserSearchTerms.of(terms);
+            return databaseClient.sql(SEARCH_USERS)
+                    .bind("query", patterns.getExact())
+                    .bind("prefix", patterns.getPrefix())
+                    .bind("contains", patterns.getContains())
+                    .bind("afterRank", after == null ? -1 : after.getRank())
+                    .bind("afterId", after == null ? 0L : after.getId())
+                    // Fetch one extra row to find out whether another page follows
+                    .bind("limit", limit + 1)
+                    .map(row -> Tuples.of(row.get("search_rank", Integer.class), mapToUserResponse(row)))
+                    .all()
+                    .collectList()
+                    .map(hits -> {
+                        boolean hasNext = hits.size() > limit;
+                        List<UserResponse> content = hits.stream().limit(limit).map(Tuple2::getT2).toList();
+                        String nextCursor = null;
+                        if (hasNext) {
+                            Tuple2<Integer, UserResponse> last = hits.get(limit - 1);
+                            nextCursor = UserSearchCursor.of(last.getT1(), last.getT2().getId()).encode(terms);
+                        }
+                        return UserPageResponse.builder()
+                                .content(content)
+                                .size(content.size())
+                                .hasNext(hasNext)
+                                .nextCursor(nextCursor)
+                                .build();
+                    });
+        });
+    }
+
+    @Override
+    public Mono<List<UserSuggestion>> suggestUsers(String prefix, int limit) {
+        return Mono.defer(() -> {
+            String pattern = UserSearchTerms.of(UserServiceImpl.validateSuggest(prefix, limit)).getPrefix();
+            return suggest(SUGGEST_USERNAMES, UserSuggestion.USERNAME, pattern, limit)
+                    .concatWith(suggest(SUGGEST_EMAILS, UserSuggestion.EMAIL, pattern, limit))
+                    .sort(UserSuggestion.ORDER)
+                    .take(limit)
+                    .collectList();
+        });
+    }
+
+    private Flux<UserSuggestion> suggest(String sql, String field, String pattern, int limit) {
+        return databaseClient.sql(sql)
+                .bind("prefix", pattern)
+                .bind("limit", limit)
+                .map(row -> new UserSuggestion(row.get("id", Long.class), field, row.get("suggestion", String.class)))
+                .all();
+    }
+
+    @Override
+    public Flux<UserResponse> exportUsers() {
+        AtomicLong rows = new AtomicLong();
+        long startedAt = System.nanoTime();
+        // Rows are fetched in chunks as the subscriber requests them, so a slow client slows the cursor down
+        return databaseClient.sql(SELECT_USERS + " order by id")
+                .filter(statement -> statement.fetchSize(EXPORT_FETCH_SIZE))
+                .map(this::mapToUserResponse)
+                .all()
+                .doOnNext(user -> rows.incrementAndGet())
+                .as(readOnlyTransaction::transactional)
+                .doOnComplete(() -> {
+                    double seconds = Math.max(System.nanoTime() - startedAt, 1) / 1_000_000_000d;
+                    log.info("Exported {} users in {} ms ({} rows/s)",
+                            rows.get(), Math.round(seconds * 1000), Math.round(rows.get() / seconds));
+                });
+    }
+
+    @Override
+    public Mono<UserResponse> updateUser(Long id, UserUpdateRequest request, Long expectedVersion) {
+        Mono<Optional<String>> passwordHash = request.getPassword() != null
+                ? hash(request.getPassword()).map(Optional::of)
+                : Mono.just(Optional.empty());
+        return passwordHash
+                .flatMap(hash -> getUserById(id)
+                        .flatMap(user -> expectedVersion != null && !expectedVersion.equals(user.getVersion())
+                                ? Mono.error(versionMismatch(id, expectedVersion))
+                                : applyUpdate(user, request, hash.orElse(null)))
+                        .flatMap(user -> recordChange(UserChangedEvent.updated(user), user))
+                        .as(transaction::transactional))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        ex -> UniqueConstraints.toConflict(ex, request.getEmail(), null))
+                .doOnNext(user -> eventPublisher.publishEvent(UserChangedEvent.updated(user)));
+    }
+
+    @Override
+    public Mono<UserResponse> patchUser(Long id, UserPatchRequest patch, Long expectedVersion) {
+        Mono<Optional<String>> passwordHash = patch.getPassword() != null
+                ? hash(patch.getPassword()).map(Optional::of)
+                : Mono.just(Optional.empty());
+        return passwordHash
+                .flatMap(hash -> {
+                    Map<String, Object> columns = new LinkedHashMap<>();
+                    putIfPresent(columns, "first_name", patch.getFirstName());
+                    putIfPresent(columns, "last_name", patch.getLastName());
+                    putIfPresent(columns, "email", patch.getEmail());
+                    putIfPresent(columns, "normalized_email", User.normalize(patch.getEmail()));
+                    putIfPresent(columns, "password", hash.orElse(null));
+                    putIfPresent(columns, "active", patch.getActive());
+                    columns.put("updated_at", LocalDateTime.now());
+                    // Only the patched columns are written, and the row is not read until it has been
+                    return updateColumns(id, expectedVersion, columns)
+                            .flatMap(updated -> updated == 0
+                                    ? notFoundOrVersionMismatch(id, expectedVersion)
+                                    : getUserById(id))
+                            .flatMap(user -> recordChange(UserChangedEvent.updated(user), user));
+                })
+                .as(transaction::transactional)
+                .onErrorMap(DataIntegrityViolationException.class,
+                        ex -> UniqueConstraints.toConflict(ex, patch.getEmail(), null))
+                .doOnNext(user -> eventPublisher.publishEvent(UserChangedEvent.updated(user)));
+    }
+
+    @Override
+    public Mono<UserResponse> login(LoginRequest request) {
+        return databaseClient.sql(SELECT_USERS_WITH_PASSWORD + " where normalized_username = :username")
+                .bind("username", User.normalize(request.getUsername()))
+                .map(row -> Tuples.of(mapToUserResponse(row), row.get("password", String.class)))
+                .one()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(user -> {
+                    String storedPassword = user.map(Tuple2::getT2).orElse(null);
+                    return Mono.fromFuture(() -> passwordHasher.matchesAsync(request.getPassword(), storedPassword))
+                            .flatMap(matches -> matches && user.get().getT1().isActive()
+                                    ? upgradePassword(user.get().getT1(), storedPassword, request.getPassword())
+                                    : Mono.error(UserManagementException.unauthorized("Invalid username or password")));
+                });
+    }
+
+    @Override
+    public Mono<Void> deleteUser(Long id, Long expectedVersion) {
+        DatabaseClient.GenericExecuteSpec delete = expectedVersion == null
+                ? databaseClient.sql("delete from users where id = :id")
+                : databaseClient.sql("delete from users where id = :id and version = :version").bind("version", expectedVersion);
+        return delete
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(deleted -> deleted == 0
+                        ? notFoundOrVersionMismatch(id, expectedVersion).then()
+                        : outbox.record(UserChangedEvent.deleted(id)))
+                .as(transaction::transactional)
+                .doOnSuccess(ignored -> eventPublisher.publishEvent(UserChangedEvent.deleted(id)));
+    }
+
+    @Override
+    public Mono<Void> softDeleteUser(Long id, Long expectedVersion) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("active", false);
+        columns.put("updated_at", LocalDateTime.now());
+        return updateColumns(id, expectedVersion, columns)
+                .flatMap(updated -> updated == 0
+                        ? notFoundOrVersionMismatch(id, expectedVersion).then()
+                        : outbox.record(UserChangedEvent.updated(id)))
+                .as(transaction::transactional)
+                .doOnSuccess(ignored -> eventPublisher.publishEvent(UserChangedEvent.updated(id)));
+    }
+
+    @Override
+    public Mono<UserStatusUpdateResponse> updateStatus(UserStatusUpdateRequest request) {
+        return Mono.defer(() -> {
+            UserStatusFilter filter = UserServiceImpl.validateStatusUpdate(request);
+            boolean active = request.getActive();
+            // Same chunking as the blocking service: each chunk commits before the next is selected
+            return updateStatusChunk(filter, active, 0L)
+                    .expand(chunk -> chunk.getT1().size() < UserServiceImpl.STATUS_CHUNK_SIZE
+                            ? Mono.empty()
+                            : updateStatusChunk(filter, active, chunk.getT1().get(chunk.getT1().size() - 1)))
+                    .map(Tuple2::getT2)
+                    .reduce(0L, Long::sum)
+                    .map(updated -> UserStatusUpdateResponse.builder().updated(updated).build());
+        });
+    }
+
+    /** Selects and updates one chunk, returning the ids selected and the number of rows updated. */
+    private Mono<Tuple2<List<Long>, Long>> updateStatusChunk(UserStatusFilter filter, boolean active, long afterId) {
+        String conditions = statusConditions(filter);
+        Mono<Tuple2<List<Long>, Long>> chunk = bindStatusFilter(databaseClient.sql(
+                        "select id from users where " + conditions + " and id > :afterId order by id limit :limit"),
+                filter, active)
+                .bind("afterId", afterId)
+                .bind("limit", UserServiceImpl.STATUS_CHUNK_SIZE)
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .flatMap(ids -> ids.isEmpty()
+                        ? Mono.just(Tuples.of(ids, 0L))
+                        : bindStatusFilter(databaseClient.sql("update users set active = :active, updated_at = :updatedAt, " +
+                                        "version = version + 1 where id in (:chunk) and " + conditions), filter, active)
+                                .bind("chunk", ids)
+                                .bind("updatedAt", LocalDateTime.now())
+                                .fetch()
+                                .rowsUpdated()
+                                .flatMap(updated -> outbox.recordUpdated(ids).thenReturn(Tuples.of(ids, updated))));
+        return chunk
+                .as(transaction::transactional)
+                .doOnNext(result -> result.getT1().forEach(id -> eventPublisher.publishEvent(UserChangedEvent.updated(id))));
+    }
+
+    private static String statusConditions(UserStatusFilter filter) {
+        StringBuilder conditions = new StringBuilder("active <> :active");
+        if (filter.getIds() != null) {
+            conditions.append(" and id in (:ids)");
+        }
+        if (filter.getCreatedBefore() != null) {
+            conditions.append(" and created_at < :createdBefore");
+        }
+        if (filter.getEmailPattern() != null) {
+            conditions.append(" and normalized_email like :emailPattern escape '!'");
+        }
+        return conditions.toString();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindStatusFilter(DatabaseClient.GenericExecuteSpec spec,
+                                                                      UserStatusFilter filter, boolean active) {
+        spec = spec.bind("active", active);
+        if (filter.getIds() != null) {
+            spec = spec.bind("ids", filter.getIds());
+        }
+        if (filter.getCreatedBefore() != null) {
+            spec = spec.bind("createdBefore", filter.getCreatedBefore());
+        }
+        if (filter.getEmailPattern() != null) {
+            spec = spec.bind("emailPattern", filter.getEmailPattern());
+        }
+        return spec;
+    }
+
+    private Mono<String> hash(String rawPassword) {
+        return Mono.fromFuture(() -> passwordHasher.hashAsync(rawPassword));
+    }
+
+    private Mono<UserResponse> upgradePassword(UserResponse user, String storedPassword, String rawPassword) {
+        // Plain-text passwords and hashes made with a lower work factor are replaced, unless changed meanwhile
+        if (!passwordHasher.needsRehash(storedPassword)) {
+            return Mono.just(user);
+        }
+        return hash(rawPassword)
+                .flatMap(passwordHash -> databaseClient
+                        .sql("update users set password = :newPassword where id = :id and password = :currentPassword")
+                        .bind("newPassword", passwordHash)
+                        .bind("id", user.getId())
+                        .bind("currentPassword", storedPassword)
+                        .fetch()
+                        .rowsUpdated())
+                .thenReturn(user);
+    }
+
+    private Mono<UserResponse> insertUser(UserCreateRequest request, String passwordHash, LocalDateTime now) {
+        return databaseClient.sql(INSERT_USER)
+                .bind("firstName", request.getFirstName())
+                .bind("lastName", request.getLastName())
+                .bind("email", request.getEmail())
+                .bind("username", request.getUsername())
+                .bind("normalizedEmail", User.normalize(request.getEmail()))
+                .bind("normalizedUsername", User.normalize(request.getUsername()))
+                .bind("password", passwordHash)
+                .bind("createdAt", now)
+                .bind("updatedAt", now)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> UserResponse.builder()
+                        .id(id)
+                        .firstName(request.getFirstName())
+                        .lastName(request.getLastName())
+                        .email(request.getEmail())
+                        .username(request.getUsername())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .active(true)
+                        .version(0L)
+                        .build())
+                .flatMap(user -> recordChange(UserChangedEvent.created(user), user));
+    }
+
+    /** Records the change in the outbox; only to be called inside the transaction making it. */
+    private <T> Mono<T> recordChange(UserChangedEvent event, T result) {
+        return outbox.record(event).thenReturn(result);
+    }
+
+    private Mono<UserBatchCreateResponse> insertBatch(List<UserCreateRequest> requests, List<String> passwordHashes,
+                                                      Set<String> takenEmails, Set<String> takenUsernames) {
+        List<UserBatchItemResult> results = new ArrayList<>(requests.size());
+        List<Integer> usersToSave = new ArrayList<>(requests.size());
+        for (int index = 0; index < requests.size(); index++) {
+            UserCreateRequest request = requests.get(index);
+            UserBatchItemResult.UserBatchItemResultBuilder result = UserBatchItemResult.builder().index(index);
+
+            // Adding to the taken sets also catches duplicates within the batch itself
+            if (!takenEmails.add(User.normalize(request.getEmail()))) {
+                results.add(result.status(UserBatchItemResult.Status.CONFLICT)
+                        .message("Email already in use: " + request.getEmail())
+                        .build());
+                continue;
+            }
+            if (!takenUsernames.add(User.normalize(request.getUsername()))) {
+                takenEmails.remove(User.normalize(request.getEmail()));
+                results.add(result.status(UserBatchItemResult.Status.CONFLICT)
+                        .message("Username already in use: " + request.getUsername())
+                        .build());
+                continue;
+            }
+
+            usersToSave.add(index);
+            results.add(result.status(UserBatchItemResult.Status.CREATED).build());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return Flux.fromIterable(usersToSave)
+                .concatMap(index -> insertUser(requests.get(index), passwordHashes.get(index), now))
+                .collectList()
+                .map(savedUsers -> {
+                    int saved = 0;
+                    for (UserBatchItemResult result : results) {
+                        if (result.getStatus() == UserBatchItemResult.Status.CREATED) {
+                            result.setUser(savedUsers.get(saved++));
+                        }
+                    }
+                    return UserBatchCreateResponse.builder()
+                            .created(savedUsers.size())
+                            .conflicts(results.size() - savedUsers.size())
+                            .results(results)
+                            .build();
+                });
+    }
+
+    private Mono<UserResponse> applyUpdate(UserResponse user, UserUpdateRequest request, String passwordHash) {
+        // Only the columns present in the request are written; the unique constraint rejects an email in use
+        Map<String, Object> columns = new LinkedHashMap<>();
+        if (request.getEmail() != null) {
+            user.setEmail(request.getEmail());
+            columns.put("email", request.getEmail());
+            columns.put("normalized_email", User.normalize(request.getEmail()));
+        }
+        if (request.getFirstName() != null) {
+            user.setFirstName(request.getFirstName());
+            columns.put("first_name", request.getFirstName());
+        }
+        if (request.getLastName() != null) {
+            user.setLastName(request.getLastName());
+            columns.put("last_name", request.getLastName());
+        }
+        if (passwordHash != null) {
+            columns.put("password", passwordHash);
+        }
+        if (request.getActive() != null) {
+            user.setActive(request.getActive());
+            columns.put("active", request.getActive());
+        }
+        user.setUpdatedAt(LocalDateTime.now());
+        columns.put("updated_at", user.getUpdatedAt());
+
+        // Only matches the version read, so a write in between is detected rather than overwritten
+        Long readVersion = user.getVersion();
+        return updateColumns(user.getId(), readVersion, columns)
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        return Mono.error(UserManagementException.conflict(
+                                "User with id " + user.getId() + " was modified concurrently, retry the update"));
+                    }
+                    user.setVersion(readVersion + 1);
+                    return Mono.just(user);
+                });
+    }
+
+    private Mono<Long> updateColumns(Long id, Long expectedVersion, Map<String, Object> columns) {
+        String assignments = columns.keySet().stream()
+                .map(column -> column + " = :" + column)
+                .collect(Collectors.joining(", "));
+        String sql = "update users set " + assignments + ", version = version + 1 where id = :id";
+        DatabaseClient.GenericExecuteSpec update = expectedVersion == null
+                ? databaseClient.sql(sql)
+                : databaseClient.sql(sql + " and version = :expectedVersion").bind("expectedVersion", expectedVersion);
+        return update
+                .bindValues(columns)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private <T> Mono<T> notFoundOrVersionMismatch(Long id, Long expectedVersion) {
+        // Only looked into once a conditional write has matched no row
+        Mono<Boolean> exists = expectedVersion != null ? exists("id", id) : Mono.just(false);
+        return exists.flatMap(found -> Mono.error(found
+                ? versionMismatch(id, expectedVersion)
+                : UserManagementException.notFound("User not found with id: " + id)));
+    }
+
+    private static UserManagementException versionMismatch(Long id, Long expectedVersion) {
+        return UserManagementException.preconditionFailed("User with id " + id + " has changed since version " + expectedVersion);
+    }
+
+    private static void putIfPresent(Map<String, Object> columns, String column, Object value) {
+        if (value != null) {
+            columns.put(column, value);
+        }
+    }
+
+    private Mono<Set<String>> findExisting(String column, Set<String> values) {
+        return databaseClient.sql("select " + column + " from users where " + column + " in (:values)")
+                .bind("values", values)
+                .map(row -> row.get(column, String.class))
+                .all()
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private Mono<Boolean> exists(String column, Object value) {
+        return databaseClient.sql("select 1 from users where " + column + " = :value")
+                .bind("value", value)
+                .fetch()
+                .first()
+                .hasElement();
+    }
+
+    private UserPageResponse toPage(List<UserResponse> users, int limit, UserSortField sortField) {
+        boolean hasNext = users.size() > limit;
+        List<UserResponse> content = hasNext ? users.subList(0, limit) : users;
+
+        String nextCursor = null;
+        if (hasNext) {
+            UserResponse last = content.get(content.size() - 1);
+            nextCursor = UserCursor.of(sortField, last.getId(), last.getCreatedAt()).encode();
+        }
+
+        return UserPageResponse.builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private UserResponse mapToUserResponse(Readable row) {
+        return UserResponse.builder()
+                .id(row.get("id", Long.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .email(row.get("email", String.class))
+                .username(row.get("username", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .active(Boolean.TRUE.equals(row.get("active", Boolean.class)))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
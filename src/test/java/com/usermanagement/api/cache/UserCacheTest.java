@@ -0,0 +1,293 @@
+package com.usermanagement.api.cache;
+
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.exception.UserManagementException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UserCacheTest {
+
+    private UserCache userCache;
+    private UserResponse testUser;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(new UserCacheProperties());
+        testUser = UserResponse.builder()
+                .id(1L)
+                .firstName("Test")
+                .lastName("User")
+                .email("test@example.com")
+                .username("testuser")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .active(true)
+                .build();
+    }
+
+    @Test
+    void shouldServeAllKeysFromOneLoad() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return testUser;
+        });
+        UserResponse byUsername = userCache.getByUsername("testuser", username -> {
+            loads.incrementAndGet();
+            return testUser;
+        });
+        UserResponse byEmail = userCache.getByEmail("test@example.com", email -> {
+            loads.incrementAndGet();
+            return testUser;
+        });
+
+        // Then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(byUsername).isSameAs(testUser);
+        assertThat(byEmail).isSameAs(testUser);
+        assertThat(userCache.stats().getHits()).isEqualTo(2);
+        assertThat(userCache.stats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDropAllAliasesWhenUserChanges() {
+        // Given
+        userCache.getByEmail("test@example.com", email -> testUser);
+
+        // When
+        userCache.onUserChanged(UserChangedEvent.deleted(1L));
+
+        // Then
+        assertThrows(UserManagementException.class, () -> userCache.getByEmail("test@example.com", email -> {
+            throw UserManagementException.notFound("User not found with email: " + email);
+        }));
+        assertThat(userCache.stats().getSize()).isZero();
+    }
+
+    @Test
+    void shouldInvalidateOnlyUsersAtAnotherVersion() {
+        // Given
+        userCache.getById(1L, id -> UserResponse.builder().id(1L).email("a@example.com").username("usera").version(3L).build());
+        userCache.getById(2L, id -> UserResponse.builder().id(2L).email("b@example.com").username("userb").version(3L).build());
+
+        // When - User 2 was updated through another node
+        userCache.invalidateIfChanged(1L, 3L);
+        userCache.invalidateIfChanged(2L, 4L);
+        userCache.invalidateIfChanged(3L, 1L);
+
+        // Then
+        assertThat(userCache.getIfPresent(1L)).isNotNull();
+        assertThat(userCache.getIfPresent(2L)).isNull();
+    }
+
+    @Test
+    void shouldNotServeAliasThatNoLongerMatches() {
+        // Given - The old email still points at the user, whose email has since changed
+        userCache.getByEmail("test@example.com", email -> testUser);
+        UserResponse changedUser = UserResponse.builder().id(1L).email("changed@example.com").username("testuser").build();
+        userCache.invalidate(1L);
+        userCache.getById(1L, id -> changedUser);
+
+        // When
+        UserResponse other = UserResponse.builder().id(2L).email("test@example.com").username("other").build();
+        UserResponse found = userCache.getByEmail("test@example.com", email -> other);
+
+        // Then
+        assertThat(found.getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldNotCacheLoadThatRacedWithInvalidation() {
+        // When - The user changes while its old state is being loaded
+        userCache.getById(1L, id -> {
+            userCache.invalidate(1L);
+            return testUser;
+        });
+
+        // Then
+        AtomicInteger loads = new AtomicInteger();
+        userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return testUser;
+        });
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldShareOneLoadBetweenConcurrentMisses() throws Exception {
+        // Given - A load that stays in flight until released
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        List<Future<UserResponse>> callers = new ArrayList<>();
+
+        // When - Eight callers miss at once
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                callers.add(executor.submit(() -> userCache.getByUsername("TestUser", username -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return testUser;
+                })));
+            }
+            awaitCoalesced(7);
+            release.countDown();
+
+            // Then
+            for (Future<UserResponse> caller : callers) {
+                assertThat(caller.get()).isSameAs(testUser);
+            }
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(userCache.stats().getMisses()).isEqualTo(8);
+        assertThat(userCache.getById(1L, id -> null)).isSameAs(testUser);
+    }
+
+    @Test
+    void shouldShareLoadErrorsWithoutKeepingThem() throws Exception {
+        // Given - A load that fails once released
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<UserResponse> lookup = () -> userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            await(release);
+            throw UserManagementException.notFound("User not found with id: " + id);
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<UserResponse> first = executor.submit(lookup);
+            Future<UserResponse> second = executor.submit(lookup);
+            awaitCoalesced(1);
+
+            // When
+            release.countDown();
+
+            // Then - Both callers get the error
+            for (Future<UserResponse> caller : List.of(first, second)) {
+                ExecutionException failure = assertThrows(ExecutionException.class, caller::get);
+                assertThat(failure.getCause()).isInstanceOf(UserManagementException.class);
+                assertThat(((UserManagementException) failure.getCause()).getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+            }
+        }
+
+        // And - The next miss loads again
+        assertThat(userCache.getById(1L, id -> testUser)).isSameAs(testUser);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotShareLoadStartedBeforeInvalidation() throws Exception {
+        // Given - A load of the old state in flight
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        UserResponse changedUser = UserResponse.builder().id(1L).email("test@example.com").username("changed").build();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<UserResponse> stale = executor.submit(() -> userCache.getById(1L, id -> {
+                started.countDown();
+                await(release);
+                return testUser;
+            }));
+            await(started);
+
+            // When - The user changes, and is read again
+            userCache.invalidate(1L);
+            UserResponse fresh = userCache.getById(1L, id -> changedUser);
+
+            // Then - The new read does not wait for, nor get, the old state
+            assertThat(fresh).isSameAs(changedUser);
+            assertThat(userCache.stats().getCoalesced()).isZero();
+            release.countDown();
+            assertThat(stale.get()).isSameAs(testUser);
+        }
+        assertThat(userCache.getIfPresent(1L)).isSameAs(changedUser);
+    }
+
+    @Test
+    void shouldStopWaitingForSlowLoadAfterTimeout() throws Exception {
+        // Given
+        UserCacheProperties properties = new UserCacheProperties();
+        properties.setLoadTimeout(Duration.ofMillis(50));
+        UserCache cache = new UserCache(properties);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<UserResponse> slow = executor.submit(() -> cache.getById(1L, id -> {
+                started.countDown();
+                await(release);
+                return testUser;
+            }));
+            await(started);
+
+            // When & Then
+            UserManagementException exception = assertThrows(UserManagementException.class,
+                    () -> cache.getById(1L, id -> testUser));
+            assertThat(exception.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+            // And - The slow load still completes for its own caller
+            release.countDown();
+            assertThat(slow.get()).isSameAs(testUser);
+        }
+    }
+
+    @Test
+    void shouldBypassCacheWhenDisabled() {
+        // Given
+        UserCacheProperties properties = new UserCacheProperties();
+        properties.setEnabled(false);
+        UserCache disabledCache = new UserCache(properties);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        disabledCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return testUser;
+        });
+        disabledCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return testUser;
+        });
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(disabledCache.stats().isEnabled()).isFalse();
+    }
+
+    private void awaitCoalesced(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (userCache.stats().getCoalesced() < count) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,10 +1,23 @@
 package com.usermanagement.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.api.dto.AvailabilityResponse;
+import com.usermanagement.api.dto.LoginRequest;
+import com.usermanagement.api.dto.UserBatchCreateRequest;
+import com.usermanagement.api.dto.UserBatchCreateResponse;
+import com.usermanagement.api.dto.UserBatchItemResult;
 import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserPatchRequest;
 import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSortField;
+import com.usermanagement.api.dto.UserStatusUpdateRequest;
+import com.usermanagement.api.dto.UserStatusUpdateResponse;
+import com.usermanagement.api.dto.UserSuggestion;
 import com.usermanagement.api.dto.UserUpdateRequest;
 import com.usermanagement.api.exception.UserManagementException;
+import com.usermanagement.api.feed.UserChangeFeed;
+import com.usermanagement.api.repository.UserVersion;
 import com.usermanagement.api.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,14 +27,21 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -39,6 +59,9 @@ public class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserChangeFeed changeFeed;
+
     private UserResponse testUserResponse;
     private UserCreateRequest createRequest;
     private UserUpdateRequest updateRequest;
@@ -93,6 +116,53 @@ public class UserControllerTest {
         verify(userService).createUser(any(UserCreateRequest.class));
     }
 
+    @Test
+    void shouldCreateUsersInBatch() throws Exception {
+        // Given
+        UserBatchCreateResponse batchResponse = UserBatchCreateResponse.builder()
+                .created(1)
+                .conflicts(0)
+                .results(List.of(UserBatchItemResult.builder()
+                        .index(0)
+                        .status(UserBatchItemResult.Status.CREATED)
+                        .user(testUserResponse)
+                        .build()))
+                .build();
+        when(userService.createUsers(anyList())).thenReturn(batchResponse);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new UserBatchCreateRequest(List.of(createRequest)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+                .andExpect(jsonPath("$.results[0].user.username", is("testuser")));
+
+        verify(userService).createUsers(List.of(createRequest));
+    }
+
+    @Test
+    void shouldValidateEveryUserInBatch() throws Exception {
+        // Given
+        UserCreateRequest invalidRequest = UserCreateRequest.builder()
+                .firstName("Bad")
+                .lastName("User")
+                .email("invalid-email")
+                .username("baduser")
+                .password("password123")
+                .build();
+
+        // When & Then
+        mockMvc.perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new UserBatchCreateRequest(List.of(createRequest, invalidRequest)))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['users[1].email']", is("Email should be valid")));
+
+        verify(userService, never()).createUsers(anyList());
+    }
+
     @Test
     void shouldReturnUserById() throws Exception {
         // Given
@@ -110,6 +180,41 @@ public class UserControllerTest {
         verify(userService).getUserById(1L);
     }
 
+    @Test
+    void shouldAnswerConditionalGetWithoutLoadingUser() throws Exception {
+        // Given
+        when(userService.getUserById(anyLong())).thenReturn(testUserResponse);
+        String eTag = mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        when(userService.getUserVersion(anyLong())).thenReturn(new UserVersion(0L, testUserResponse.getUpdatedAt()));
+
+        // When & Then - Unchanged: 304 without a body, checked against the modification time only
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+        verify(userService, times(1)).getUserById(1L);
+
+        // And - Changed since: the full user with the new tag
+        when(userService.getUserVersion(anyLong())).thenReturn(new UserVersion(1L, testUserResponse.getUpdatedAt()));
+        testUserResponse.setVersion(1L);
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andExpect(jsonPath("$.id", is(1)));
+
+        // And - Changed again between the version check and the load: the tag of the user returned
+        testUserResponse.setVersion(2L);
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues("ETag", "\"1-2\""))
+                .andExpect(jsonPath("$.version", is(2)));
+    }
+
     @Test
     void shouldReturnUserByUsername() throws Exception {
         // Given
@@ -145,7 +250,26 @@ public class UserControllerTest {
     }
 
     @Test
-    void shouldReturnAllUsers() throws Exception {
+    void shouldReturnAvailability() throws Exception {
+        // Given
+        AvailabilityResponse availability = AvailabilityResponse.builder()
+                .username("newuser")
+                .usernameAvailable(true)
+                .build();
+        when(userService.checkAvailability("newuser", null)).thenReturn(availability);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/availability").param("username", "newuser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username", is("newuser")))
+                .andExpect(jsonPath("$.usernameAvailable", is(true)))
+                .andExpect(jsonPath("$.email").doesNotExist());
+
+        verify(userService).checkAvailability("newuser", null);
+    }
+
+    @Test
+    void shouldReturnPageOfUsers() throws Exception {
         // Given
         UserResponse anotherUserResponse = UserResponse.builder()
                 .id(2L)
@@ -158,19 +282,162 @@ public class UserControllerTest {
                 .active(true)
                 .build();
 
-        List<UserResponse> users = Arrays.asList(testUserResponse, anotherUserResponse);
-        when(userService.getAllUsers()).thenReturn(users);
+        UserPageResponse page = UserPageResponse.builder()
+                .content(Arrays.asList(testUserResponse, anotherUserResponse))
+                .size(2)
+                .hasNext(true)
+                .nextCursor("next")
+                .build();
+        when(userService.getUsers(any(), anyInt(), any(), any(UserSortField.class))).thenReturn(page);
 
         // When & Then
-        mockMvc.perform(get("/api/users"))
+        mockMvc.perform(get("/api/users").param("limit", "2").param("active", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.content[0].username", is("testuser")))
+                .andExpect(jsonPath("$.content[1].id", is(2)))
+                .andExpect(jsonPath("$.content[1].username", is("anotheruser")))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+
+        verify(userService).getUsers(null, 2, true, UserSortField.ID);
+    }
+
+    @Test
+    void shouldAnswerConditionalGetOfUnchangedPage() throws Exception {
+        // Given
+        UserPageResponse page = UserPageResponse.builder()
+                .content(List.of(testUserResponse))
+                .size(1)
+                .hasNext(false)
+                .build();
+        when(userService.getUsers(any(), anyInt(), any(), any(UserSortField.class))).thenReturn(page);
+        String eTag = mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().doesNotExist("Last-Modified"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/users").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // And - A date cannot tell that users were deleted from the page, so it is not checked
+        mockMvc.perform(get("/api/users").header("If-Modified-Since", "Wed, 01 Jan 2200 00:00:00 GMT"))
+                .andExpect(status().isOk());
+
+        // And - A user leaving the page changes the tag
+        page.setContent(List.of());
+        page.setSize(0);
+        mockMvc.perform(get("/api/users").header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldSearchUsers() throws Exception {
+        // Given
+        UserPageResponse page = UserPageResponse.builder()
+                .content(List.of(testUserResponse))
+                .size(1)
+                .hasNext(false)
+                .build();
+        when(userService.searchUsers(any(), any(), anyInt())).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/search").param("q", "test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].username", is("testuser")))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+
+        verify(userService).searchUsers("test", null, 20);
+    }
+
+    @Test
+    void shouldSuggestUsers() throws Exception {
+        // Given
+        when(userService.suggestUsers(any(), anyInt()))
+                .thenReturn(List.of(new UserSuggestion(1L, UserSuggestion.USERNAME, "testuser")));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/suggest").param("prefix", "tes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(1)))
-                .andExpect(jsonPath("$[0].username", is("testuser")))
-                .andExpect(jsonPath("$[1].id", is(2)))
-                .andExpect(jsonPath("$[1].username", is("anotheruser")));
+                .andExpect(jsonPath("$[0].field", is("username")))
+                .andExpect(jsonPath("$[0].value", is("testuser")));
 
-        verify(userService).getAllUsers();
+        verify(userService).suggestUsers("tes", 10);
+    }
+
+    @Test
+    void shouldStreamChangesFromLastEventId() throws Exception {
+        // Given
+        when(changeFeed.subscribe("abc-3")).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/users/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "abc-3"))
+                .andExpect(request().asyncStarted());
+
+        verify(changeFeed).subscribe("abc-3");
+        verifyNoInteractions(userService);
+
+        when(changeFeed.subscribe(null)).thenThrow(UserManagementException.serviceUnavailable("Too many subscribers"));
+        mockMvc.perform(get("/api/users/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void shouldTellClientsWhenToRetryAfterLoadShedding() throws Exception {
+        // Given
+        when(userService.getUserById(1L)).thenThrow(
+                UserManagementException.serviceUnavailable("Too many requests in progress, retry later", Duration.ofMillis(1500)));
+
+        // When & Then - Rounded up to whole seconds
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.message", is("Too many requests in progress, retry later")));
+    }
+
+    @Test
+    void shouldRejectUnknownSortField() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/users").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).getUsers(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldExportUsersAsNdjson() throws Exception {
+        // Given
+        when(userService.exportUsers(any())).thenAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(testUserResponse);
+            consumer.accept(testUserResponse);
+            return 2L;
+        });
+
+        // When
+        String body = mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        // Then
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], UserResponse.class).getUsername()).isEqualTo("testuser");
+        assertThat(objectMapper.readValue(lines[1], UserResponse.class).getId()).isEqualTo(1L);
     }
 
     @Test
@@ -187,7 +454,7 @@ public class UserControllerTest {
                 .active(true)
                 .build();
 
-        when(userService.updateUser(anyLong(), any(UserUpdateRequest.class))).thenReturn(updatedUserResponse);
+        when(userService.updateUser(anyLong(), any(UserUpdateRequest.class), any())).thenReturn(updatedUserResponse);
 
         // When & Then
         mockMvc.perform(put("/api/users/1")
@@ -200,19 +467,161 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.email", is("updated@example.com")))
                 .andExpect(jsonPath("$.username", is("testuser")));
 
-        verify(userService).updateUser(eq(1L), any(UserUpdateRequest.class));
+        verify(userService).updateUser(eq(1L), any(UserUpdateRequest.class), isNull());
+    }
+
+    @Test
+    void shouldPatchUserWithMergePatch() throws Exception {
+        // Given
+        when(userService.patchUser(anyLong(), any(UserPatchRequest.class), any())).thenReturn(testUserResponse);
+
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                .contentType("application/merge-patch+json")
+                .content("{\"active\": false}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)));
+
+        verify(userService).patchUser(1L, UserPatchRequest.builder().active(false).build(), null);
+    }
+
+    @Test
+    void shouldRejectInvalidMergePatches() throws Exception {
+        // When & Then - A null would remove the property
+        mockMvc.perform(patch("/api/users/1")
+                .contentType("application/merge-patch+json")
+                .content("{\"email\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Property cannot be removed: email")));
+
+        // And - Present values are validated
+        mockMvc.perform(patch("/api/users/1")
+                .contentType("application/merge-patch+json")
+                .content("{\"firstName\": \" \", \"email\": \"not-an-email\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.firstName").exists())
+                .andExpect(jsonPath("$.errors.email").exists());
+
+        // And - Only merge patches are accepted
+        mockMvc.perform(patch("/api/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"active\": false}"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(userService, never()).patchUser(anyLong(), any(UserPatchRequest.class), any());
+    }
+
+    @Test
+    void shouldPassIfMatchVersionToConditionalWrites() throws Exception {
+        // Given
+        testUserResponse.setVersion(4L);
+        when(userService.updateUser(anyLong(), any(UserUpdateRequest.class), any())).thenReturn(testUserResponse);
+        when(userService.getUserById(1L)).thenReturn(testUserResponse);
+        String eTag = mockMvc.perform(get("/api/users/1"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then - The version in the tag is required, and the new tag is returned
+        mockMvc.perform(put("/api/users/1")
+                .header("If-Match", eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(jsonPath("$.version", is(4)));
+        verify(userService).updateUser(eq(1L), any(UserUpdateRequest.class), eq(4L));
+
+        // And - A tag of another user can never match, while * matches any version
+        mockMvc.perform(delete("/api/users/1").header("If-Match", "\"2-4\""));
+        verify(userService).deleteUser(1L, -1L);
+        mockMvc.perform(delete("/api/users/1").header("If-Match", "*"));
+        verify(userService).deleteUser(1L, null);
+    }
+
+    @Test
+    void shouldReturnPreconditionFailedForStaleVersion() throws Exception {
+        // Given
+        doThrow(UserManagementException.preconditionFailed("User with id 1 has changed since version 3"))
+                .when(userService).deleteUser(1L, 3L);
+
+        // When & Then
+        mockMvc.perform(delete("/api/users/1").header("If-Match", "\"1-3\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message", is("User with id 1 has changed since version 3")));
     }
 
     @Test
     void shouldDeleteUserSuccessfully() throws Exception {
         // Given
-        doNothing().when(userService).deleteUser(anyLong());
+        doNothing().when(userService).deleteUser(anyLong(), any());
 
         // When & Then
         mockMvc.perform(delete("/api/users/1"))
                 .andExpect(status().isNoContent());
 
-        verify(userService).deleteUser(1L);
+        verify(userService).deleteUser(1L, null);
+    }
+
+    @Test
+    void shouldSoftDeleteUser() throws Exception {
+        // When & Then
+        mockMvc.perform(delete("/api/users/1").param("soft", "true"))
+                .andExpect(status().isNoContent());
+
+        verify(userService).softDeleteUser(1L, null);
+        verify(userService, never()).deleteUser(anyLong(), any());
+    }
+
+    @Test
+    void shouldUpdateStatusInBulk() throws Exception {
+        // Given
+        when(userService.updateStatus(any(UserStatusUpdateRequest.class))).thenReturn(new UserStatusUpdateResponse(3));
+        UserStatusUpdateRequest request = UserStatusUpdateRequest.builder()
+                .active(false)
+                .emailDomain("example.com")
+                .build();
+
+        // When & Then
+        mockMvc.perform(post("/api/users/batch/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", is(3)));
+
+        mockMvc.perform(post("/api/users/batch/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"emailDomain\":\"a@b@c\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService).updateStatus(request);
+    }
+
+    @Test
+    void shouldLoginSuccessfully() throws Exception {
+        // Given
+        when(userService.login(any(LoginRequest.class))).thenReturn(testUserResponse);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("testuser", "password123"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username", is("testuser")));
+
+        verify(userService).login(new LoginRequest("testuser", "password123"));
+    }
+
+    @Test
+    void shouldReturnUnauthorizedForInvalidCredentials() throws Exception {
+        // Given
+        when(userService.login(any(LoginRequest.class)))
+                .thenThrow(UserManagementException.unauthorized("Invalid username or password"));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("testuser", "wrongpassword"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message", is("Invalid username or password")));
     }
 
     @Test
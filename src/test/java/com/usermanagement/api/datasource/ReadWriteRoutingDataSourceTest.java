@@ -0,0 +1,98 @@
+package com.usermanagement.api.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource firstReplica;
+    private DataSource secondReplica;
+    private Connection primaryConnection;
+    private Connection firstConnection;
+    private Connection secondConnection;
+    private ReadReplicas replicas;
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        firstReplica = mock(DataSource.class);
+        secondReplica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        firstConnection = mock(Connection.class);
+        secondConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(firstReplica.getConnection()).thenReturn(firstConnection);
+        when(secondReplica.getConnection()).thenReturn(secondConnection);
+        replicas = new ReadReplicas(List.of(
+                new ReadReplicas.Replica("replica-1", firstReplica),
+                new ReadReplicas.Replica("replica-2", secondReplica)), Duration.ofSeconds(5));
+        dataSource = new ReadWriteRoutingDataSource(primary, replicas);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void shouldBalanceReadOnlyTransactionsOverReplicas() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When & Then
+        assertThat(List.of(dataSource.getConnection(), dataSource.getConnection(), dataSource.getConnection()))
+                .containsExactly(firstConnection, secondConnection, firstConnection);
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void shouldSendWritesAndPrimaryScopedReadsToPrimary() throws SQLException {
+        // When & Then - Outside a read-only transaction
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+
+        // And - In a read-only transaction that asked for the primary
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (DataSourceRouting.Scope ignored = DataSourceRouting.primary()) {
+            assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        }
+        assertThat(DataSourceRouting.isPrimaryRequired()).isFalse();
+        verifyNoInteractions(firstReplica, secondReplica);
+    }
+
+    @Test
+    void shouldEjectFailingReplicaUntilHealthCheckPasses() throws SQLException {
+        // Given - The first replica is down
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(firstReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // When - It is ejected on first use, and skipped afterwards
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(replicas.healthyCount()).isEqualTo(1);
+        verify(firstReplica, times(1)).getConnection();
+
+        // Then - With no replica left, reads fall back to the primary
+        when(secondReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+
+        // And - A replica that answers the health check is taken back
+        doReturn(firstConnection).when(firstReplica).getConnection();
+        when(firstConnection.isValid(anyInt())).thenReturn(true);
+        replicas.checkHealth();
+        assertThat(replicas.healthyCount()).isEqualTo(1);
+        assertThat(dataSource.getConnection()).isSameAs(firstConnection);
+    }
+}
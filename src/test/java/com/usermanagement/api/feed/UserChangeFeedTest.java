@@ -0,0 +1,86 @@
+package com.usermanagement.api.feed;
+
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.exception.UserManagementException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UserChangeFeedTest {
+
+    private UserChangeFeedProperties properties;
+    private UserChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        properties = new UserChangeFeedProperties();
+        properties.setCapacity(4);
+        changeFeed = new UserChangeFeed(properties);
+    }
+
+    @Test
+    void shouldResumeRightAfterLastSeenEvent() throws Exception {
+        // Given
+        publishDeletes(3);
+
+        // When
+        UserChangeFeed.Start resumed = changeFeed.start(changeFeed.eventId(1));
+        UserChangeFeed.Start fresh = changeFeed.start(null);
+
+        // Then - A new subscriber only sees what comes next
+        assertThat(resumed).isEqualTo(new UserChangeFeed.Start(2, false));
+        assertThat(changeFeed.read(resumed.sequence(), 0))
+                .extracting(change -> change.change().getUserId())
+                .containsExactly(2L, 3L);
+        assertThat(fresh).isEqualTo(new UserChangeFeed.Start(4, false));
+        assertThat(changeFeed.read(fresh.sequence(), 0)).isEmpty();
+    }
+
+    @Test
+    void shouldResetSubscribersThatCannotResume() throws Exception {
+        // Given - Six changes, of which the buffer holds the last four
+        publishDeletes(6);
+
+        // When & Then - Ids older than the buffer, from the future or from another node start over
+        assertThat(changeFeed.start(changeFeed.eventId(2))).isEqualTo(new UserChangeFeed.Start(3, false));
+        assertThat(changeFeed.start(changeFeed.eventId(1))).isEqualTo(new UserChangeFeed.Start(7, true));
+        assertThat(changeFeed.start(changeFeed.eventId(9))).isEqualTo(new UserChangeFeed.Start(7, true));
+        assertThat(changeFeed.start("0-3")).isEqualTo(new UserChangeFeed.Start(7, true));
+        assertThat(changeFeed.start("garbage")).isEqualTo(new UserChangeFeed.Start(7, true));
+    }
+
+    @Test
+    void shouldDropSubscribersThatFallBehindTheBuffer() throws Exception {
+        // Given - A subscriber at the second change
+        publishDeletes(2);
+        long position = 2;
+
+        // When - Four more changes overwrite it
+        publishDeletes(4);
+
+        // Then
+        assertThat(changeFeed.read(position, 0)).isNull();
+        assertThat(changeFeed.read(position + 1, 0)).hasSize(4);
+    }
+
+    @Test
+    void shouldRejectSubscribersBeyondTheLimit() {
+        // Given
+        properties.setMaxSubscribers(0);
+
+        // When & Then
+        UserManagementException exception = assertThrows(UserManagementException.class, () -> changeFeed.subscribe(null));
+        assertThat(exception.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(changeFeed.getSubscriberCount()).isZero();
+    }
+
+    private void publishDeletes(int count) {
+        for (int i = 0; i < count; i++) {
+            long userId = changeFeed.start(null).sequence();
+            changeFeed.onUserChanged(UserChangedEvent.deleted(userId));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.usermanagement.api.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BloomFilterTest {
+
+    @Test
+    void shouldNeverReportAddedValuesAsAbsent() {
+        // Given
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+        }
+    }
+
+    @Test
+    void shouldKeepFalsePositivesNearConfiguredRate() {
+        // Given
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertThat(falsePositives / 100_000d).isLessThan(0.02);
+    }
+}
@@ -0,0 +1,133 @@
+package com.usermanagement.api.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PrefixIndexTest {
+
+    @Test
+    void shouldReturnKeysWithPrefixInOrderAcrossBlocks() {
+        // Given
+        TreeMap<String, Long> expected = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.put("user" + i + "@example.com", (long) i);
+        }
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        expected.forEach(builder::add);
+        PrefixIndex index = builder.build();
+
+        // When
+        List<String> keys = new ArrayList<>();
+        List<Long> values = new ArrayList<>();
+        index.forEachWithPrefix("user12", (key, value) -> {
+            keys.add(key);
+            values.add(value);
+            return true;
+        });
+
+        // Then
+        assertThat(index.size()).isEqualTo(1000);
+        assertThat(keys).containsExactlyElementsOf(expected.subMap("user12", "user13").keySet());
+        assertThat(values).containsExactlyElementsOf(expected.subMap("user12", "user13").values());
+    }
+
+    @Test
+    void shouldStopWhenVisitorDeclines() {
+        // Given
+        PrefixIndex index = PrefixIndex.builder()
+                .add("anna", 1)
+                .add("annabel", 2)
+                .add("anne", 3)
+                .add("bob", 4)
+                .build();
+
+        // When
+        List<String> keys = new ArrayList<>();
+        index.forEachWithPrefix("ann", (key, value) -> {
+            keys.add(key);
+            return keys.size() < 2;
+        });
+
+        // Then
+        assertThat(keys).containsExactly("anna", "annabel");
+    }
+
+    @Test
+    void shouldFindNothingBeforeFirstOrAfterLastKey() {
+        // Given
+        PrefixIndex index = PrefixIndex.builder()
+                .add("carol", 1)
+                .add("dave", 2)
+                .build();
+
+        // When
+        List<String> before = new ArrayList<>();
+        List<String> after = new ArrayList<>();
+        index.forEachWithPrefix("a", (key, value) -> before.add(key));
+        index.forEachWithPrefix("e", (key, value) -> after.add(key));
+
+        // Then
+        assertThat(before).isEmpty();
+        assertThat(after).isEmpty();
+        PrefixIndex.empty().forEachWithPrefix("", (key, value) -> before.add(key));
+        assertThat(before).isEmpty();
+    }
+
+    @Test
+    void shouldRoundTripNonAsciiKeys() {
+        // Given - Keys sharing a prefix that ends inside a multi-byte character
+        List<String> keys = List.of("josé", "josée", "m\uFFFD", "m😀a", "m😁b", "über");
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        for (int i = 0; i < keys.size(); i++) {
+            builder.add(keys.get(i), i);
+        }
+        PrefixIndex index = builder.build();
+
+        // When
+        List<String> all = new ArrayList<>();
+        List<String> withPrefix = new ArrayList<>();
+        index.forEach((key, value) -> all.add(key));
+        index.forEachWithPrefix("josé", (key, value) -> withPrefix.add(key));
+
+        // Then
+        assertThat(all).containsExactlyElementsOf(keys);
+        assertThat(List.of("über", "m😁b", "m\uFFFD", "josée", "m😀a", "josé").stream().sorted(PrefixIndex.KEY_ORDER))
+                .containsExactlyElementsOf(keys);
+        assertThat(withPrefix).containsExactly("josé", "josée");
+    }
+
+    @Test
+    void shouldRejectKeysOutOfOrder() {
+        // Given
+        PrefixIndex.Builder builder = PrefixIndex.builder().add("bob", 1);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> builder.add("alice", 2));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("bob", 3));
+    }
+
+    @Test
+    void shouldStoreKeysInFewerBytesThanTheirText() {
+        // Given
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        long keyBytes = 0;
+        for (int i = 0; i < 100_000; i++) {
+            String key = String.format("user%06d@example.com", i);
+            builder.add(key, i);
+            keyBytes += key.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        // When
+        PrefixIndex index = builder.build();
+
+        // Then - Consecutive keys share most of their characters, which are stored once
+        assertThat(index.memoryBytes() - 8L * index.size()).isLessThan(keyBytes * 3 / 4);
+    }
+}
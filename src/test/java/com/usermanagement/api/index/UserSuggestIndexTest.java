@@ -0,0 +1,168 @@
+package com.usermanagement.api.index;
+
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSuggestion;
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.repository.UserRepository;
+import com.usermanagement.api.repository.UsernameAndEmail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UserSuggestIndexTest {
+
+    private UserRepository userRepository;
+    private UserSuggestIndexProperties properties;
+    private UserSuggestIndex suggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        properties = new UserSuggestIndexProperties();
+        suggestIndex = new UserSuggestIndex(userRepository, properties, transactionManager);
+    }
+
+    @Test
+    void shouldSuggestUsernamesAndEmailsLoadedAtStartup() {
+        // Given
+        when(userRepository.streamUsernamesAndEmails()).thenReturn(Stream.of(
+                keys(1L, "johndoe", "john@example.com"),
+                keys(2L, "jane", "jane.doe@example.com"),
+                keys(3L, "bob", "johnny@example.com")));
+
+        // When
+        suggestIndex.onApplicationReady();
+
+        // Then
+        assertThat(suggestIndex.isReady()).isTrue();
+        assertThat(suggestIndex.suggest("JOHN", 10))
+                .extracting(UserSuggestion::getId, UserSuggestion::getField, UserSuggestion::getValue)
+                .containsExactly(
+                        tuple(1L, UserSuggestion.EMAIL, "john@example.com"),
+                        tuple(1L, UserSuggestion.USERNAME, "johndoe"),
+                        tuple(3L, UserSuggestion.EMAIL, "johnny@example.com"));
+        assertThat(suggestIndex.suggest("j", 2)).hasSize(2);
+    }
+
+    @Test
+    void shouldFollowCreatesUpdatesAndDeletes() {
+        // Given
+        when(userRepository.streamUsernamesAndEmails()).thenReturn(Stream.of(
+                keys(1L, "alice", "alice@example.com"),
+                keys(2L, "albert", "albert@example.com")));
+        suggestIndex.onApplicationReady();
+
+        // When
+        suggestIndex.onUserChanged(UserChangedEvent.created(user(3L, "Alfred", "alfred@example.com")));
+        suggestIndex.onUserChanged(UserChangedEvent.updated(user(1L, "zoe", "zoe@example.com")));
+        suggestIndex.onUserChanged(UserChangedEvent.deleted(2L));
+
+        // Then
+        assertThat(suggestIndex.suggest("al", 10))
+                .extracting(UserSuggestion::getValue)
+                .containsExactly("alfred", "alfred@example.com");
+        assertThat(suggestIndex.suggest("zo", 10))
+                .extracting(UserSuggestion::getId)
+                .containsExactly(1L, 1L);
+    }
+
+    @Test
+    void shouldGiveSameAnswersAfterCompaction() {
+        // Given - Any change is enough for the background refresh to merge the overlay
+        properties.setCompactionThreshold(0);
+        when(userRepository.streamUsernamesAndEmails()).thenReturn(Stream.of(
+                keys(1L, "alice", "alice@example.com"),
+                keys(2L, "albert", "albert@example.com")));
+        suggestIndex.onApplicationReady();
+
+        // When - User 2 is renamed and user 3 takes its old username
+        suggestIndex.onUserChanged(UserChangedEvent.updated(user(2L, "bert", "albert@example.com")));
+        suggestIndex.onUserChanged(UserChangedEvent.created(user(3L, "albert", "albert2@example.com")));
+        suggestIndex.onUserChanged(UserChangedEvent.deleted(1L));
+        suggestIndex.refresh();
+
+        // Then
+        assertThat(suggestIndex.suggest("al", 10))
+                .extracting(UserSuggestion::getId, UserSuggestion::getValue)
+                .containsExactly(
+                        tuple(3L, "albert"),
+                        tuple(3L, "albert2@example.com"),
+                        tuple(2L, "albert@example.com"));
+    }
+
+    @Test
+    void shouldApplyUsersWrittenElsewhereOnRefresh() {
+        // Given
+        when(userRepository.streamUsernamesAndEmails()).thenReturn(Stream.of(
+                keys(1L, "alice", "alice@example.com")));
+        suggestIndex.onApplicationReady();
+
+        // When - Another node renamed user 1 and created user 2
+        when(userRepository.streamUsernamesAndEmailsUpdatedSince(any())).thenReturn(Stream.of(
+                keys(1L, "zoe", "alice@example.com"),
+                keys(2L, "alfred", "alfred@example.com")));
+        suggestIndex.refresh();
+
+        // Then
+        assertThat(suggestIndex.suggest("al", 10))
+                .extracting(UserSuggestion::getId, UserSuggestion::getValue)
+                .containsExactly(
+                        tuple(2L, "alfred"),
+                        tuple(2L, "alfred@example.com"),
+                        tuple(1L, "alice@example.com"));
+        assertThat(suggestIndex.suggest("zo", 10))
+                .extracting(UserSuggestion::getId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void shouldNotBeReadyWhenDisabled() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        suggestIndex.onApplicationReady();
+        suggestIndex.onUserChanged(UserChangedEvent.created(user(1L, "alice", "alice@example.com")));
+
+        // Then
+        assertThat(suggestIndex.isReady()).isFalse();
+    }
+
+    private static UsernameAndEmail keys(Long id, String username, String email) {
+        return new UsernameAndEmail() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
+    private static UserResponse user(Long id, String username, String email) {
+        return UserResponse.builder()
+                .id(id)
+                .username(username)
+                .email(email)
+                .build();
+    }
+}
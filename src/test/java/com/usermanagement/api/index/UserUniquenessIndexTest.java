@@ -0,0 +1,92 @@
+package com.usermanagement.api.index;
+
+import com.usermanagement.api.repository.UserRepository;
+import com.usermanagement.api.repository.UsernameAndEmail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserUniquenessIndexTest {
+
+    private UserRepository userRepository;
+    private UserUniquenessIndexProperties properties;
+    private UserUniquenessIndex uniquenessIndex;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        properties = new UserUniquenessIndexProperties();
+        properties.setExpectedInsertions(1000);
+        uniquenessIndex = new UserUniquenessIndex(userRepository, properties, transactionManager);
+    }
+
+    @Test
+    void shouldAddUsersWrittenElsewhereOnRefresh() {
+        // Given
+        LocalDateTime builtFrom = LocalDateTime.now();
+        when(userRepository.streamUsernamesAndEmails()).thenReturn(Stream.of(keys(1L, "johndoe", "john@example.com")));
+        uniquenessIndex.onApplicationReady();
+        when(userRepository.streamUsernamesAndEmailsUpdatedSince(any()))
+                .thenReturn(Stream.of(keys(2L, "jane", "jane@example.com")));
+
+        // When
+        uniquenessIndex.refresh();
+
+        // Then - Read from a minute before the build started, in case of clock skew or slow commits
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userRepository).streamUsernamesAndEmailsUpdatedSince(since.capture());
+        assertThat(since.getValue()).isBeforeOrEqualTo(builtFrom.minusMinutes(1).plusSeconds(1));
+        assertThat(uniquenessIndex.mightContainUsername("JohnDoe")).isTrue();
+        assertThat(uniquenessIndex.mightContainUsername("jane")).isTrue();
+        assertThat(uniquenessIndex.mightContainEmail("jane@example.com")).isTrue();
+        assertThat(uniquenessIndex.mightContainUsername("nobody")).isFalse();
+    }
+
+    @Test
+    void shouldNotAnswerFreeOnceRefreshIsOverdue() throws Exception {
+        // Given
+        properties.setRefreshInterval(Duration.ofMillis(1));
+        when(userRepository.streamUsernamesAndEmails()).thenReturn(Stream.empty());
+        uniquenessIndex.onApplicationReady();
+
+        // When
+        Thread.sleep(5);
+
+        // Then - Possibly taken by now through another node
+        assertThat(uniquenessIndex.mightContainUsername("nobody")).isTrue();
+        assertThat(uniquenessIndex.mightContainEmail("nobody@example.com")).isTrue();
+    }
+
+    private static UsernameAndEmail keys(Long id, String username, String email) {
+        return new UsernameAndEmail() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
@@ -0,0 +1,672 @@
+package com.usermanagement.api.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.usermanagement.api.dto.LoginRequest;
+import com.usermanagement.api.dto.UserBatchCreateRequest;
+import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserStatusUpdateRequest;
+import com.usermanagement.api.dto.UserUpdateRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * API scenarios that both stacks must pass. {@link UserIntegrationTest} runs them against
+ * Spring MVC and JPA, and {@code ReactiveUserIntegrationTest} against WebFlux and R2DBC;
+ * each subclass only says how to send a request and query its database, and adds the
+ * scenarios that depend on its own stack.
+ */
+public abstract class AbstractUserApiIntegrationTest {
+
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    /** Sends a request to the application and returns the whole response. */
+    protected abstract ApiResponse exchange(HttpMethod method, String uri, HttpHeaders headers, String body)
+            throws Exception;
+
+    /** Runs a query against the application's database, outside of any request. */
+    protected abstract List<Map<String, Object>> queryForList(String sql);
+
+    @Test
+    void shouldCreateAndRetrieveUser() throws Exception {
+        // Given
+        UserCreateRequest createRequest = UserCreateRequest.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@example.com")
+                .username("johndoe")
+                .password("password123")
+                .build();
+
+        // When - Create user
+        UserResponse createdUser = createUser(createRequest);
+
+        // Then - Verify user exists in database
+        assertThat(createdUser.getId()).isNotNull();
+        assertThat(countUsers("username = 'johndoe' and first_name = 'John' and email = 'john.doe@example.com'"))
+                .isEqualTo(1);
+
+        // And - Retrieve user by ID
+        ApiResponse response = doGet("/api/users/" + createdUser.getId());
+        assertThat(response.status()).isEqualTo(200);
+        assertThat(response.<Integer>json("$.id")).isEqualTo(createdUser.getId().intValue());
+        assertThat(response.<String>json("$.firstName")).isEqualTo("John");
+        assertThat(response.<String>json("$.lastName")).isEqualTo("Doe");
+        assertThat(response.<String>json("$.email")).isEqualTo("john.doe@example.com");
+        assertThat(response.<String>json("$.username")).isEqualTo("johndoe");
+    }
+
+    @Test
+    void shouldUpdateUser() throws Exception {
+        // Given - Create a user
+        UserResponse createdUser = createUser(UserCreateRequest.builder()
+                .firstName("Jane")
+                .lastName("Smith")
+                .email("jane.smith@example.com")
+                .username("janesmith")
+                .password("password123")
+                .build());
+
+        // When - Update the user
+        UserUpdateRequest updateRequest = UserUpdateRequest.builder()
+                .firstName("Jane Updated")
+                .lastName("Smith Updated")
+                .email("jane.updated@example.com")
+                .build();
+        ApiResponse updated = doPut("/api/users/" + createdUser.getId(), updateRequest);
+
+        // Then
+        assertThat(updated.status()).isEqualTo(200);
+        assertThat(updated.<String>json("$.firstName")).isEqualTo("Jane Updated");
+        assertThat(updated.<String>json("$.lastName")).isEqualTo("Smith Updated");
+        assertThat(updated.<String>json("$.email")).isEqualTo("jane.updated@example.com");
+        assertThat(updated.<String>json("$.username")).isEqualTo("janesmith");
+
+        // And - Verify user is updated in database, and found by email in any casing
+        assertThat(countUsers("first_name = 'Jane Updated' and last_name = 'Smith Updated'"
+                + " and email = 'jane.updated@example.com'")).isEqualTo(1);
+        ApiResponse found = doGet("/api/users/email/JANE.Updated@example.com");
+        assertThat(found.status()).isEqualTo(200);
+        assertThat(found.<Integer>json("$.id")).isEqualTo(createdUser.getId().intValue());
+        assertThat(found.<String>json("$.firstName")).isEqualTo("Jane Updated");
+    }
+
+    @Test
+    void shouldPatchUser() throws Exception {
+        // Given
+        UserResponse createdUser = createUser(UserCreateRequest.builder()
+                .firstName("Patch")
+                .lastName("Me")
+                .email("patch.me@example.com")
+                .username("patchme")
+                .password("password123")
+                .build());
+
+        // When
+        ApiResponse patched = doPatch("/api/users/" + createdUser.getId(), "{\"active\": false}");
+
+        // Then - Only the patched property changes
+        assertThat(patched.status()).isEqualTo(200);
+        assertThat(patched.<Boolean>json("$.active")).isFalse();
+        assertThat(patched.<String>json("$.firstName")).isEqualTo("Patch");
+        assertThat(patched.<String>json("$.email")).isEqualTo("patch.me@example.com");
+        assertThat(countUsers("username = 'patchme' and active = false")).isEqualTo(1);
+
+        // And - Removing a property is rejected
+        assertThat(doPatch("/api/users/" + createdUser.getId(), "{\"email\": null}").status()).isEqualTo(400);
+    }
+
+    @Test
+    void shouldRequireMatchingVersionForConditionalWrites() throws Exception {
+        // Given
+        UserResponse createdUser = createUser(UserCreateRequest.builder()
+                .firstName("Versioned")
+                .lastName("Writer")
+                .email("versioned@example.com")
+                .username("versioned")
+                .password("password123")
+                .build());
+        String uri = "/api/users/" + createdUser.getId();
+        String initialTag = "\"" + Long.toHexString(createdUser.getId()) + "-0\"";
+
+        // When & Then - The current version is accepted and incremented
+        ApiResponse patched = doPatch(uri, "{\"lastName\": \"Patched\"}", initialTag);
+        assertThat(patched.status()).isEqualTo(200);
+        assertThat(patched.headers().getETag()).isEqualTo("\"" + Long.toHexString(createdUser.getId()) + "-1\"");
+        assertThat(patched.<Integer>json("$.version")).isEqualTo(1);
+
+        // And - The old version is refused by every write
+        assertThat(doPatch(uri, "{\"lastName\": \"Stale\"}", initialTag).status()).isEqualTo(412);
+        assertThat(exchange(HttpMethod.DELETE, uri, headers(HttpHeaders.IF_MATCH, initialTag), null).status())
+                .isEqualTo(412);
+        assertThat(countUsers("username = 'versioned' and last_name = 'Patched' and version = 1")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnswerConditionalRequestsWithNotModified() throws Exception {
+        // Given
+        UserResponse createdUser = createUser(UserCreateRequest.builder()
+                .firstName("Cached")
+                .lastName("Client")
+                .email("cached@example.com")
+                .username("cachedclient")
+                .password("password123")
+                .build());
+        String uri = "/api/users/" + createdUser.getId();
+        ApiResponse first = doGet(uri);
+        assertThat(first.status()).isEqualTo(200);
+        String eTag = first.headers().getETag();
+        String lastModified = first.headers().getFirst(HttpHeaders.LAST_MODIFIED);
+        assertThat(eTag).isNotNull();
+        assertThat(lastModified).isNotNull();
+        String pageETag = doGet("/api/users").headers().getETag();
+
+        // When & Then - Unchanged user and page, by tag and by date
+        ApiResponse notModified = doGet(uri, HttpHeaders.IF_NONE_MATCH, eTag);
+        assertThat(notModified.status()).isEqualTo(304);
+        assertThat(notModified.body()).isEmpty();
+        assertThat(doGet(uri, HttpHeaders.IF_MODIFIED_SINCE, lastModified).status()).isEqualTo(304);
+        assertThat(doGet("/api/users", HttpHeaders.IF_NONE_MATCH, pageETag).status()).isEqualTo(304);
+
+        // And - After an update both are served again, with new tags
+        Thread.sleep(5);
+        assertThat(doPatch(uri, "{\"firstName\": \"Changed\"}").status()).isEqualTo(200);
+        ApiResponse changed = doGet(uri, HttpHeaders.IF_NONE_MATCH, eTag);
+        assertThat(changed.status()).isEqualTo(200);
+        assertThat(changed.<String>json("$.firstName")).isEqualTo("Changed");
+        assertThat(doGet("/api/users", HttpHeaders.IF_NONE_MATCH, pageETag).status()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldDeleteUser() throws Exception {
+        // Given - Create a user
+        UserResponse createdUser = createUser(UserCreateRequest.builder()
+                .firstName("Delete")
+                .lastName("Me")
+                .email("delete.me@example.com")
+                .username("deleteme")
+                .password("password123")
+                .build());
+
+        // When - Delete the user
+        assertThat(doDelete("/api/users/" + createdUser.getId()).status()).isEqualTo(204);
+
+        // Then - Verify user is deleted from database
+        assertThat(countUsers("username = 'deleteme'")).isZero();
+
+        // And - Verify 404 when trying to get or delete the deleted user
+        assertThat(doGet("/api/users/" + createdUser.getId()).status()).isEqualTo(404);
+        assertThat(doDelete("/api/users/" + createdUser.getId()).status()).isEqualTo(404);
+    }
+
+    @Test
+    void shouldDeactivateUsersInBulkAndSoftDelete() throws Exception {
+        // Given - Three users at one domain and one elsewhere, one of them read before
+        List<UserCreateRequest> batch = new ArrayList<>();
+        for (String name : List.of("alpha", "bravo", "charlie", "delta")) {
+            batch.add(UserCreateRequest.builder()
+                    .firstName("Bulk")
+                    .lastName("User")
+                    .email(name + (name.equals("delta") ? "@other.org" : "@Example.com"))
+                    .username(name + "user")
+                    .password("password123")
+                    .build());
+        }
+        ApiResponse created = doPost("/api/users/batch", new UserBatchCreateRequest(batch));
+        assertThat(created.status()).isEqualTo(200);
+        long alphaId = created.<Integer>json("$.results[0].user.id");
+        long bravoId = created.<Integer>json("$.results[1].user.id");
+        long deltaId = created.<Integer>json("$.results[3].user.id");
+        assertThat(doGet("/api/users/" + alphaId).<Boolean>json("$.active")).isTrue();
+
+        // When - The domain is deactivated, twice
+        UserStatusUpdateRequest deactivate = UserStatusUpdateRequest.builder()
+                .active(false)
+                .emailDomain("example.com")
+                .build();
+        ApiResponse deactivated = doPost("/api/users/batch/status", deactivate);
+        assertThat(deactivated.status()).isEqualTo(200);
+        assertThat(deactivated.<Integer>json("$.updated")).isEqualTo(3);
+        assertThat(doPost("/api/users/batch/status", deactivate).<Integer>json("$.updated")).isZero();
+
+        // Then - The user read before is read again, with a new version
+        ApiResponse alpha = doGet("/api/users/" + alphaId);
+        assertThat(alpha.<Boolean>json("$.active")).isFalse();
+        assertThat(alpha.<Integer>json("$.version")).isEqualTo(1);
+        assertThat(doGet("/api/users?active=true").<List<String>>json("$.content[*].username"))
+                .containsExactly("deltauser");
+
+        // And - A soft delete keeps the row and its username, but the user can no longer log in
+        assertThat(doDelete("/api/users/" + deltaId + "?soft=true").status()).isEqualTo(204);
+        assertThat(countUsers("id = " + deltaId + " and active = false")).isEqualTo(1);
+        assertThat(doPost("/api/users/login", new LoginRequest("deltauser", "password123")).status()).isEqualTo(401);
+        assertThat(doGet("/api/users/availability?username=deltauser").<Boolean>json("$.usernameAvailable")).isFalse();
+
+        // And - Users are reactivated by id, and an update without criteria is refused
+        UserStatusUpdateRequest reactivate = UserStatusUpdateRequest.builder()
+                .active(true)
+                .ids(List.of(alphaId, bravoId))
+                .build();
+        assertThat(doPost("/api/users/batch/status", reactivate).<Integer>json("$.updated")).isEqualTo(2);
+        assertThat(countUsers("active = true")).isEqualTo(2);
+        assertThat(doPost("/api/users/batch/status", UserStatusUpdateRequest.builder().active(true).build()).status())
+                .isEqualTo(400);
+    }
+
+    @Test
+    void shouldRecordCommittedChangesInOutbox() throws Exception {
+        // Given - A user created, updated and deleted, and a create that failed
+        UserCreateRequest createRequest = UserCreateRequest.builder()
+                .firstName("Outbox")
+                .lastName("User")
+                .email("outbox@example.com")
+                .username("outboxuser")
+                .password("password123")
+                .build();
+        UserResponse createdUser = createUser(createRequest);
+        assertThat(doPost("/api/users", createRequest).status()).isEqualTo(409);
+        assertThat(doPut("/api/users/" + createdUser.getId(), UserUpdateRequest.builder().lastName("Changed").build())
+                .status()).isEqualTo(200);
+        assertThat(doDelete("/api/users/" + createdUser.getId()).status()).isEqualTo(204);
+
+        // When
+        List<String> entries = queryForList("select type, user_id, payload from user_outbox order by id").stream()
+                .map(row -> row.get("type") + " " + row.get("user_id") + " " + (row.get("payload") != null))
+                .toList();
+
+        // Then - Only the committed changes are recorded, in order, with the user where there is one
+        assertThat(entries).containsExactly(
+                "CREATED " + createdUser.getId() + " true",
+                "UPDATED " + createdUser.getId() + " true",
+                "DELETED " + createdUser.getId() + " false");
+    }
+
+    @Test
+    void shouldRejectInvalidUser() throws Exception {
+        // Given
+        UserCreateRequest invalidRequest = UserCreateRequest.builder()
+                .firstName("Invalid")
+                .lastName("User")
+                .email("not-an-email")
+                .username("invaliduser")
+                .password("password123")
+                .build();
+
+        // When
+        ApiResponse response = doPost("/api/users", invalidRequest);
+
+        // Then
+        assertThat(response.status()).isEqualTo(400);
+        assertThat(response.<String>json("$.errors.email")).isNotBlank();
+        assertThat(countUsers("true")).isZero();
+    }
+
+    @Test
+    void shouldReturnConflictWhenCreatingUserWithExistingEmail() throws Exception {
+        // Given - Create a user
+        createUser(UserCreateRequest.builder()
+                .firstName("First")
+                .lastName("User")
+                .email("duplicate@example.com")
+                .username("firstuser")
+                .password("password123")
+                .build());
+
+        // When - Try to create another user with the same email
+        UserCreateRequest duplicateEmailUser = UserCreateRequest.builder()
+                .firstName("Second")
+                .lastName("User")
+                .email("duplicate@example.com") // Same email
+                .username("seconduser")
+                .password("password456")
+                .build();
+
+        // Then - Expect conflict response
+        assertThat(doPost("/api/users", duplicateEmailUser).status()).isEqualTo(409);
+    }
+
+    @Test
+    void shouldReturnConflictWhenUsernameOrUpdatedEmailIsTaken() throws Exception {
+        // Given - Two users
+        UserCreateRequest firstUser = UserCreateRequest.builder()
+                .firstName("First")
+                .lastName("User")
+                .email("first@example.com")
+                .username("firstuser")
+                .password("password123")
+                .build();
+        createUser(firstUser);
+        UserResponse secondUser = createUser(UserCreateRequest.builder()
+                .firstName("Second")
+                .lastName("User")
+                .email("second@example.com")
+                .username("seconduser")
+                .password("password123")
+                .build());
+
+        // When & Then - Reusing the first user's username is rejected, whatever its casing
+        firstUser.setEmail("third@example.com");
+        firstUser.setUsername("FirstUser");
+        ApiResponse usernameTaken = doPost("/api/users", firstUser);
+        assertThat(usernameTaken.status()).isEqualTo(409);
+        assertThat(usernameTaken.<String>json("$.message")).isEqualTo("Username already in use: FirstUser");
+
+        // And - Moving the second user onto the first user's email is rejected
+        ApiResponse emailTaken = doPut("/api/users/" + secondUser.getId(),
+                UserUpdateRequest.builder().email("First@Example.com").build());
+        assertThat(emailTaken.status()).isEqualTo(409);
+        assertThat(emailTaken.<String>json("$.message")).isEqualTo("Email already in use: First@Example.com");
+
+        assertThat(countUsers("id = " + secondUser.getId() + " and email = 'second@example.com'")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldPageThroughUsersWithCursor() throws Exception {
+        // Given - Create five users
+        for (int i = 1; i <= 5; i++) {
+            createUser(UserCreateRequest.builder()
+                    .firstName("Page")
+                    .lastName("User" + i)
+                    .email("page" + i + "@example.com")
+                    .username("pageuser" + i)
+                    .password("password123")
+                    .build());
+        }
+
+        // When - Walk the pages two users at a time
+        List<String> usernames = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ApiResponse response = doGet("/api/users?limit=2&sort=createdAt" + (cursor != null ? "&cursor=" + cursor : ""));
+            assertThat(response.status()).isEqualTo(200);
+            UserPageResponse page = objectMapper.readValue(response.body(), UserPageResponse.class);
+            page.getContent().forEach(user -> usernames.add(user.getUsername()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Then - Every user is returned exactly once, in creation order
+        assertThat(pages).isEqualTo(3);
+        assertThat(usernames).containsExactly("pageuser1", "pageuser2", "pageuser3", "pageuser4", "pageuser5");
+    }
+
+    @Test
+    void shouldSearchUsersRankedAndPaged() throws Exception {
+        // Given - An exact, a prefix and a substring match, and a user that does not match
+        String[][] users = {
+                {"Ann", "Goldsmith", "gold@example.com", "annie"},
+                {"Sam", "Jones", "sam@example.com", "smithers"},
+                {"John", "Doe", "john@example.com", "smith"},
+                {"Jane", "Roe", "jane@example.com", "jroe"}
+        };
+        for (String[] user : users) {
+            createUser(UserCreateRequest.builder()
+                    .firstName(user[0])
+                    .lastName(user[1])
+                    .email(user[2])
+                    .username(user[3])
+                    .password("password123")
+                    .build());
+        }
+
+        // When - Walk the results two at a time
+        List<String> usernames = new ArrayList<>();
+        String cursor = null;
+        do {
+            ApiResponse response = doGet("/api/users/search?q=SMITH&limit=2" + (cursor != null ? "&cursor=" + cursor : ""));
+            assertThat(response.status()).isEqualTo(200);
+            UserPageResponse page = objectMapper.readValue(response.body(), UserPageResponse.class);
+            page.getContent().forEach(user -> usernames.add(user.getUsername()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertThat(usernames).containsExactly("smith", "smithers", "annie");
+
+        // And - Queries that are too short to be selective are refused
+        assertThat(doGet("/api/users/search?q=sm").status()).isEqualTo(400);
+    }
+
+    @Test
+    void shouldKeepSuggestionsInSyncWithWrites() throws Exception {
+        // Given
+        List<Long> userIds = new ArrayList<>();
+        for (String name : List.of("Marie", "Mario", "Luigi")) {
+            userIds.add(createUser(UserCreateRequest.builder()
+                    .firstName(name)
+                    .lastName("Rossi")
+                    .email(name + "@Example.com")
+                    .username(name.toLowerCase())
+                    .password("password123")
+                    .build()).getId());
+        }
+
+        // When & Then - Matched ignoring case, usernames before emails of the same text
+        ApiResponse suggestions = doGet("/api/users/suggest?prefix=MAR");
+        assertThat(suggestions.status()).isEqualTo(200);
+        assertThat(suggestions.<List<String>>json("$[*].value"))
+                .containsExactly("marie", "marie@example.com", "mario", "mario@example.com");
+        assertThat(suggestions.<String>json("$[1].field")).isEqualTo("email");
+        assertThat(doGet("/api/users/suggest?prefix=MAR&limit=3").<List<String>>json("$[*].value"))
+                .containsExactly("marie", "marie@example.com", "mario");
+
+        // When - One user changes email and the other is deleted
+        assertThat(doPatch("/api/users/" + userIds.get(1), "{\"email\": \"zed@example.com\"}").status()).isEqualTo(200);
+        assertThat(doDelete("/api/users/" + userIds.get(0)).status()).isEqualTo(204);
+
+        // Then
+        assertThat(doGet("/api/users/suggest?prefix=mar&limit=5").<List<String>>json("$[*].value"))
+                .containsExactly("mario");
+        assertThat(doGet("/api/users/suggest?prefix=ze").<List<String>>json("$[*].value"))
+                .containsExactly("zed@example.com");
+
+        // And - A prefix is required
+        assertThat(doGet("/api/users/suggest").status()).isEqualTo(400);
+    }
+
+    @Test
+    void shouldExportAllUsersAsNdjson() throws Exception {
+        // Given - Create three users
+        for (int i = 1; i <= 3; i++) {
+            createUser(UserCreateRequest.builder()
+                    .firstName("Export")
+                    .lastName("User" + i)
+                    .email("export" + i + "@example.com")
+                    .username("exportuser" + i)
+                    .password("password123")
+                    .build());
+        }
+
+        // When
+        ApiResponse response = doGet("/api/users/export", HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE);
+
+        // Then - One JSON document per line, in id order, without passwords
+        assertThat(response.status()).isEqualTo(200);
+        List<String> usernames = new ArrayList<>();
+        for (String line : response.body().split("\\n")) {
+            assertThat(line).doesNotContain("password");
+            usernames.add(objectMapper.readValue(line, UserResponse.class).getUsername());
+        }
+        assertThat(usernames).containsExactly("exportuser1", "exportuser2", "exportuser3");
+    }
+
+    @Test
+    void shouldCreateUsersInBatch() throws Exception {
+        // Given - One existing user and a batch that clashes with it once
+        createUser(UserCreateRequest.builder()
+                .firstName("Existing")
+                .lastName("User")
+                .email("existing@example.com")
+                .username("existinguser")
+                .password("password123")
+                .build());
+
+        List<UserCreateRequest> batch = new ArrayList<>();
+        for (int i = 1; i <= 120; i++) {
+            batch.add(UserCreateRequest.builder()
+                    .firstName("Batch")
+                    .lastName("User" + i)
+                    .email("batch" + i + "@example.com")
+                    .username("batchuser" + i)
+                    .password("password123")
+                    .build());
+        }
+        batch.add(UserCreateRequest.builder()
+                .firstName("Clashing")
+                .lastName("User")
+                .email("clash@example.com")
+                .username("existinguser")
+                .password("password123")
+                .build());
+
+        // When
+        ApiResponse response = doPost("/api/users/batch", new UserBatchCreateRequest(batch));
+
+        // Then
+        assertThat(response.status()).isEqualTo(200);
+        assertThat(response.<Integer>json("$.created")).isEqualTo(120);
+        assertThat(response.<Integer>json("$.conflicts")).isEqualTo(1);
+        assertThat(response.<String>json("$.results[120].status")).isEqualTo("CONFLICT");
+        assertThat(countUsers("true")).isEqualTo(121);
+        assertThat(countUsers("username = 'batchuser120'")).isEqualTo(1);
+
+        // And - Larger batches are refused before any password is hashed
+        List<UserCreateRequest> oversized = Collections.nCopies(UserBatchCreateRequest.MAX_BATCH_SIZE + 1, batch.get(0));
+        assertThat(doPost("/api/users/batch", new UserBatchCreateRequest(oversized)).status()).isEqualTo(400);
+    }
+
+    @Test
+    void shouldTreatEmailsAndUsernamesCaseInsensitively() throws Exception {
+        // Given
+        createUser(UserCreateRequest.builder()
+                .firstName("Mixed")
+                .lastName("Case")
+                .email("Mixed.Case@Example.com")
+                .username("MixedCase")
+                .password("password123")
+                .build());
+
+        // When & Then - Found in any casing, and returned as entered
+        assertThat(doGet("/api/users/email/mixed.case@example.COM").<String>json("$.email"))
+                .isEqualTo("Mixed.Case@Example.com");
+        assertThat(doGet("/api/users/username/MIXEDCASE").<String>json("$.username")).isEqualTo("MixedCase");
+        ApiResponse availability = doGet("/api/users/availability?username=mixedcase&email=MIXED.CASE@example.com");
+        assertThat(availability.<Boolean>json("$.usernameAvailable")).isFalse();
+        assertThat(availability.<Boolean>json("$.emailAvailable")).isFalse();
+
+        // And - Another account that differs only in case is a conflict, alone or in a batch
+        UserCreateRequest sameEmail = UserCreateRequest.builder()
+                .firstName("Same")
+                .lastName("Email")
+                .email("mixed.case@example.com")
+                .username("sameemail")
+                .password("password123")
+                .build();
+        assertThat(doPost("/api/users", sameEmail).status()).isEqualTo(409);
+        UserCreateRequest sameUsername = UserCreateRequest.builder()
+                .firstName("Same")
+                .lastName("Username")
+                .email("same.username@example.com")
+                .username("mixedCASE")
+                .password("password123")
+                .build();
+        assertThat(doPost("/api/users/batch", new UserBatchCreateRequest(List.of(sameUsername))).<Integer>json("$.conflicts"))
+                .isEqualTo(1);
+        assertThat(doPost("/api/users/login", new LoginRequest("mixedcase", "password123")).status()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldReportUsernameAndEmailAvailability() throws Exception {
+        // Given
+        createUser(UserCreateRequest.builder()
+                .firstName("Taken")
+                .lastName("User")
+                .email("taken@example.com")
+                .username("takenuser")
+                .password("password123")
+                .build());
+
+        // When
+        ApiResponse response = doGet("/api/users/availability?username=takenuser&email=free@example.com");
+
+        // Then
+        assertThat(response.status()).isEqualTo(200);
+        assertThat(response.<Boolean>json("$.usernameAvailable")).isFalse();
+        assertThat(response.<Boolean>json("$.emailAvailable")).isTrue();
+    }
+
+    protected ApiResponse doGet(String uri) throws Exception {
+        return exchange(HttpMethod.GET, uri, new HttpHeaders(), null);
+    }
+
+    protected ApiResponse doGet(String uri, String header, String value) throws Exception {
+        return exchange(HttpMethod.GET, uri, headers(header, value), null);
+    }
+
+    protected ApiResponse doPost(String uri, Object body) throws Exception {
+        return exchange(HttpMethod.POST, uri, headers(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE),
+                objectMapper.writeValueAsString(body));
+    }
+
+    protected ApiResponse doPut(String uri, Object body) throws Exception {
+        return exchange(HttpMethod.PUT, uri, headers(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE),
+                objectMapper.writeValueAsString(body));
+    }
+
+    protected ApiResponse doPatch(String uri, String mergePatch) throws Exception {
+        return exchange(HttpMethod.PATCH, uri, headers(HttpHeaders.CONTENT_TYPE, MERGE_PATCH_JSON),
+                mergePatch);
+    }
+
+    protected ApiResponse doPatch(String uri, String mergePatch, String ifMatch) throws Exception {
+        HttpHeaders headers = headers(HttpHeaders.CONTENT_TYPE, MERGE_PATCH_JSON);
+        headers.setIfMatch(ifMatch);
+        return exchange(HttpMethod.PATCH, uri, headers, mergePatch);
+    }
+
+    protected ApiResponse doDelete(String uri) throws Exception {
+        return exchange(HttpMethod.DELETE, uri, new HttpHeaders(), null);
+    }
+
+    protected UserResponse createUser(UserCreateRequest request) throws Exception {
+        ApiResponse response = doPost("/api/users", request);
+        assertThat(response.status()).isEqualTo(201);
+        return objectMapper.readValue(response.body(), UserResponse.class);
+    }
+
+    protected long countUsers(String condition) {
+        return ((Number) queryForList("select count(*) as total from users where " + condition)
+                .get(0).get("total")).longValue();
+    }
+
+    private static HttpHeaders headers(String name, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(name, value);
+        return headers;
+    }
+
+    /** Status, headers and body of a response, whichever stack sent it. */
+    protected record ApiResponse(int status, HttpHeaders headers, String body) {
+
+        /** Reads a value from the JSON body, as a list for paths that match several. */
+        <T> T json(String path) {
+            return JsonPath.read(body, path);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.usermanagement.api.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserResponse;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against two embedded databases: the primary, and a replica that never receives
+ * the primary's writes, so a read shows which of them served it. A second replica is
+ * unreachable.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "user.read-replicas.enabled=true",
+        "user.read-replicas.replicas[0].url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:users-schema.sql'",
+        "user.read-replicas.replicas[1].url=jdbc:h2:tcp://localhost:1/unreachable",
+        "user.read-replicas.connection-timeout=250ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReadReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldReadFromReplicaUnlessClientHasJustWritten() throws Exception {
+        // Given - A user written to the primary
+        UserCreateRequest createRequest = UserCreateRequest.builder()
+                .firstName("Routed")
+                .lastName("User")
+                .email("routed@example.com")
+                .username("routeduser")
+                .password("password123")
+                .build();
+        MvcResult createResult = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long userId = objectMapper.readValue(
+                createResult.getResponse().getContentAsString(), UserResponse.class).getId();
+        Cookie readPrimary = createResult.getResponse().getCookie("read-primary-until");
+        assertThat(readPrimary).isNotNull();
+
+        // When & Then - Other clients read the replica, which has not seen the user, skipping the unreachable one
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/users"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", hasSize(0)));
+        }
+
+        // And - The client that wrote reads its own write from the primary
+        mockMvc.perform(get("/api/users").cookie(readPrimary))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username", is("routeduser")));
+
+        // And - A lookup that fills the cache reads the primary, so stale rows are never cached
+        mockMvc.perform(get("/api/users/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username", is("routeduser")));
+
+        // And - An expired window no longer pins the client
+        mockMvc.perform(get("/api/users").cookie(new Cookie("read-primary-until", "1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+
+        // And - A forged time beyond one window from now is ignored
+        mockMvc.perform(get("/api/users").cookie(new Cookie("read-primary-until", Long.toString(Long.MAX_VALUE))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+}
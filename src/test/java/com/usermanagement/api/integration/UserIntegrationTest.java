@@ -1,23 +1,57 @@
 package com.usermanagement.api.integration;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.api.cache.UserCache;
+import com.usermanagement.api.cache.UserCacheInvalidator;
+import com.usermanagement.api.dto.LoginRequest;
+import com.usermanagement.api.dto.UserBatchCreateRequest;
 import com.usermanagement.api.dto.UserCreateRequest;
 import com.usermanagement.api.dto.UserResponse;
 import com.usermanagement.api.dto.UserUpdateRequest;
+import com.usermanagement.api.index.UserSuggestIndex;
+import com.usermanagement.api.index.UserUniquenessIndex;
+import com.usermanagement.api.limit.ConcurrencyLimiter;
+import com.usermanagement.api.limit.RequestPriority;
+import com.usermanagement.api.event.UserChangedEvent;
 import com.usermanagement.api.model.User;
+import com.usermanagement.api.model.UserOutboxEntry;
+import com.usermanagement.api.outbox.InMemoryUserChangeSink;
+import com.usermanagement.api.outbox.UserChangeMessage;
+import com.usermanagement.api.outbox.UserOutboxPublisher;
+import com.usermanagement.api.repository.UserOutboxRepository;
 import com.usermanagement.api.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -26,21 +60,57 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 @ActiveProfiles("test")
-public class UserIntegrationTest {
+public class UserIntegrationTest extends AbstractUserApiIntegrationTest {
 
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private JdbcTemplate jdbcTemplate;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserSuggestIndex suggestIndex;
+
+    @Autowired
+    private UserUniquenessIndex uniquenessIndex;
+
+    @Autowired
+    private UserCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private UserOutboxRepository outboxRepository;
+
+    @Autowired
+    private UserOutboxPublisher outboxPublisher;
+
+    @Autowired
+    private InMemoryUserChangeSink changeSink;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
     @BeforeEach
     void setUp() {
         userRepository.deleteAll();
+        outboxRepository.deleteAllInBatch();
+        changeSink.clear();
+        userCache.invalidateAll();
+        // Bulk deletes bypass the service, so its change events never reach the index
+        suggestIndex.rebuild();
     }
 
     @AfterEach
@@ -48,57 +118,184 @@ public class UserIntegrationTest {
         userRepository.deleteAll();
     }
 
+    @Override
+    protected ApiResponse exchange(HttpMethod method, String uri, HttpHeaders headers, String body) throws Exception {
+        MockHttpServletRequestBuilder request = request(method, URI.create(uri)).headers(headers);
+        if (body != null) {
+            request.content(body);
+        }
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+        HttpHeaders responseHeaders = new HttpHeaders();
+        response.getHeaderNames().forEach(name -> responseHeaders.addAll(name, response.getHeaders(name)));
+        return new ApiResponse(response.getStatus(), responseHeaders, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    protected List<Map<String, Object>> queryForList(String sql) {
+        return jdbcTemplate.queryForList(sql);
+    }
+
     @Test
-    void shouldCreateAndRetrieveUser() throws Exception {
-        // Given
+    void shouldPublishCommittedChangesThroughOutbox() throws Exception {
+        // Given - A user created, updated and deleted, and a create that failed
         UserCreateRequest createRequest = UserCreateRequest.builder()
-                .firstName("John")
-                .lastName("Doe")
-                .email("john.doe@example.com")
-                .username("johndoe")
+                .firstName("Outbox")
+                .lastName("User")
+                .email("outbox@example.com")
+                .username("outboxuser")
                 .password("password123")
                 .build();
+        MvcResult createResult = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long userId = objectMapper.readValue(
+                createResult.getResponse().getContentAsString(), UserResponse.class).getId();
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/users/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UserUpdateRequest.builder().lastName("Changed").build())))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/users/" + userId))
+                .andExpect(status().isNoContent());
+        assertThat(outboxRepository.count()).isEqualTo(3);
+        assertThat(changeSink.getMessages()).isEmpty();
 
-        // When - Create user
-        MvcResult result = mockMvc.perform(post("/api/users")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(createRequest)))
+        // When
+        long published = outboxPublisher.publishPending();
+
+        // Then - Only the committed changes are sent, in order, and the outbox is emptied
+        assertThat(published).isEqualTo(3);
+        assertThat(outboxRepository.count()).isZero();
+        List<UserChangeMessage> messages = changeSink.getMessages();
+        assertThat(messages).extracting(UserChangeMessage::getType)
+                .containsExactly(UserChangedEvent.Type.CREATED, UserChangedEvent.Type.UPDATED, UserChangedEvent.Type.DELETED);
+        assertThat(messages).extracting(UserChangeMessage::getUserId).containsOnly(userId);
+        assertThat(messages).extracting(UserChangeMessage::getId).isSorted();
+        assertThat(objectMapper.readValue(messages.get(1).getUser(), UserResponse.class))
+                .extracting(UserResponse::getLastName, UserResponse::getVersion)
+                .containsExactly("Changed", 1L);
+        assertThat(messages.get(2).getUser()).isNull();
+        assertThat(objectMapper.writeValueAsString(messages.get(0))).contains("\"user\":{\"id\":" + userId);
+        assertThat(outboxPublisher.publishPending()).isZero();
+    }
+
+    @Test
+    void shouldLetConcurrentPublishersClaimDisjointBatches() throws Exception {
+        // Given - Three changes, two of them claimed by a publisher that has not committed yet
+        List<UserCreateRequest> batch = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            batch.add(UserCreateRequest.builder()
+                    .firstName("Claimed")
+                    .lastName("User" + i)
+                    .email("claimed" + i + "@example.com")
+                    .username("claimeduser" + i)
+                    .password("password123")
+                    .build());
+        }
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserBatchCreateRequest(batch))))
+                .andExpect(status().isOk());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<List<UserOutboxEntry>> first = executor.submit(() -> transactionTemplate.execute(status -> {
+            List<UserOutboxEntry> entries = outboxRepository.claimOldest(2);
+            claimed.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return entries;
+        }));
+
+        try {
+            assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // When - A second publisher claims while the first holds its rows
+            List<UserOutboxEntry> second = transactionTemplate.execute(status ->
+                    outboxRepository.claimOldest(10));
+
+            // Then - It skips the locked rows instead of waiting for them
+            release.countDown();
+            assertThat(first.get(10, TimeUnit.SECONDS)).hasSize(2);
+            assertThat(second).hasSize(1);
+            assertThat(second.get(0).getId()).isGreaterThan(first.get().get(1).getId());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldStreamCommittedChangesAndResumeFromLastEventId() throws Exception {
+        // Given - A subscriber to the change feed
+        MvcResult stream = mockMvc.perform(get("/api/users/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When - A user is created and updated, and a duplicate create fails
+        UserCreateRequest createRequest = UserCreateRequest.builder()
+                .firstName("Feed")
+                .lastName("User")
+                .email("feed@example.com")
+                .username("feeduser")
+                .password("password123")
+                .build();
+        MvcResult createResult = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.firstName", is("John")))
-                .andExpect(jsonPath("$.lastName", is("Doe")))
-                .andExpect(jsonPath("$.email", is("john.doe@example.com")))
-                .andExpect(jsonPath("$.username", is("johndoe")))
                 .andReturn();
+        Long userId = objectMapper.readValue(
+                createResult.getResponse().getContentAsString(), UserResponse.class).getId();
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/users/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UserUpdateRequest.builder().lastName("Changed").build())))
+                .andExpect(status().isOk());
 
-        // Extract user ID from response
-        UserResponse createdUser = objectMapper.readValue(
-                result.getResponse().getContentAsString(), UserResponse.class);
-        Long userId = createdUser.getId();
+        // Then - Both committed changes arrive as events, in order
+        String events = awaitContent(stream, "event:updated");
+        assertThat(events.indexOf("event:created")).isLessThan(events.indexOf("event:updated"));
+        assertThat(events).contains("\"username\":\"feeduser\"", "\"lastName\":\"Changed\"");
+        String createdId = events.substring(events.indexOf("id:") + 3, events.indexOf('\n', events.indexOf("id:")));
 
-        // Then - Verify user exists in database
-        Optional<User> savedUser = userRepository.findById(userId);
-        assertThat(savedUser).isPresent();
-        assertThat(savedUser.get().getFirstName()).isEqualTo("John");
-        assertThat(savedUser.get().getEmail()).isEqualTo("john.doe@example.com");
+        // And - A subscriber resuming after the create only gets the update
+        MvcResult resumed = mockMvc.perform(get("/api/users/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", createdId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String replayed = awaitContent(resumed, "event:updated");
+        assertThat(replayed).doesNotContain("event:created");
 
-        // And - Retrieve user by ID
-        mockMvc.perform(get("/api/users/" + userId))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id", is(userId.intValue())))
-                .andExpect(jsonPath("$.firstName", is("John")))
-                .andExpect(jsonPath("$.lastName", is("Doe")))
-                .andExpect(jsonPath("$.email", is("john.doe@example.com")))
-                .andExpect(jsonPath("$.username", is("johndoe")));
+        MvcResult reset = mockMvc.perform(get("/api/users/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "unknown-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(awaitContent(reset, "event:reset")).doesNotContain("event:updated");
     }
 
     @Test
-    void shouldUpdateUser() throws Exception {
-        // Given - Create a user
+    void shouldNotServeStaleCachedAliasesAfterEmailChange() throws Exception {
+        // Given - A user whose lookups have been cached
         UserCreateRequest createRequest = UserCreateRequest.builder()
-                .firstName("Jane")
-                .lastName("Smith")
-                .email("jane.smith@example.com")
-                .username("janesmith")
+                .firstName("Cached")
+                .lastName("User")
+                .email("cached@example.com")
+                .username("cacheduser")
                 .password("password123")
                 .build();
 
@@ -107,97 +304,376 @@ public class UserIntegrationTest {
                 .content(objectMapper.writeValueAsString(createRequest)))
                 .andExpect(status().isCreated())
                 .andReturn();
+        Long userId = objectMapper.readValue(
+                createResult.getResponse().getContentAsString(), UserResponse.class).getId();
 
-        UserResponse createdUser = objectMapper.readValue(
-                createResult.getResponse().getContentAsString(), UserResponse.class);
-        Long userId = createdUser.getId();
+        mockMvc.perform(get("/api/users/email/cached@example.com")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/username/cacheduser")).andExpect(status().isOk());
+        long hitsBefore = userCache.stats().getHits();
+        mockMvc.perform(get("/api/users/" + userId)).andExpect(status().isOk());
+        assertThat(userCache.stats().getHits()).isEqualTo(hitsBefore + 1);
 
-        // When - Update the user
+        // When - The email changes
         UserUpdateRequest updateRequest = UserUpdateRequest.builder()
-                .firstName("Jane Updated")
-                .lastName("Smith Updated")
-                .email("jane.updated@example.com")
+                .email("changed@example.com")
                 .build();
-
         mockMvc.perform(put("/api/users/" + userId)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk());
+
+        // Then - No lookup returns the old email
+        mockMvc.perform(get("/api/users/email/cached@example.com"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/email/changed@example.com"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.firstName", is("Jane Updated")))
-                .andExpect(jsonPath("$.lastName", is("Smith Updated")))
-                .andExpect(jsonPath("$.email", is("jane.updated@example.com")));
+                .andExpect(jsonPath("$.id", is(userId.intValue())));
+        mockMvc.perform(get("/api/users/username/cacheduser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is("changed@example.com")));
+        mockMvc.perform(get("/api/users/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is("changed@example.com")));
+    }
 
-        // Then - Verify user is updated in database
-        Optional<User> updatedUser = userRepository.findById(userId);
-        assertThat(updatedUser).isPresent();
-        assertThat(updatedUser.get().getFirstName()).isEqualTo("Jane Updated");
-        assertThat(updatedUser.get().getLastName()).isEqualTo("Smith Updated");
-        assertThat(updatedUser.get().getEmail()).isEqualTo("jane.updated@example.com");
+    @Test
+    void shouldLearnUsernamesTakenThroughOtherNodesOnRefresh() throws Exception {
+        // Given - A user written by another node, whose change events never reach this one
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.save(User.builder()
+                .firstName("Other")
+                .lastName("Node")
+                .email("other.node@example.com")
+                .username("othernode")
+                .password("password123")
+                .createdAt(now)
+                .updatedAt(now)
+                .active(true)
+                .build());
+
+        // When
+        uniquenessIndex.refresh();
+
+        // Then
+        assertThat(uniquenessIndex.mightContainUsername("OtherNode")).isTrue();
+        assertThat(uniquenessIndex.mightContainEmail("other.node@example.com")).isTrue();
+        mockMvc.perform(get("/api/users/availability")
+                        .param("username", "othernode")
+                        .param("email", "other.node@example.com"))
+                .andExpect(jsonPath("$.usernameAvailable", is(false)))
+                .andExpect(jsonPath("$.emailAvailable", is(false)));
     }
 
     @Test
-    void shouldDeleteUser() throws Exception {
-        // Given - Create a user
+    void shouldDropCachedUsersUpdatedThroughOtherNodesOnSync() throws Exception {
+        // Given - A cached user
+        User saved = userRepository.save(User.builder()
+                .firstName("Cached")
+                .lastName("User")
+                .email("cached.user@example.com")
+                .username("cacheduser")
+                .password("password123")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .active(true)
+                .build());
+        mockMvc.perform(get("/api/users/" + saved.getId()))
+                .andExpect(jsonPath("$.firstName", is("Cached")));
+
+        // When - Another node updates it, and this node looks for such updates
+        User changed = userRepository.findById(saved.getId()).orElseThrow();
+        changed.setFirstName("Changed");
+        changed.setUpdatedAt(LocalDateTime.now());
+        userRepository.save(changed);
+        cacheInvalidator.sync();
+
+        // Then
+        mockMvc.perform(get("/api/users/" + saved.getId()))
+                .andExpect(jsonPath("$.firstName", is("Changed")));
+    }
+
+    @Test
+    void shouldWriteWithMinimalRoundTrips() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Every write also inserts into the outbox, whose ids take a sequence call once per 50 entries
+
+        // Create - a single INSERT, one into the outbox, plus a sequence call once per 50 ids of each
         UserCreateRequest createRequest = UserCreateRequest.builder()
-                .firstName("Delete")
-                .lastName("Me")
-                .email("delete.me@example.com")
-                .username("deleteme")
+                .firstName("Lean")
+                .lastName("Writer")
+                .email("lean@example.com")
+                .username("leanwriter")
                 .password("password123")
                 .build();
 
+        statistics.clear();
         MvcResult createResult = mockMvc.perform(post("/api/users")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(createRequest)))
                 .andExpect(status().isCreated())
                 .andReturn();
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2);
+        Long userId = objectMapper.readValue(
+                createResult.getResponse().getContentAsString(), UserResponse.class).getId();
 
-        UserResponse createdUser = objectMapper.readValue(
-                createResult.getResponse().getContentAsString(), UserResponse.class);
-        Long userId = createdUser.getId();
+        // Update - one SELECT and one UPDATE, with no uniqueness pre-check, and the outbox INSERT
+        UserUpdateRequest updateRequest = UserUpdateRequest.builder()
+                .email("lean.updated@example.com")
+                .build();
 
-        // When - Delete the user
+        statistics.clear();
+        mockMvc.perform(put("/api/users/" + userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isBetween(3L, 4L);
+
+        // Patch - an UPDATE of the patched columns, one SELECT of a view for the response, and the outbox INSERT
+        statistics.clear();
+        mockMvc.perform(patch("/api/users/" + userId)
+                .contentType("application/merge-patch+json")
+                .content("{\"active\": false}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active", is(false)))
+                .andExpect(jsonPath("$.email", is("lean.updated@example.com")));
+        assertThat(statistics.getPrepareStatementCount()).isBetween(3L, 4L);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        // Reads - one SELECT of the response columns each, without loading entities
+        statistics.clear();
+        mockMvc.perform(get("/api/users").param("limit", "5"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        // Delete - a single DELETE checked by its row count, and the outbox INSERT
+        statistics.clear();
         mockMvc.perform(delete("/api/users/" + userId))
                 .andExpect(status().isNoContent());
+        assertThat(statistics.getPrepareStatementCount()).isBetween(2L, 3L);
 
-        // Then - Verify user is deleted from database
-        Optional<User> deletedUser = userRepository.findById(userId);
-        assertThat(deletedUser).isEmpty();
+        statistics.clear();
+        mockMvc.perform(delete("/api/users/" + userId))
+                .andExpect(status().isNotFound());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
 
-        // And - Verify 404 when trying to get deleted user
+    @Test
+    void shouldNotLoseConcurrentUpdates() throws Exception {
+        // Given
+        UserCreateRequest createRequest = UserCreateRequest.builder()
+                .firstName("V")
+                .lastName("Versioned")
+                .email("versioned@example.com")
+                .username("versioned")
+                .password("password123")
+                .build();
+        Long userId = objectMapper.readValue(mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.version", is(0)))
+                .andReturn().getResponse().getContentAsString(), UserResponse.class).getId();
+
+        // When - Every writer appends one character to the first name it last read
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<Integer>> attempts = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                attempts.add(executor.submit(() -> appendToFirstName(userId)));
+            }
+            for (Future<Integer> attempt : attempts) {
+                assertThat(attempt.get(30, TimeUnit.SECONDS)).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then - None of the appends was overwritten
         mockMvc.perform(get("/api/users/" + userId))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("V" + "x".repeat(writers))))
+                .andExpect(jsonPath("$.version", is(writers)))
+                .andExpect(header().string("ETag", "\"" + Long.toHexString(userId) + "-" + Integer.toHexString(writers) + "\""));
+
+        // And - Writes against a version that is gone are refused
+        UserUpdateRequest staleUpdate = UserUpdateRequest.builder().firstName("Stale").build();
+        mockMvc.perform(put("/api/users/" + userId)
+                        .header("If-Match", "\"" + Long.toHexString(userId) + "-0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(staleUpdate)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/users/" + userId)
+                        .header("If-Match", "\"" + Long.toHexString(userId) + "-0\""))
+                .andExpect(status().isPreconditionFailed());
+        assertThat(userRepository.findById(userId)).get()
+                .extracting(User::getFirstName).isEqualTo("V" + "x".repeat(writers));
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    private int appendToFirstName(Long userId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            MvcResult current = mockMvc.perform(get("/api/users/" + userId)).andReturn();
+            UserResponse user = objectMapper.readValue(current.getResponse().getContentAsString(), UserResponse.class);
+            UserUpdateRequest update = UserUpdateRequest.builder().firstName(user.getFirstName() + "x").build();
+            int status = mockMvc.perform(put("/api/users/" + userId)
+                            .header("If-Match", current.getResponse().getHeader("ETag"))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(update)))
+                    .andReturn().getResponse().getStatus();
+            if (status != 412 && status != 409) {
+                return status;
+            }
+        }
+        return 412;
     }
 
     @Test
-    void shouldReturnConflictWhenCreatingUserWithExistingEmail() throws Exception {
-        // Given - Create a user
-        UserCreateRequest firstUser = UserCreateRequest.builder()
-                .firstName("First")
+    void shouldStoreHashedPasswordsAndLogIn() throws Exception {
+        // Given - A new user, and one whose password predates hashing
+        UserCreateRequest createRequest = UserCreateRequest.builder()
+                .firstName("Login")
                 .lastName("User")
-                .email("duplicate@example.com")
-                .username("firstuser")
+                .email("login@example.com")
+                .username("loginuser")
                 .password("password123")
                 .build();
-
         mockMvc.perform(post("/api/users")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(firstUser)))
+                .content(objectMapper.writeValueAsString(createRequest)))
                 .andExpect(status().isCreated());
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.save(User.builder()
+                .firstName("Legacy")
+                .lastName("User")
+                .email("legacy@example.com")
+                .username("legacyuser")
+                .password("legacypassword")
+                .createdAt(now)
+                .updatedAt(now)
+                .active(true)
+                .build());
+
+        // Then - The password is stored as a BCrypt hash
+        assertThat(userRepository.findByNormalizedUsername("loginuser").get().getPassword()).startsWith("$2a$");
+
+        // And - Logging in works with the right password only
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("loginuser", "password123"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username", is("loginuser")))
+                .andExpect(jsonPath("$.password").doesNotExist());
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("loginuser", "wrongpassword"))))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("nobody", "password123"))))
+                .andExpect(status().isUnauthorized());
+
+        // And - A plain-text password is replaced by a hash on the first successful login
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("legacyuser", "legacypassword"))))
+                .andExpect(status().isOk());
+        assertThat(userRepository.findByNormalizedUsername("legacyuser").get().getPassword()).startsWith("$2a$");
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("legacyuser", "legacypassword"))))
+                .andExpect(status().isOk());
+    }
 
-        // When - Try to create another user with the same email
-        UserCreateRequest duplicateEmailUser = UserCreateRequest.builder()
-                .firstName("Second")
+    @Test
+    void shouldExposeServiceMetricsForPrometheus() throws Exception {
+        // Given - One successful create and one failed lookup
+        UserCreateRequest createRequest = UserCreateRequest.builder()
+                .firstName("Metered")
                 .lastName("User")
-                .email("duplicate@example.com") // Same email
-                .username("seconduser")
-                .password("password456")
+                .email("metered@example.com")
+                .username("metereduser")
+                .password("password123")
                 .build();
 
-        // Then - Expect conflict response
         mockMvc.perform(post("/api/users")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(duplicateEmailUser)))
-                .andExpect(status().isConflict());
+                .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/users/email/missing@example.com"))
+                .andExpect(status().isNotFound());
+
+        // When
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        // Then - Service timers with histograms, error counts by status, repository timers and pool gauges
+        assertThat(metrics)
+                .contains("user_service_operations_seconds_bucket{application=\"user-management-api\",operation=\"createUser\",outcome=\"SUCCESS\"")
+                .contains("user_service_errors_total{application=\"user-management-api\",operation=\"getUserByEmail\",status=\"404\"")
+                .contains("user_service_statements_count{application=\"user-management-api\",operation=\"createUser\"")
+                .contains("spring_data_repository_invocations_seconds_bucket")
+                .contains("user_password_hashing_seconds_count{application=\"user-management-api\",operation=\"hash\"")
+                .contains("hikaricp_connections_active")
+                .contains("user_concurrency_limit")
+                .contains("user_concurrency_inflight");
+    }
+
+    @Test
+    void shouldShedListsBeforeLookupsWhenOverLimit() throws Exception {
+        // Given - A user, and as many lists in flight as their share of the limit allows
+        UserCreateRequest createRequest = UserCreateRequest.builder()
+                .firstName("Limited")
+                .lastName("User")
+                .email("limited@example.com")
+                .username("limiteduser")
+                .password("password123")
+                .build();
+        MvcResult result = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long userId = objectMapper.readValue(result.getResponse().getContentAsString(), UserResponse.class).getId();
+
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        ConcurrencyLimiter.Permit permit;
+        while ((permit = concurrencyLimiter.tryAcquire(RequestPriority.BULK)) != null) {
+            permits.add(permit);
+        }
+
+        try {
+            // When & Then - Another list is turned away at once
+            mockMvc.perform(get("/api/users"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+
+            // And - Lookups are still served
+            mockMvc.perform(get("/api/users/" + userId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.username", is("limiteduser")));
+        } finally {
+            permits.forEach(ConcurrencyLimiter.Permit::release);
+        }
+
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package com.usermanagement.api.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private ConcurrencyLimitProperties properties;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldShedBulkAndWritesBeforeReads() {
+        // Given
+        properties.setInitialLimit(20);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties, registry);
+
+        // When
+        int bulk = acquireAll(limiter, RequestPriority.BULK);
+        int writes = acquireAll(limiter, RequestPriority.WRITE);
+        int reads = acquireAll(limiter, RequestPriority.READ);
+
+        // Then - Each priority fills the limit up to its share
+        assertThat(bulk).isEqualTo(10);
+        assertThat(writes).isEqualTo(6);
+        assertThat(reads).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isEqualTo(20);
+        assertThat(registry.get("user.concurrency.rejected").tag("priority", "bulk").counter().count()).isEqualTo(1);
+        assertThat(registry.get("user.concurrency.limit").gauge().value()).isEqualTo(20);
+    }
+
+    @Test
+    void shouldLowerLimitOncePerRequestDurationWhenLatencyRises() {
+        // Given - A steady 10ms
+        properties.setInitialLimit(100);
+        properties.setMinLimit(1);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties, registry);
+        // Well after the limiter started
+        long now = System.nanoTime() + 1000 * MILLIS;
+        for (int i = 0; i < 10; i++) {
+            limiter.onSample(RequestPriority.READ, 10 * MILLIS, 10, now += MILLIS);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(100);
+
+        // When - Requests start queueing and take 100ms
+        for (int i = 0; i < 10; i++) {
+            limiter.onSample(RequestPriority.READ, 100 * MILLIS, 10, now += MILLIS);
+        }
+        int lowered = limiter.getLimit();
+        for (int i = 0; i < 10; i++) {
+            limiter.onSample(RequestPriority.READ, 100 * MILLIS, 10, now += MILLIS);
+        }
+
+        // Then - Lowered once, as the slow requests completing right after were queued before
+        assertThat(lowered).isEqualTo(90);
+        assertThat(limiter.getLimit()).isEqualTo(90);
+
+        // And - Lowered again after another request duration
+        limiter.onSample(RequestPriority.READ, 100 * MILLIS, 10, now + 100 * MILLIS);
+        assertThat(limiter.getLimit()).isEqualTo(81);
+    }
+
+    @Test
+    void shouldRaiseLimitOnlyWhileMostOfItIsUsed() {
+        // Given
+        properties.setInitialLimit(20);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties, registry);
+
+        // When - Fast requests, few in flight
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(RequestPriority.READ, MILLIS, 2, i * MILLIS);
+        }
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(20);
+
+        // When - Fast requests, using the limit
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(RequestPriority.READ, MILLIS, 20, i * MILLIS);
+        }
+
+        // Then - Grows by about one per limit's worth of completions
+        assertThat(limiter.getLimit()).isBetween(23, 25);
+    }
+
+    @Test
+    void shouldNotAdjustLimitForBulkCalls() throws InterruptedException {
+        // Given
+        properties.setInitialLimit(20);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties, registry);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(RequestPriority.BULK).release();
+        }
+
+        // When - An export much slower than the bulk calls before it
+        ConcurrencyLimiter.Permit export = limiter.tryAcquire(RequestPriority.BULK);
+        Thread.sleep(50);
+        export.release();
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(20);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldPreserveGoodputWhenRepositorySlowsDown() throws Exception {
+        // Given - A repository slowed to 20ms per query on 4 connections, serving 200 queries a second,
+        // and 64 clients that give up on requests taking longer than 100ms
+        properties.setInitialLimit(32);
+        properties.setMinLimit(1);
+        Duration duration = Duration.ofSeconds(3);
+
+        // When
+        int withoutLimit = goodput(null, duration);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties, registry);
+        int withLimit = goodput(limiter, duration);
+
+        // Then - Unbounded, every request queues for about 320ms and is too late;
+        // limited, requests over the limit are turned away and the others are served in time
+        assertThat(withLimit).isGreaterThan(240);
+        assertThat(withoutLimit).isLessThan(withLimit / 4);
+        assertThat(limiter.getLimit()).isLessThan(20);
+    }
+
+    private static int acquireAll(ConcurrencyLimiter limiter, RequestPriority priority) {
+        int acquired = 0;
+        while (limiter.tryAcquire(priority) != null) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    /** Requests served within the clients' deadline. */
+    private static int goodput(ConcurrencyLimiter limiter, Duration duration) throws InterruptedException {
+        Semaphore connections = new Semaphore(4, true);
+        AtomicInteger served = new AtomicInteger();
+        long end = System.nanoTime() + duration.toNanos();
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            clients.add(Thread.ofVirtual().start(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        ConcurrencyLimiter.Permit permit = limiter != null ? limiter.tryAcquire(RequestPriority.READ) : null;
+                        if (limiter != null && permit == null) {
+                            Thread.sleep(5);
+                            continue;
+                        }
+                        connections.acquire();
+                        try {
+                            Thread.sleep(20);
+                        } finally {
+                            connections.release();
+                            if (permit != null) {
+                                permit.release();
+                            }
+                        }
+                        if (System.nanoTime() - start <= 100 * MILLIS) {
+                            served.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        return served.get();
+    }
+}
@@ -0,0 +1,86 @@
+package com.usermanagement.api.metrics;
+
+import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.exception.UserManagementException;
+import com.usermanagement.api.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UserServiceMetricsAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private UserService target;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        target = mock(UserService.class);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new UserServiceMetricsAspect(registry, new StatementCounter()));
+        userService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void shouldTimeSuccessfulCalls() {
+        // Given
+        when(target.getUserById(1L)).thenReturn(UserResponse.builder().id(1L).build());
+
+        // When
+        userService.getUserById(1L);
+        userService.getUserById(1L);
+
+        // Then
+        assertThat(registry.get(UserServiceMetricsAspect.OPERATIONS)
+                .tag("operation", "getUserById")
+                .tag("outcome", "SUCCESS")
+                .timer()
+                .count()).isEqualTo(2);
+        assertThat(registry.get(UserServiceMetricsAspect.STATEMENTS)
+                .tag("operation", "getUserById")
+                .summary()
+                .count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountFailuresByStatus() {
+        // Given
+        when(target.getUserByEmail("missing@example.com"))
+                .thenThrow(UserManagementException.notFound("User not found with email: missing@example.com"));
+        when(target.getUserByEmail("broken@example.com"))
+                .thenThrow(new IllegalStateException("Database unavailable"));
+
+        // When
+        assertThrows(UserManagementException.class, () -> userService.getUserByEmail("missing@example.com"));
+        assertThrows(IllegalStateException.class, () -> userService.getUserByEmail("broken@example.com"));
+
+        // Then
+        assertThat(registry.get(UserServiceMetricsAspect.ERRORS)
+                .tag("operation", "getUserByEmail")
+                .tag("status", "404")
+                .counter()
+                .count()).isEqualTo(1);
+        assertThat(registry.get(UserServiceMetricsAspect.ERRORS)
+                .tag("operation", "getUserByEmail")
+                .tag("status", "500")
+                .counter()
+                .count()).isEqualTo(1);
+        assertThat(registry.get(UserServiceMetricsAspect.OPERATIONS)
+                .tag("operation", "getUserByEmail")
+                .tag("outcome", "CLIENT_ERROR")
+                .timer()
+                .count()).isEqualTo(1);
+        assertThat(registry.get(UserServiceMetricsAspect.OPERATIONS)
+                .tag("operation", "getUserByEmail")
+                .tag("outcome", "SERVER_ERROR")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+}
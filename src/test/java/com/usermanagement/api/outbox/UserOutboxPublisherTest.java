@@ -0,0 +1,103 @@
+package com.usermanagement.api.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.usermanagement.api.event.UserChangedEvent;
+import com.usermanagement.api.model.UserOutboxEntry;
+import com.usermanagement.api.repository.UserOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserOutboxPublisherTest {
+
+    private UserOutboxRepository outboxRepository;
+    private UserChangeSink sink;
+    private PlatformTransactionManager transactionManager;
+    private UserOutboxPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(UserOutboxRepository.class);
+        sink = mock(UserChangeSink.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        UserOutboxProperties properties = new UserOutboxProperties();
+        properties.setBatchSize(2);
+        publisher = new UserOutboxPublisher(outboxRepository, sink, properties, transactionManager);
+    }
+
+    @Test
+    void shouldSendAndDeleteBatchesUntilOutboxIsDrained() {
+        // Given - A full batch, then a partial one
+        when(outboxRepository.claimOldest(2))
+                .thenReturn(List.of(entry(1L), entry(2L)))
+                .thenReturn(List.of(entry(3L)));
+
+        // When
+        long published = publisher.publishPending();
+
+        // Then - Each batch is deleted in the transaction that sent it
+        assertThat(published).isEqualTo(3);
+        verify(sink).send(argThat(messages -> messages.size() == 2 && messages.get(0).getId() == 1L));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void shouldKeepBatchInOutboxWhenSinkFails() {
+        // Given
+        when(outboxRepository.claimOldest(2)).thenReturn(List.of(entry(1L)));
+        doThrow(new IllegalStateException("Broker unavailable")).when(sink).send(anyList());
+
+        // When & Then - The claim is rolled back, and the scheduled run carries on
+        assertThrows(IllegalStateException.class, () -> publisher.publishPending());
+        publisher.publishScheduled();
+
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void shouldAppendOneJsonLinePerChange(@TempDir Path directory) throws Exception {
+        // Given
+        UserOutboxProperties properties = new UserOutboxProperties();
+        properties.setFile(directory.resolve("changes.ndjson"));
+        FileUserChangeSink fileSink = new FileUserChangeSink(properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+        UserChangeMessage created = new UserChangeMessage(1L, UserChangedEvent.Type.CREATED, 7L,
+                LocalDateTime.of(2024, 1, 1, 0, 0), "{\"id\":7}");
+        UserChangeMessage deleted = new UserChangeMessage(2L, UserChangedEvent.Type.DELETED, 7L,
+                LocalDateTime.of(2024, 1, 1, 0, 1), null);
+
+        // When
+        fileSink.send(List.of(created));
+        fileSink.send(List.of(deleted));
+
+        // Then - The user is embedded as JSON rather than as a string
+        List<String> lines = Files.readAllLines(properties.getFile());
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("\"type\":\"CREATED\"", "\"user\":{\"id\":7}");
+        assertThat(lines.get(1)).contains("\"id\":2", "\"type\":\"DELETED\"", "\"user\":null");
+    }
+
+    private static UserOutboxEntry entry(Long id) {
+        return UserOutboxEntry.builder()
+                .id(id)
+                .type(UserChangedEvent.Type.UPDATED)
+                .userId(id * 10)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
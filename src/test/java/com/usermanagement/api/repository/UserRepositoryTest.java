@@ -1,15 +1,25 @@
 package com.usermanagement.api.repository;
 
 import com.usermanagement.api.model.User;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -18,6 +28,9 @@ public class UserRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     public void shouldSaveUser() {
         // Given
@@ -39,7 +52,7 @@ public class UserRepositoryTest {
         userRepository.save(user);
 
         // When
-        Optional<User> foundUser = userRepository.findByUsername("testuser");
+        Optional<User> foundUser = userRepository.findByNormalizedUsername("testuser");
 
         // Then
         assertThat(foundUser).isPresent();
@@ -53,7 +66,7 @@ public class UserRepositoryTest {
         userRepository.save(user);
 
         // When
-        Optional<User> foundUser = userRepository.findByEmail("test@example.com");
+        Optional<User> foundUser = userRepository.findByNormalizedEmail("test@example.com");
 
         // Then
         assertThat(foundUser).isPresent();
@@ -67,7 +80,7 @@ public class UserRepositoryTest {
         userRepository.save(user);
 
         // When
-        boolean exists = userRepository.existsByEmail("test@example.com");
+        boolean exists = userRepository.existsByNormalizedEmail("test@example.com");
 
         // Then
         assertThat(exists).isTrue();
@@ -80,12 +93,215 @@ public class UserRepositoryTest {
         userRepository.save(user);
 
         // When
-        boolean exists = userRepository.existsByUsername("testuser");
+        boolean exists = userRepository.existsByNormalizedUsername("testuser");
 
         // Then
         assertThat(exists).isTrue();
     }
 
+    @Test
+    public void shouldMatchEmailsAndUsernamesIgnoringCase() {
+        // Given
+        User user = createTestUser();
+        user.setEmail("Test.User@Example.com");
+        user.setUsername("TestUser");
+        userRepository.saveAndFlush(user);
+        entityManager.clear();
+
+        // When
+        Optional<UserView> byEmail = userRepository.findViewByNormalizedEmail(User.normalize("test.user@EXAMPLE.COM"));
+        Optional<UserView> byUsername = userRepository.findViewByNormalizedUsername(User.normalize("testuser"));
+
+        // Then - Found in any casing, and returned as entered
+        assertThat(byEmail).get().extracting(UserView::getEmail).isEqualTo("Test.User@Example.com");
+        assertThat(byUsername).get().extracting(UserView::getUsername).isEqualTo("TestUser");
+        assertThat(userRepository.findById(user.getId())).get()
+                .extracting(User::getNormalizedEmail, User::getNormalizedUsername)
+                .containsExactly("test.user@example.com", "testuser");
+    }
+
+    @Test
+    public void shouldRejectDuplicatesThatDifferOnlyInCase() {
+        // Given
+        userRepository.saveAndFlush(createTestUser());
+        User sameEmail = createTestUser();
+        sameEmail.setEmail("TEST@example.com");
+        sameEmail.setUsername("otheruser");
+        User sameUsername = createTestUser();
+        sameUsername.setEmail("other@example.com");
+        sameUsername.setUsername("TestUser");
+
+        // When & Then
+        assertThatThrownBy(() -> userRepository.saveAndFlush(sameEmail))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(User.EMAIL_CONSTRAINT.toUpperCase(Locale.ROOT));
+        assertThatThrownBy(() -> userRepository.saveAndFlush(sameUsername))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(User.USERNAME_CONSTRAINT.toUpperCase(Locale.ROOT));
+    }
+
+    @Test
+    public void shouldFillInMissingNormalizedKeys() {
+        // Given - A user stored before the normalized columns existed
+        User user = userRepository.saveAndFlush(createTestUser());
+        entityManager.getEntityManager()
+                .createNativeQuery("update users set normalized_email = null, normalized_username = null")
+                .executeUpdate();
+        entityManager.clear();
+
+        // When
+        int filled = userRepository.fillMissingNormalizedKeys();
+
+        // Then - The user can be found again, and a second run has nothing to do
+        assertThat(filled).isEqualTo(1);
+        assertThat(userRepository.findByNormalizedUsername("testuser")).get().extracting(User::getId).isEqualTo(user.getId());
+        assertThat(userRepository.findViewByNormalizedEmail("test@example.com")).isPresent();
+        assertThat(userRepository.fillMissingNormalizedKeys()).isZero();
+    }
+
+    @Test
+    public void shouldSearchRankedByExactPrefixAndSubstringMatches() {
+        // Given
+        User exact = userRepository.save(createTestUser("Anna", "anna@example.com", "Anna", "Smith"));
+        User prefix = userRepository.save(createTestUser("belle", "belle@example.com", "Annabel", "Lee"));
+        User substring = userRepository.save(createTestUser("joanna", "jo@example.com", "Jo", "Brown"));
+        userRepository.save(createTestUser("other", "other@example.com", "Other", "Person"));
+        userRepository.flush();
+
+        // When
+        List<UserSearchHit> firstPage = search("ANNA", -1, 0L, Limit.of(2));
+        UserSearchHit last = firstPage.get(firstPage.size() - 1);
+        List<UserSearchHit> secondPage = search("ANNA", last.getRank(), last.getUser().getId(), Limit.of(2));
+
+        // Then - Exact before prefix before substring matches, continuing after the last hit
+        assertThat(firstPage).extracting(UserSearchHit::getRank, hit -> hit.getUser().getId())
+                .containsExactly(tuple(UserSearchHit.EXACT, exact.getId()), tuple(UserSearchHit.PREFIX, prefix.getId()));
+        assertThat(secondPage).extracting(UserSearchHit::getRank, hit -> hit.getUser().getId())
+                .containsExactly(tuple(UserSearchHit.SUBSTRING, substring.getId()));
+        assertThat(search("smi", -1, 0L, Limit.of(10)))
+                .extracting(hit -> hit.getUser().getId()).containsExactly(exact.getId());
+    }
+
+    @Test
+    public void shouldTreatLikeWildcardsInSearchesLiterally() {
+        // Given
+        userRepository.saveAndFlush(createTestUser("anna", "anna@example.com", "Anna", "Smith"));
+
+        // When & Then
+        assertThat(search("a_na", -1, 0L, Limit.of(10))).isEmpty();
+        assertThat(search("an%", -1, 0L, Limit.of(10))).isEmpty();
+        assertThat(search("an!a", -1, 0L, Limit.of(10))).isEmpty();
+    }
+
+    @Test
+    public void shouldPatchOnlyGivenAttributes() {
+        // Given
+        User user = userRepository.saveAndFlush(createTestUser());
+        entityManager.clear();
+
+        // When
+        int updated = userRepository.patchById(user.getId(), null, Map.of("active", false, "lastName", "Patched"));
+        int stale = userRepository.patchById(user.getId(), 0L, Map.of("active", true));
+        int missing = userRepository.patchById(user.getId() + 1000, null, Map.of("active", false));
+
+        // Then
+        User patched = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(updated).isEqualTo(1);
+        assertThat(stale).isZero();
+        assertThat(missing).isZero();
+        assertThat(patched.getVersion()).isEqualTo(1L);
+        assertThat(patched.isActive()).isFalse();
+        assertThat(patched.getLastName()).isEqualTo("Patched");
+        assertThat(patched.getFirstName()).isEqualTo(user.getFirstName());
+        assertThat(patched.getEmail()).isEqualTo(user.getEmail());
+    }
+
+    @Test
+    public void shouldUpdateStatusOfUsersMatchingEveryCriterion() {
+        // Given
+        User old = createTestUser("olduser", "old@acme.com", "Old", "User");
+        old.setCreatedAt(LocalDateTime.now().minusYears(1));
+        User recent = createTestUser("recent", "recent@ACME.com", "Recent", "User");
+        User elsewhere = createTestUser("elsewhere", "someone@other.com", "Else", "Where");
+        elsewhere.setCreatedAt(LocalDateTime.now().minusYears(1));
+        User lookalike = createTestUser("lookalike", "x@notacme.com", "Look", "Alike");
+        userRepository.saveAllAndFlush(List.of(old, recent, elsewhere, lookalike));
+        entityManager.clear();
+        UserStatusFilter atAcme = UserStatusFilter.of(null, null, "@Acme.com");
+        UserStatusFilter oldAtAcme = UserStatusFilter.of(null, LocalDateTime.now().minusMonths(1), "acme.com");
+
+        // When
+        List<Long> acmeIds = userRepository.findIdsForStatusUpdate(atAcme, false, 0L, Limit.of(10));
+        List<Long> afterFirst = userRepository.findIdsForStatusUpdate(atAcme, false, acmeIds.get(0), Limit.of(10));
+        int updated = userRepository.updateStatus(acmeIds, oldAtAcme, false, LocalDateTime.now());
+        int again = userRepository.updateStatus(acmeIds, oldAtAcme, false, LocalDateTime.now());
+
+        // Then - Only the old user at the domain changed, once, and domains merely ending in it do not match
+        assertThat(acmeIds).containsExactly(old.getId(), recent.getId());
+        assertThat(afterFirst).containsExactly(recent.getId());
+        assertThat(updated).isEqualTo(1);
+        assertThat(again).isZero();
+        User deactivated = userRepository.findById(old.getId()).orElseThrow();
+        assertThat(deactivated.isActive()).isFalse();
+        assertThat(deactivated.getVersion()).isEqualTo(1L);
+        assertThat(userRepository.findById(recent.getId()).orElseThrow().isActive()).isTrue();
+        assertThat(userRepository.findIdsForStatusUpdate(UserStatusFilter.of(List.of(old.getId(), elsewhere.getId()), null, null),
+                false, 0L, Limit.of(10))).containsExactly(elsewhere.getId());
+    }
+
+    @Test
+    public void shouldReadViewsWithoutManagingEntities() {
+        // Given
+        User user = userRepository.saveAndFlush(createTestUser());
+        entityManager.clear();
+
+        // When
+        Optional<UserView> byId = userRepository.findViewById(user.getId());
+        Optional<UserView> byUsername = userRepository.findViewByNormalizedUsername(User.normalize("testuser"));
+        Optional<UserView> byEmail = userRepository.findViewByNormalizedEmail("test@example.com");
+        List<UserView> page = userRepository.findPageOrderById(true, 0L, Limit.of(10));
+
+        // Then - The response columns are read, and nothing enters the persistence context
+        assertThat(byId).get()
+                .usingRecursiveComparison()
+                .ignoringFields("createdAt", "updatedAt")
+                .isEqualTo(new UserView(user.getId(), "Test", "User", "test@example.com", "testuser", null, null, true, 0L));
+        assertThat(byUsername).isEqualTo(byId);
+        assertThat(byEmail).isEqualTo(byId);
+        assertThat(page).containsExactly(byId.get());
+        assertThat(userRepository.findViewById(user.getId() + 1000)).isEmpty();
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    public void shouldFindExistingEmailsAndUsernamesInOneQuery() {
+        // Given
+        User user = createTestUser();
+        userRepository.save(user);
+
+        // When
+        Set<String> emails = userRepository.findExistingEmails(List.of("test@example.com", "free@example.com"));
+        Set<String> usernames = userRepository.findExistingUsernames(List.of("testuser", "freeuser"));
+
+        // Then
+        assertThat(emails).containsExactly("test@example.com");
+        assertThat(usernames).containsExactly("testuser");
+    }
+
+    private List<UserSearchHit> search(String query, int afterRank, long afterId, Limit limit) {
+        UserSearchTerms terms = UserSearchTerms.of(query);
+        return userRepository.search(terms.getExact(), terms.getPrefix(), terms.getContains(), afterRank, afterId, limit);
+    }
+
+    private User createTestUser(String username, String email, String firstName, String lastName) {
+        User user = createTestUser();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+
     private User createTestUser() {
         LocalDateTime now = LocalDateTime.now();
         return User.builder()
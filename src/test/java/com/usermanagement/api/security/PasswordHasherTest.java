@@ -0,0 +1,99 @@
+package com.usermanagement.api.security;
+
+import com.usermanagement.api.exception.UserManagementException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PasswordHasherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void shouldHashAndVerifyPasswords() {
+        // Given
+        passwordHasher = new PasswordHasher(properties(4, 2, 10), registry);
+
+        // When
+        String hash = passwordHasher.hash("password123");
+        List<String> hashes = passwordHasher.hashAll(List.of("first-password", "second-password", "third-password"));
+
+        // Then
+        assertThat(hash).startsWith("$2a$04$").isNotEqualTo("password123");
+        assertThat(passwordHasher.matches("password123", hash)).isTrue();
+        assertThat(passwordHasher.matches("wrongpassword", hash)).isFalse();
+        assertThat(passwordHasher.matches("password123", null)).isFalse();
+        assertThat(hashes).hasSize(3);
+        assertThat(passwordHasher.matches("third-password", hashes.get(2))).isTrue();
+        assertThat(registry.get("user.password.hashing").tag("operation", "hash").timer().count()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldVerifyPlainTextPasswordsAndAskForRehash() {
+        // Given
+        passwordHasher = new PasswordHasher(properties(5, 1, 10), registry);
+        String weakerHash = new PasswordHasher(properties(4, 1, 10), new SimpleMeterRegistry()).hash("password123");
+
+        // When & Then - Each plain-text check costs a hash, like any other
+        assertThat(passwordHasher.matches("password123", "password123")).isTrue();
+        assertThat(passwordHasher.matches("password12", "password123")).isFalse();
+        assertThat(registry.get("user.password.hashing").tag("operation", "verify").timer().count()).isEqualTo(2);
+        assertThat(passwordHasher.needsRehash("password123")).isTrue();
+        assertThat(passwordHasher.needsRehash(weakerHash)).isTrue();
+        assertThat(passwordHasher.needsRehash(passwordHasher.hash("password123"))).isFalse();
+    }
+
+    @Test
+    void shouldRejectWorkBeyondQueueCapacity() {
+        // Given - One thread and room for one waiting hash, both taken by slow hashes
+        passwordHasher = new PasswordHasher(properties(12, 1, 1), registry);
+        CompletableFuture<String> running = passwordHasher.hashAsync("password123");
+        CompletableFuture<String> queued = passwordHasher.hashAsync("password123");
+
+        // When & Then
+        UserManagementException ex = assertThrows(UserManagementException.class, () -> passwordHasher.hash("password123"));
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(registry.get("user.password.hashing.rejected").counter().count()).isEqualTo(1);
+        assertThat(running.join()).startsWith("$2a$12$");
+        assertThat(queued.join()).startsWith("$2a$12$");
+    }
+
+    @Test
+    void shouldCalibrateWorkFactorWithinBounds() {
+        // Given - No fixed work factor and a target any machine hashes cost 4 within
+        PasswordHashingProperties properties = properties(null, 1, 10);
+        properties.setMinWorkFactor(4);
+        properties.setMaxWorkFactor(6);
+        properties.setTargetLatency(Duration.ofSeconds(10));
+
+        // When
+        passwordHasher = new PasswordHasher(properties, registry);
+
+        // Then
+        assertThat(passwordHasher.getWorkFactor()).isEqualTo(6);
+        assertThat(registry.get("user.password.hashing.work.factor").gauge().value()).isEqualTo(6);
+    }
+
+    private static PasswordHashingProperties properties(Integer workFactor, int threads, int queueCapacity) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setWorkFactor(workFactor);
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        return properties;
+    }
+}
@@ -1,27 +1,66 @@
 package com.usermanagement.api.service;
 
+import com.usermanagement.api.cache.UserCache;
+import com.usermanagement.api.cache.UserCacheProperties;
+import com.usermanagement.api.dto.AvailabilityResponse;
+import com.usermanagement.api.dto.LoginRequest;
+import com.usermanagement.api.dto.UserBatchCreateResponse;
+import com.usermanagement.api.dto.UserBatchItemResult;
 import com.usermanagement.api.dto.UserCreateRequest;
+import com.usermanagement.api.dto.UserPageResponse;
+import com.usermanagement.api.dto.UserPatchRequest;
 import com.usermanagement.api.dto.UserResponse;
+import com.usermanagement.api.dto.UserSortField;
+import com.usermanagement.api.dto.UserStatusUpdateRequest;
+import com.usermanagement.api.dto.UserStatusUpdateResponse;
+import com.usermanagement.api.dto.UserSuggestion;
 import com.usermanagement.api.dto.UserUpdateRequest;
+import com.usermanagement.api.event.UserChangedEvent;
 import com.usermanagement.api.exception.UserManagementException;
+import com.usermanagement.api.index.UserSuggestIndex;
+import com.usermanagement.api.index.UserUniquenessIndex;
 import com.usermanagement.api.model.User;
 import com.usermanagement.api.repository.UserRepository;
+import com.usermanagement.api.repository.UserSearchHit;
+import com.usermanagement.api.repository.UserVersion;
+import com.usermanagement.api.repository.UserView;
+import com.usermanagement.api.security.PasswordHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +69,24 @@ public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private UserCache userCache = new UserCache(disabledCacheProperties());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserUniquenessIndex uniquenessIndex;
+
+    @Mock
+    private UserSuggestIndex suggestIndex;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -72,9 +129,8 @@ public class UserServiceImplTest {
     @Test
     void shouldCreateUserSuccessfully() {
         // Given
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(userRepository.existsByUsername(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(passwordHasher.hash("newpassword123")).thenReturn("$2a$hashed");
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         // When
         UserResponse response = userService.createUser(createRequest);
@@ -82,39 +138,108 @@ public class UserServiceImplTest {
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getId()).isEqualTo(testUser.getId());
-        verify(userRepository).existsByEmail(createRequest.getEmail());
-        verify(userRepository).existsByUsername(createRequest.getUsername());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(argThat(user -> user.getPassword().equals("$2a$hashed")));
+        verify(userRepository, never()).existsByNormalizedEmail(anyString());
+        verify(userRepository, never()).existsByNormalizedUsername(anyString());
+        verify(eventPublisher).publishEvent(UserChangedEvent.created(response));
     }
 
     @Test
     void shouldThrowExceptionWhenEmailAlreadyExists() {
         // Given
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation(User.EMAIL_CONSTRAINT));
 
         // When & Then
-        assertThrows(UserManagementException.class, () -> userService.createUser(createRequest));
-        verify(userRepository).existsByEmail(createRequest.getEmail());
-        verify(userRepository, never()).save(any(User.class));
+        UserManagementException ex = assertThrows(UserManagementException.class, () -> userService.createUser(createRequest));
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(ex.getMessage()).isEqualTo("Email already in use: " + createRequest.getEmail());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void shouldThrowExceptionWhenUsernameAlreadyExists() {
         // Given
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(userRepository.existsByUsername(anyString())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation(User.USERNAME_CONSTRAINT));
 
         // When & Then
-        assertThrows(UserManagementException.class, () -> userService.createUser(createRequest));
-        verify(userRepository).existsByEmail(createRequest.getEmail());
-        verify(userRepository).existsByUsername(createRequest.getUsername());
-        verify(userRepository, never()).save(any(User.class));
+        UserManagementException ex = assertThrows(UserManagementException.class, () -> userService.createUser(createRequest));
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(ex.getMessage()).isEqualTo("Username already in use: " + createRequest.getUsername());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldNotMaskOtherIntegrityViolations() {
+        // Given
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation("fk_something_else"));
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> userService.createUser(createRequest));
+    }
+
+    @Test
+    void shouldCheckAvailabilityAgainstDatabaseOnlyForPossibleMatches() {
+        // Given
+        when(uniquenessIndex.mightContainUsername("freeuser")).thenReturn(false);
+        when(uniquenessIndex.mightContainEmail("test@example.com")).thenReturn(true);
+        when(userRepository.existsByNormalizedEmail("test@example.com")).thenReturn(true);
+
+        // When
+        AvailabilityResponse response = userService.checkAvailability("freeuser", "test@example.com");
+
+        // Then
+        assertThat(response.getUsernameAvailable()).isTrue();
+        assertThat(response.getEmailAvailable()).isFalse();
+        verify(userRepository, never()).existsByNormalizedUsername(anyString());
+        verify(userRepository).existsByNormalizedEmail("test@example.com");
+    }
+
+    @Test
+    void shouldRequireUsernameOrEmailForAvailability() {
+        assertThrows(UserManagementException.class, () -> userService.checkAvailability(null, null));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCreateUsersInBatchAndReportConflicts() {
+        // Given
+        UserCreateRequest takenEmail = UserCreateRequest.builder()
+                .email("test@example.com").username("otheruser").build();
+        UserCreateRequest duplicateInBatch = UserCreateRequest.builder()
+                .email("new@example.com").username("anotheruser").build();
+        when(passwordHasher.hashAll(anyList())).thenReturn(List.of("$2a$first", "$2a$second", "$2a$third"));
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("test@example.com"));
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of());
+        when(userRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> user.setId(10L));
+            return users;
+        });
+
+        // When
+        UserBatchCreateResponse response = userService.createUsers(List.of(createRequest, takenEmail, duplicateInBatch));
+
+        // Then
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getConflicts()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(UserBatchItemResult::getStatus).containsExactly(
+                UserBatchItemResult.Status.CREATED,
+                UserBatchItemResult.Status.CONFLICT,
+                UserBatchItemResult.Status.CONFLICT);
+        assertThat(response.getResults().get(0).getUser().getUsername()).isEqualTo("newuser");
+        assertThat(response.getResults().get(2).getMessage()).contains("new@example.com");
+        verify(userRepository).findExistingEmails(anyCollection());
+        verify(userRepository).findExistingUsernames(anyCollection());
+        verify(userRepository).saveAllAndFlush(argThat(users -> ((List<User>) users).size() == 1
+                && ((List<User>) users).get(0).getPassword().equals("$2a$first")));
+        verify(userRepository, never()).existsByNormalizedEmail(anyString());
     }
 
     @Test
     void shouldGetUserByIdSuccessfully() {
         // Given
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.of(viewOf(testUser)));
 
         // When
         UserResponse response = userService.getUserById(1L);
@@ -122,21 +247,35 @@ public class UserServiceImplTest {
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getUsername()).isEqualTo(testUser.getUsername());
-        verify(userRepository).findById(1L);
+        verify(userRepository).findViewById(1L);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void shouldReadOnlyModificationTimeForConditionalRequests() {
+        // Given
+        UserVersion version = new UserVersion(3L, testUser.getUpdatedAt());
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(version));
+        when(userRepository.findVersionById(2L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThat(userService.getUserVersion(1L)).isEqualTo(version);
+        assertThrows(UserManagementException.class, () -> userService.getUserVersion(2L));
+        verify(userRepository, never()).findViewById(anyLong());
     }
 
     @Test
     void shouldThrowExceptionWhenUserNotFoundById() {
         // Given
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(UserManagementException.class, () -> userService.getUserById(1L));
-        verify(userRepository).findById(1L);
+        verify(userRepository).findViewById(1L);
     }
 
     @Test
-    void shouldGetAllUsersSuccessfully() {
+    void shouldGetFirstPageOfUsersSuccessfully() {
         // Given
         User anotherUser = User.builder()
                 .id(2L)
@@ -150,71 +289,421 @@ public class UserServiceImplTest {
                 .active(true)
                 .build();
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser, anotherUser));
+        when(userRepository.findPageOrderById(isNull(), eq(0L), any(Limit.class)))
+                .thenReturn(Arrays.asList(viewOf(testUser), viewOf(anotherUser)));
 
         // When
-        List<UserResponse> responses = userService.getAllUsers();
+        UserPageResponse page = userService.getUsers(null, 20, null, UserSortField.ID);
 
         // Then
-        assertThat(responses).hasSize(2);
-        assertThat(responses.get(0).getId()).isEqualTo(testUser.getId());
-        assertThat(responses.get(1).getId()).isEqualTo(anotherUser.getId());
-        verify(userRepository).findAll();
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getContent().get(0).getId()).isEqualTo(testUser.getId());
+        assertThat(page.getContent().get(1).getId()).isEqualTo(anotherUser.getId());
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        verify(userRepository).findPageOrderById(null, 0L, Limit.of(21));
     }
 
     @Test
-    void shouldUpdateUserSuccessfully() {
+    void shouldReturnCursorWhenMoreUsersAvailable() {
         // Given
-        User updatedUser = User.builder()
-                .id(1L)
-                .firstName("Updated")
-                .lastName("User")
-                .email("updated@example.com")
-                .username("testuser")
-                .password("updatedpassword123")
-                .createdAt(testUser.getCreatedAt())
-                .updatedAt(LocalDateTime.now())
-                .active(true)
+        User anotherUser = User.builder()
+                .id(2L)
+                .username("anotheruser")
+                .createdAt(LocalDateTime.now())
                 .build();
 
+        when(userRepository.findPageOrderById(eq(true), eq(0L), any(Limit.class)))
+                .thenReturn(Arrays.asList(viewOf(testUser), viewOf(anotherUser)));
+        when(userRepository.findPageOrderById(eq(true), eq(1L), any(Limit.class)))
+                .thenReturn(List.of(viewOf(anotherUser)));
+
+        // When
+        UserPageResponse firstPage = userService.getUsers(null, 1, true, UserSortField.ID);
+        UserPageResponse secondPage = userService.getUsers(firstPage.getNextCursor(), 1, true, UserSortField.ID);
+
+        // Then
+        assertThat(firstPage.getContent()).hasSize(1);
+        assertThat(firstPage.isHasNext()).isTrue();
+        assertThat(firstPage.getNextCursor()).isNotNull();
+        assertThat(secondPage.getContent()).extracting(UserResponse::getId).containsExactly(2L);
+        assertThat(secondPage.isHasNext()).isFalse();
+    }
+
+    @Test
+    void shouldPageByCreatedAtUsingKeysetFromCursor() {
+        // Given
+        when(userRepository.findFirstPageOrderByCreatedAt(isNull(), any(Limit.class)))
+                .thenReturn(Arrays.asList(viewOf(testUser), viewOf(testUser)));
+        when(userRepository.findPageOrderByCreatedAt(isNull(), any(LocalDateTime.class), anyLong(), any(Limit.class)))
+                .thenReturn(List.of());
+
+        // When
+        UserPageResponse firstPage = userService.getUsers(null, 1, null, UserSortField.CREATED_AT);
+        userService.getUsers(firstPage.getNextCursor(), 1, null, UserSortField.CREATED_AT);
+
+        // Then
+        verify(userRepository).findPageOrderByCreatedAt(null, testUser.getCreatedAt(), testUser.getId(), Limit.of(2));
+    }
+
+    @Test
+    void shouldPageThroughSearchResultsByRankAndId() {
+        // Given
+        User anotherUser = User.builder()
+                .id(2L)
+                .username("anotheruser")
+                .build();
+        when(userRepository.search(eq("test"), eq("test%"), eq("%test%"), eq(-1), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(new UserSearchHit(UserSearchHit.PREFIX, 1L, "Test", "User", "test@example.com",
+                                "testuser", null, null, true, 0L),
+                        new UserSearchHit(UserSearchHit.SUBSTRING, 2L, null, null, null, "anotheruser", null, null, true, 0L)));
+        when(userRepository.search(eq("test"), eq("test%"), eq("%test%"), eq(UserSearchHit.PREFIX), eq(1L), any(Limit.class)))
+                .thenReturn(List.of(new UserSearchHit(UserSearchHit.SUBSTRING, anotherUser.getId(), null, null, null,
+                        anotherUser.getUsername(), null, null, true, 0L)));
+
+        // When
+        UserPageResponse firstPage = userService.searchUsers(" test ", null, 1);
+        UserPageResponse secondPage = userService.searchUsers("test", firstPage.getNextCursor(), 1);
+
+        // Then
+        assertThat(firstPage.getContent()).extracting(UserResponse::getId).containsExactly(1L);
+        assertThat(firstPage.isHasNext()).isTrue();
+        assertThat(secondPage.getContent()).extracting(UserResponse::getUsername).containsExactly("anotheruser");
+        assertThat(secondPage.isHasNext()).isFalse();
+        verify(userRepository).search("test", "test%", "%test%", -1, 0L, Limit.of(2));
+    }
+
+    @Test
+    void shouldRejectInvalidSearchRequests() {
+        // Given
+        String cursor = UserSearchCursor.of(UserSearchHit.PREFIX, 1L).encode("test");
+
+        // When & Then
+        assertThrows(UserManagementException.class, () -> userService.searchUsers(null, null, 20));
+        assertThrows(UserManagementException.class, () -> userService.searchUsers(" ab ", null, 20));
+        assertThrows(UserManagementException.class, () -> userService.searchUsers("test", null, 101));
+        assertThrows(UserManagementException.class, () -> userService.searchUsers("other", cursor, 20));
+        assertThrows(UserManagementException.class, () -> userService.searchUsers("test", "not-a-cursor", 20));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void shouldServeSuggestionsFromIndexOnceReady() {
+        // Given
+        List<UserSuggestion> suggestions = List.of(new UserSuggestion(1L, UserSuggestion.USERNAME, "testuser"));
+        when(suggestIndex.isReady()).thenReturn(true);
+        when(suggestIndex.suggest("tes", 10)).thenReturn(suggestions);
+
+        // When
+        List<UserSuggestion> result = userService.suggestUsers(" tes ", 10);
+
+        // Then
+        assertThat(result).isEqualTo(suggestions);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void shouldFallBackToDatabaseForSuggestionsUntilIndexIsReady() {
+        // Given
+        UserSuggestion username = new UserSuggestion(1L, UserSuggestion.USERNAME, "test_user");
+        UserSuggestion email = new UserSuggestion(1L, UserSuggestion.EMAIL, "test@example.com");
+        when(suggestIndex.isReady()).thenReturn(false);
+        when(userRepository.findUsernameSuggestions("tes%", Limit.of(1))).thenReturn(List.of(username));
+        when(userRepository.findEmailSuggestions("tes%", Limit.of(1))).thenReturn(List.of(email));
+
+        // When
+        List<UserSuggestion> result = userService.suggestUsers("tes", 1);
+
+        // Then - Both lists are merged in order and cut to the limit
+        assertThat(result).containsExactly(email);
+        verify(suggestIndex, never()).suggest(anyString(), anyInt());
+    }
+
+    @Test
+    void shouldRejectInvalidSuggestRequests() {
+        // When & Then
+        assertThrows(UserManagementException.class, () -> userService.suggestUsers(null, 10));
+        assertThrows(UserManagementException.class, () -> userService.suggestUsers("  ", 10));
+        assertThrows(UserManagementException.class, () -> userService.suggestUsers("tes", 51));
+        verifyNoInteractions(suggestIndex, userRepository);
+    }
+
+    @Test
+    void shouldRejectInvalidPageRequests() {
+        assertThrows(UserManagementException.class, () -> userService.getUsers(null, 0, null, UserSortField.ID));
+        assertThrows(UserManagementException.class, () -> userService.getUsers(null, 101, null, UserSortField.ID));
+        assertThrows(UserManagementException.class, () -> userService.getUsers("not-a-cursor", 20, null, UserSortField.ID));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void shouldExportUsersFromViews() {
+        // Given
+        User anotherUser = User.builder()
+                .id(2L)
+                .username("anotheruser")
+                .build();
+        when(userRepository.streamAllOrderById()).thenReturn(Stream.of(viewOf(testUser), viewOf(anotherUser)));
+        List<UserResponse> exported = new ArrayList<>();
+
+        // When
+        long rows = userService.exportUsers(exported::add);
+
+        // Then
+        assertThat(rows).isEqualTo(2);
+        assertThat(exported).extracting(UserResponse::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldUpdateUserSuccessfully() {
+        // Given
+        when(passwordHasher.hash("updatedpassword123")).thenReturn("$2a$hashed");
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
 
         // When
-        UserResponse response = userService.updateUser(1L, updateRequest);
+        UserResponse response = userService.updateUser(1L, updateRequest, null);
 
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getFirstName()).isEqualTo(updateRequest.getFirstName());
         assertThat(response.getEmail()).isEqualTo(updateRequest.getEmail());
+        assertThat(testUser.getPassword()).isEqualTo("$2a$hashed");
         verify(userRepository).findById(1L);
-        verify(userRepository).findByEmail(updateRequest.getEmail());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).flush();
+        verify(userRepository, never()).findByNormalizedEmail(anyString());
+        verify(userRepository, never()).save(any(User.class));
+        verify(eventPublisher).publishEvent(UserChangedEvent.updated(response));
+    }
+
+    @Test
+    void shouldThrowConflictWhenUpdatedEmailIsTaken() {
+        // Given
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
+        doThrow(uniqueViolation(User.EMAIL_CONSTRAINT)).when(userRepository).flush();
+
+        // When & Then
+        UserManagementException ex = assertThrows(UserManagementException.class, () -> userService.updateUser(1L, updateRequest, null));
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldLoginAndUpgradeOutdatedPassword() {
+        // Given - A password stored before hashing was introduced
+        when(userRepository.findByNormalizedUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("password123", "password123")).thenReturn(true);
+        when(passwordHasher.needsRehash("password123")).thenReturn(true);
+        when(passwordHasher.hash("password123")).thenReturn("$2a$hashed");
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(userRepository.replacePassword(eq(1L), eq("password123"), eq("$2a$hashed"), any())).thenReturn(1);
+        testUser.setVersion(1L);
+        when(userRepository.findViewById(1L)).thenReturn(Optional.of(viewOf(testUser)));
+
+        // When
+        UserResponse response = userService.login(new LoginRequest("testuser", "password123"));
+
+        // Then - The new version is returned and announced, so cached copies are replaced
+        assertThat(response.getId()).isEqualTo(testUser.getId());
+        assertThat(response.getVersion()).isEqualTo(1L);
+        verify(eventPublisher).publishEvent(UserChangedEvent.updated(response));
+    }
+
+    @Test
+    void shouldRejectLoginWithWrongPasswordOrUnknownUsername() {
+        // Given
+        when(userRepository.findByNormalizedUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepository.findByNormalizedUsername("nobody")).thenReturn(Optional.empty());
+        when(passwordHasher.matches(anyString(), any())).thenReturn(false);
+
+        // When & Then - Both fail the same way, and an unknown username is still verified against
+        UserManagementException wrongPassword = assertThrows(UserManagementException.class,
+                () -> userService.login(new LoginRequest("testuser", "wrongpassword")));
+        UserManagementException unknownUser = assertThrows(UserManagementException.class,
+                () -> userService.login(new LoginRequest("nobody", "password123")));
+        assertThat(wrongPassword.getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(unknownUser.getMessage()).isEqualTo(wrongPassword.getMessage());
+        verify(passwordHasher).matches("password123", null);
+        verify(userRepository, never()).replacePassword(anyLong(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void shouldPatchOnlyPresentAttributesWithoutLoadingFirst() {
+        // Given
+        UserPatchRequest patch = UserPatchRequest.builder().active(false).build();
+        when(userRepository.patchById(eq(1L), isNull(), anyMap())).thenReturn(1);
+        when(userRepository.findViewById(1L)).thenReturn(Optional.of(viewOf(testUser)));
+
+        // When
+        UserResponse response = userService.patchUser(1L, patch, null);
+
+        // Then
+        assertThat(response.getId()).isEqualTo(1L);
+        verify(userRepository).patchById(eq(1L), isNull(), argThat((Map<String, Object> attributes) ->
+                attributes.keySet().equals(Set.of("active", "updatedAt")) && attributes.get("active").equals(false)));
+        InOrder order = inOrder(userRepository);
+        order.verify(userRepository).patchById(eq(1L), isNull(), anyMap());
+        order.verify(userRepository).findViewById(1L);
+        verifyNoInteractions(passwordHasher);
+        verify(eventPublisher).publishEvent(UserChangedEvent.updated(response));
+    }
+
+    @Test
+    void shouldFailPatchOfMissingOrConflictingUser() {
+        // Given
+        when(userRepository.patchById(eq(1L), isNull(), anyMap())).thenReturn(0);
+        when(userRepository.patchById(eq(2L), isNull(), anyMap())).thenThrow(uniqueViolation(User.EMAIL_CONSTRAINT));
+        UserPatchRequest patch = UserPatchRequest.builder().email("taken@example.com").build();
+
+        // When & Then
+        UserManagementException missing = assertThrows(UserManagementException.class, () -> userService.patchUser(1L, patch, null));
+        UserManagementException conflict = assertThrows(UserManagementException.class, () -> userService.patchUser(2L, patch, null));
+        assertThat(missing.getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(conflict.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(conflict.getMessage()).isEqualTo("Email already in use: taken@example.com");
+        verify(userRepository, never()).findViewById(anyLong());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldRejectUpdateOfStaleVersion() {
+        // Given
+        testUser.setVersion(4L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When & Then
+        UserManagementException ex = assertThrows(UserManagementException.class,
+                () -> userService.updateUser(1L, updateRequest, 3L));
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(testUser.getFirstName()).isEqualTo("Test");
+        verify(userRepository, never()).flush();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldReportConcurrentModificationOnFlush() {
+        // Given - Another transaction updates the user between the read and the flush
+        testUser.setVersion(4L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        doThrow(new ObjectOptimisticLockingFailureException(User.class, 1L)).when(userRepository).flush();
+
+        // When & Then - A conflict without a precondition, a failed precondition with one
+        UserManagementException unconditional = assertThrows(UserManagementException.class,
+                () -> userService.updateUser(1L, updateRequest, null));
+        testUser.setVersion(4L);
+        UserManagementException conditional = assertThrows(UserManagementException.class,
+                () -> userService.updateUser(1L, updateRequest, 4L));
+        assertThat(unconditional.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(conditional.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldDeleteOnlyMatchingVersion() {
+        // Given
+        when(userRepository.deleteUserByIdAndVersion(1L, 3L)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.deleteUserByIdAndVersion(2L, 3L)).thenReturn(0);
+        when(userRepository.existsById(2L)).thenReturn(false);
+
+        // When & Then
+        UserManagementException stale = assertThrows(UserManagementException.class, () -> userService.deleteUser(1L, 3L));
+        UserManagementException missing = assertThrows(UserManagementException.class, () -> userService.deleteUser(2L, 3L));
+        assertThat(stale.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(missing.getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+        verify(userRepository, never()).deleteUserById(anyLong());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void shouldDeleteUserSuccessfully() {
         // Given
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        doNothing().when(userRepository).deleteById(anyLong());
+        when(userRepository.deleteUserById(anyLong())).thenReturn(1);
 
         // When
-        userService.deleteUser(1L);
+        userService.deleteUser(1L, null);
 
         // Then
-        verify(userRepository).existsById(1L);
-        verify(userRepository).deleteById(1L);
+        verify(userRepository).deleteUserById(1L);
+        verify(userRepository, never()).existsById(anyLong());
+        verify(eventPublisher).publishEvent(UserChangedEvent.deleted(1L));
     }
 
     @Test
     void shouldThrowExceptionWhenDeletingNonExistentUser() {
         // Given
-        when(userRepository.existsById(anyLong())).thenReturn(false);
+        when(userRepository.deleteUserById(anyLong())).thenReturn(0);
 
         // When & Then
-        assertThrows(UserManagementException.class, () -> userService.deleteUser(1L));
-        verify(userRepository).existsById(1L);
-        verify(userRepository, never()).deleteById(anyLong());
+        assertThrows(UserManagementException.class, () -> userService.deleteUser(1L, null));
+        verify(userRepository).deleteUserById(1L);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldSoftDeleteByDeactivating() {
+        // Given
+        when(userRepository.patchById(eq(1L), eq(3L), anyMap())).thenReturn(1);
+
+        // When
+        userService.softDeleteUser(1L, 3L);
+
+        // Then
+        verify(userRepository).patchById(eq(1L), eq(3L), argThat(attributes -> Boolean.FALSE.equals(attributes.get("active"))));
+        verify(userRepository, never()).deleteUserById(anyLong());
+        verify(eventPublisher).publishEvent(UserChangedEvent.updated(1L));
+    }
+
+    @Test
+    void shouldUpdateStatusInChunksOfOneTransactionEach() {
+        // Given - One full chunk, then a partial one
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        List<Long> firstChunk = LongStream.rangeClosed(1, UserServiceImpl.STATUS_CHUNK_SIZE).boxed().toList();
+        List<Long> lastChunk = List.of(1000L, 1001L);
+        when(userRepository.findIdsForStatusUpdate(any(), eq(false), eq(0L), any(Limit.class))).thenReturn(firstChunk);
+        when(userRepository.findIdsForStatusUpdate(any(), eq(false), eq((long) UserServiceImpl.STATUS_CHUNK_SIZE), any(Limit.class)))
+                .thenReturn(lastChunk);
+        when(userRepository.updateStatus(anyList(), any(), eq(false), any())).thenReturn(UserServiceImpl.STATUS_CHUNK_SIZE, 1);
+
+        // When
+        UserStatusUpdateResponse response = userService.updateStatus(UserStatusUpdateRequest.builder()
+                .active(false)
+                .emailDomain("@Example.com")
+                .build());
+
+        // Then
+        assertThat(response.getUpdated()).isEqualTo(UserServiceImpl.STATUS_CHUNK_SIZE + 1L);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(userRepository).updateStatus(eq(lastChunk), argThat(filter -> "example.com".equals(filter.getEmailDomain())),
+                eq(false), any());
+        verify(eventPublisher).publishEvent(UserChangedEvent.updated(1001L));
+        verify(eventPublisher, times(UserServiceImpl.STATUS_CHUNK_SIZE + 2)).publishEvent(any(UserChangedEvent.class));
+    }
+
+    @Test
+    void shouldRequireCriteriaForStatusUpdates() {
+        // When & Then
+        assertThrows(UserManagementException.class, () -> userService.updateStatus(UserStatusUpdateRequest.builder()
+                .active(false)
+                .ids(List.of())
+                .build()));
+        verifyNoInteractions(transactionTemplate, userRepository);
+    }
+
+    private static UserView viewOf(User user) {
+        return new UserView(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getUsername(),
+                user.getCreatedAt(), user.getUpdatedAt(), user.isActive(), user.getVersion());
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation", new SQLException(), constraintName));
+    }
+
+    private static UserCacheProperties disabledCacheProperties() {
+        UserCacheProperties properties = new UserCacheProperties();
+        properties.setEnabled(false);
+        return properties;
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+-- Mirrors the DDL that Hibernate generates for the User entity, for databases the JPA stack does not create
+create sequence if not exists users_seq start with 1 increment by 50;
+
+create table if not exists users (
+    id bigint not null,
+    first_name varchar(50),
+    last_name varchar(50),
+    email varchar(100),
+    username varchar(50),
+    normalized_email varchar(100),
+    normalized_username varchar(50),
+    password varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    active boolean not null,
+    version bigint,
+    primary key (id),
+    constraint uk_users_normalized_email unique (normalized_email),
+    constraint uk_users_normalized_username unique (normalized_username)
+);
+
+create index if not exists idx_users_created_at_id on users (created_at, id);
+create index if not exists idx_users_updated_at on users (updated_at);
+
+-- Mirrors the DDL that Hibernate generates for the UserOutboxEntry entity
+create sequence if not exists user_outbox_seq start with 1 increment by 50;
+
+create table if not exists user_outbox (
+    id bigint not null,
+    type varchar(16) not null,
+    user_id bigint not null,
+    payload varchar(2000),
+    created_at timestamp(6) not null,
+    primary key (id)
+);